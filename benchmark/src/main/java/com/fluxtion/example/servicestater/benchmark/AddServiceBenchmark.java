@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.fluxtion.example.servicestater.benchmark;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ServiceManager#addService(Service...)} of a service that requires svc_0, each invocation is reset by
+ * removing the added service. An interpreted graph splices the service into the running processor, a compiled or AOT
+ * graph generates and compiles a new processor and the measurement includes the wait for the swap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AddServiceBenchmark {
+
+    private static final String ADDED_SERVICE = "addedService";
+    @Param({"CHAIN", "FAN_OUT", "FAN_IN", "LAYERED_RANDOM"})
+    public GraphShape shape;
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+    @Param({"INTERPRETED", "COMPILED", "AOT"})
+    public BuildMode mode;
+    private ServiceManager serviceManager;
+    private Service addedService;
+
+    @Setup(Level.Trial)
+    public void buildGraph() {
+        Service[] services = shape.services(size, true);
+        serviceManager = mode.build(services);
+        addedService = Service.builder(ADDED_SERVICE)
+                .requiredServices(services[0])
+                .startTask(GraphShape::noop)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        serviceManager.shutdown();
+    }
+
+    @TearDown(Level.Invocation)
+    public void removeService() {
+        serviceManager.removeService(ADDED_SERVICE);
+    }
+
+    @Benchmark
+    public ServiceManager addService() {
+        return serviceManager.addService(addedService);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.fluxtion.example.servicestater.benchmark;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ways of building a {@link ServiceManager}, each mode builds the same graph.
+ * <ul>
+ *     <li>INTERPRETED - {@link ServiceManager#build(Service...)}</li>
+ *     <li>COMPILED - {@link ServiceManager#compiledServiceManager(Service...)}</li>
+ *     <li>AOT - {@link ServiceManager#compileServiceManagerAot(String, String, String, Service...)}, the generated
+ *     source is written to target/generated-benchmark-sources</li>
+ * </ul>
+ */
+public enum BuildMode {
+    INTERPRETED {
+        @Override
+        ServiceManager build(Service... services) {
+            return ServiceManager.build(services);
+        }
+    },
+    COMPILED {
+        @Override
+        ServiceManager build(Service... services) {
+            return ServiceManager.compiledServiceManager(services);
+        }
+    },
+    AOT {
+        @Override
+        ServiceManager build(Service... services) {
+            return ServiceManager.compileServiceManagerAot(
+                    AOT_SOURCE_DIRECTORY, "BenchmarkProcessor_" + AOT_COUNT.incrementAndGet(), AOT_PACKAGE, services);
+        }
+    };
+
+    static final String AOT_SOURCE_DIRECTORY = "target/generated-benchmark-sources";
+    static final String AOT_PACKAGE = "com.fluxtion.example.servicestater.benchmark.generated";
+    private static final AtomicInteger AOT_COUNT = new AtomicInteger();
+
+    abstract ServiceManager build(Service... services);
+}
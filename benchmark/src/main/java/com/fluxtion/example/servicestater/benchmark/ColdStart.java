@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.fluxtion.example.servicestater.benchmark;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.graph.BuildPhase;
+import com.fluxtion.example.servicestater.graph.FluxtionServiceManager;
+import com.fluxtion.runtime.EventProcessor;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Measures time-to-first-{@code startAllServices} in a fresh JVM, launched once per run by {@link StartupBenchmark}.
+ * Prints a single result line:
+ * <pre>
+ * RESULT,&lt;jvm start to main&gt;,&lt;graph construction&gt;,&lt;interpretation&gt;,&lt;code generation&gt;,&lt;compilation&gt;,&lt;class loading&gt;,&lt;post build&gt;,&lt;first start all&gt;,&lt;total&gt;
+ * </pre>
+ * All values are in microseconds, total is the JVM uptime when the first {@code startAllServices} completes. An AOT
+ * run loads the processor class that {@link StartupBenchmark} generated and compiled before the run, the class
+ * directory must be on the classpath.
+ * <p>
+ * Arguments: mode shape size [aot processor class name]
+ */
+public class ColdStart {
+
+    static final BuildPhase[] REPORTED_PHASES = {BuildPhase.GRAPH_CONSTRUCTION, BuildPhase.INTERPRETATION,
+            BuildPhase.CODE_GENERATION, BuildPhase.COMPILATION, BuildPhase.CLASS_LOADING, BuildPhase.POST_BUILD};
+
+    public static void main(String[] args) throws Exception {
+        long mainStartMicros = ManagementFactory.getRuntimeMXBean().getUptime() * 1_000;
+        BuildMode mode = BuildMode.valueOf(args[0]);
+        GraphShape shape = GraphShape.valueOf(args[1]);
+        int size = Integer.parseInt(args[2]);
+
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager();
+        long classLoadingNanos = 0;
+        if (mode == BuildMode.AOT) {
+            long loadStart = System.nanoTime();
+            EventProcessor processor = (EventProcessor) Class.forName(args[3]).getDeclaredConstructor().newInstance();
+            classLoadingNanos = System.nanoTime() - loadStart;
+            serviceManager.useProcessor(processor);
+        } else {
+            Service[] services = shape.services(size, true);
+            serviceManager.compiled(mode == BuildMode.COMPILED).buildServiceController(services);
+        }
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        long startAllStart = System.nanoTime();
+        serviceManager.startAllServices();
+        long startAllNanos = System.nanoTime() - startAllStart;
+        long totalMicros = ManagementFactory.getRuntimeMXBean().getUptime() * 1_000;
+        if (serviceManager.serviceCount(Service.Status.STARTED) != size) {
+            throw new IllegalStateException("expected " + size + " started services, found "
+                    + serviceManager.serviceCount(Service.Status.STARTED));
+        }
+
+        Map<BuildPhase, Long> phaseNanos = serviceManager.buildPhaseNanos();
+        StringBuilder result = new StringBuilder("RESULT,").append(mainStartMicros);
+        for (BuildPhase phase : REPORTED_PHASES) {
+            long nanos = phaseNanos.getOrDefault(phase, 0L);
+            if (phase == BuildPhase.CLASS_LOADING) {
+                nanos += classLoadingNanos;
+            }
+            result.append(',').append(nanos / 1_000);
+        }
+        result.append(',').append(startAllNanos / 1_000).append(',').append(totalMicros);
+        System.out.println(result);
+        serviceManager.shutdown();
+    }
+}
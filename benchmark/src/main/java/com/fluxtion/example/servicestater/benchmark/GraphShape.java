@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.fluxtion.example.servicestater.benchmark;
+
+import com.fluxtion.example.servicestater.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic service graph generators. Services are named svc_0 to svc_n-1 and returned in dependency order, a service
+ * is listed after the services it requires.
+ * <ul>
+ *     <li>CHAIN - svc_i requires svc_i-1, the longest possible critical path</li>
+ *     <li>FAN_OUT - every service requires svc_0</li>
+ *     <li>FAN_IN - svc_n-1 requires every other service</li>
+ *     <li>LAYERED_RANDOM - layers of about sqrt(n) services, each service requires 1 to 3 random services of the
+ *     previous layer, generated from a fixed seed</li>
+ * </ul>
+ */
+public enum GraphShape {
+    CHAIN {
+        @Override
+        Service[] services(int size, boolean withTasks) {
+            Service[] services = new Service[size];
+            for (int i = 0; i < size; i++) {
+                services[i] = i == 0 ? service(i, withTasks) : service(i, withTasks, services[i - 1]);
+            }
+            return services;
+        }
+    },
+    FAN_OUT {
+        @Override
+        Service[] services(int size, boolean withTasks) {
+            Service[] services = new Service[size];
+            services[0] = service(0, withTasks);
+            for (int i = 1; i < size; i++) {
+                services[i] = service(i, withTasks, services[0]);
+            }
+            return services;
+        }
+    },
+    FAN_IN {
+        @Override
+        Service[] services(int size, boolean withTasks) {
+            Service[] services = new Service[size];
+            for (int i = 0; i < size - 1; i++) {
+                services[i] = service(i, withTasks);
+            }
+            Service[] required = new Service[size - 1];
+            System.arraycopy(services, 0, required, 0, size - 1);
+            services[size - 1] = service(size - 1, withTasks, required);
+            return services;
+        }
+    },
+    LAYERED_RANDOM {
+        @Override
+        Service[] services(int size, boolean withTasks) {
+            Random random = new Random(SEED);
+            int layerWidth = Math.max(1, (int) Math.sqrt(size));
+            Service[] services = new Service[size];
+            for (int i = 0; i < size; i++) {
+                int layerStart = (i / layerWidth) * layerWidth;
+                if (layerStart == 0) {
+                    services[i] = service(i, withTasks);
+                    continue;
+                }
+                int previousLayerStart = layerStart - layerWidth;
+                int edgeCount = 1 + random.nextInt(3);
+                List<Service> required = new ArrayList<>(edgeCount);
+                for (int j = 0; j < edgeCount; j++) {
+                    Service candidate = services[previousLayerStart + random.nextInt(layerWidth)];
+                    if (!required.contains(candidate)) {
+                        required.add(candidate);
+                    }
+                }
+                services[i] = service(i, withTasks, required.toArray(new Service[0]));
+            }
+            return services;
+        }
+    };
+
+    static final long SEED = 42;
+
+    /**
+     * Generates a service graph.
+     *
+     * @param size      the number of services
+     * @param withTasks add no-op start and stop tasks to every service
+     * @return the services in dependency order
+     */
+    abstract Service[] services(int size, boolean withTasks);
+
+    static String serviceName(int index) {
+        return "svc_" + index;
+    }
+
+    private static Service service(int index, boolean withTasks, Service... requiredServices) {
+        Service.ServiceBuilder builder = Service.builder(serviceName(index)).requiredServices(requiredServices);
+        if (withTasks) {
+            builder.startTask(GraphShape::noop).stopTask(GraphShape::noop);
+        }
+        return builder.build();
+    }
+
+    public static void noop() {
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.fluxtion.example.servicestater.benchmark;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ServiceManager#startAllServices()} and {@link ServiceManager#stopAllServices()} of a whole graph.
+ * Every service has a no-op start and stop task, run by the default synchronous executor with notification on
+ * successful task execution, a single call drives the graph to all started or all stopped.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LifecycleBenchmark {
+
+    @Param({"CHAIN", "FAN_OUT", "FAN_IN", "LAYERED_RANDOM"})
+    public GraphShape shape;
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int size;
+    @Param({"INTERPRETED", "COMPILED", "AOT"})
+    public BuildMode mode;
+    private ServiceManager serviceManager;
+
+    @Setup(Level.Trial)
+    public void buildGraph() {
+        serviceManager = mode.build(shape.services(size, true));
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        serviceManager.shutdown();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Stopped {
+        @Setup(Level.Invocation)
+        public void stopAll(LifecycleBenchmark benchmark) {
+            benchmark.serviceManager.stopAllServices();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Started {
+        @Setup(Level.Invocation)
+        public void startAll(LifecycleBenchmark benchmark) {
+            benchmark.serviceManager.startAllServices();
+        }
+    }
+
+    @Benchmark
+    public int startAllServices(Stopped stopped) {
+        serviceManager.startAllServices();
+        return serviceManager.serviceCount(Service.Status.STARTED);
+    }
+
+    @Benchmark
+    public int stopAllServices(Started started) {
+        serviceManager.stopAllServices();
+        return serviceManager.serviceCount(Service.Status.STOPPED);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.fluxtion.example.servicestater.benchmark;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of a single {@link ServiceManager#serviceStarted(String)} notification for svc_0, the first
+ * service of every graph shape. Services have no tasks, the notification is one graph cycle that updates the status of
+ * svc_0 and recalculates the services that watch it. Each invocation is reset by a stopped notification.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificationBenchmark {
+
+    @Param({"CHAIN", "FAN_OUT", "FAN_IN", "LAYERED_RANDOM"})
+    public GraphShape shape;
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int size;
+    @Param({"INTERPRETED", "COMPILED", "AOT"})
+    public BuildMode mode;
+    private ServiceManager serviceManager;
+    private final String serviceName = GraphShape.serviceName(0);
+
+    @Setup(Level.Trial)
+    public void buildGraph() {
+        serviceManager = mode.build(shape.services(size, false));
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        serviceManager.shutdown();
+    }
+
+    @TearDown(Level.Invocation)
+    public void resetStatus() {
+        serviceManager.serviceStopped(serviceName);
+    }
+
+    @Benchmark
+    public Service.Status serviceStarted() {
+        serviceManager.serviceStarted(serviceName);
+        return serviceManager.serviceStatus(serviceName);
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.fluxtion.example.servicestater.benchmark;
+
+import com.fluxtion.example.servicestater.ServiceManager;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Measures time-to-first-{@code startAllServices} for each build mode, graph shape and graph size. Every run is a
+ * fresh JVM executing {@link ColdStart}, the median of the runs is reported for each phase:
+ * <ul>
+ *     <li>JVM start to main</li>
+ *     <li>graph construction, interpretation, code generation, compilation, class loading and post build, see
+ *     {@link com.fluxtion.example.servicestater.graph.BuildPhase}</li>
+ *     <li>the first {@code startAllServices} call</li>
+ *     <li>total JVM uptime when the first {@code startAllServices} completes</li>
+ * </ul>
+ * The AOT processor of each graph is generated and compiled before its runs, as a build would, an AOT run only loads
+ * the processor class.
+ * <p>
+ * Writes a markdown report and a csv file for tracking regressions. Arguments are optional key=value pairs:
+ * <pre>
+ * modes=INTERPRETED,COMPILED,AOT shapes=LAYERED_RANDOM sizes=10,50,100,1000 runs=5 report=target/startup-report
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    private static final String[] COLUMNS = {"jvm to main", "graph construction", "interpretation", "code generation",
+            "compilation", "class loading", "post build", "first startAll", "time to first startAll"};
+    private static final Path WORK_DIRECTORY = Paths.get("target", "startup-benchmark");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        options.put("modes", "INTERPRETED,COMPILED,AOT");
+        options.put("shapes", "LAYERED_RANDOM");
+        options.put("sizes", "10,50,100,1000");
+        options.put("runs", "5");
+        options.put("report", "target/startup-report");
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            options.put(keyValue[0], keyValue[1]);
+        }
+        List<BuildMode> modes = Arrays.stream(options.get("modes").split(",")).map(BuildMode::valueOf).collect(Collectors.toList());
+        List<GraphShape> shapes = Arrays.stream(options.get("shapes").split(",")).map(GraphShape::valueOf).collect(Collectors.toList());
+        List<Integer> sizes = Arrays.stream(options.get("sizes").split(",")).map(Integer::valueOf).collect(Collectors.toList());
+        int runs = Integer.parseInt(options.get("runs"));
+
+        List<String> reportRows = new ArrayList<>();
+        List<String> csvRows = new ArrayList<>();
+        csvRows.add("mode,shape,size,runs," + String.join(",", COLUMNS).replace(' ', '_'));
+        for (GraphShape shape : shapes) {
+            for (int size : sizes) {
+                for (BuildMode mode : modes) {
+                    String label = mode + " " + shape + " " + size;
+                    System.out.println("startup benchmark " + label);
+                    List<long[]> results = new ArrayList<>();
+                    String failure = null;
+                    try {
+                        List<String> command = coldStartCommand(mode, shape, size);
+                        for (int run = 0; run < runs && failure == null; run++) {
+                            Object result = runColdStart(command);
+                            if (result instanceof long[]) {
+                                results.add((long[]) result);
+                            } else {
+                                failure = (String) result;
+                            }
+                        }
+                    } catch (Exception e) {
+                        failure = e.getMessage();
+                    }
+                    String row = "| " + mode + " | " + shape + " | " + size + " | ";
+                    if (failure != null) {
+                        System.out.println("  failed: " + failure);
+                        reportRows.add(row + "failed: " + failure.replace('|', '/').replace('\n', ' ') + " |");
+                        continue;
+                    }
+                    long[] medians = medians(results);
+                    reportRows.add(row + Arrays.stream(medians).mapToObj(StartupBenchmark::millis).collect(Collectors.joining(" | ")) + " |");
+                    csvRows.add(mode + "," + shape + "," + size + "," + runs + ","
+                            + Arrays.stream(medians).mapToObj(Long::toString).collect(Collectors.joining(",")));
+                }
+            }
+        }
+        writeReport(options.get("report"), runs, reportRows, csvRows);
+    }
+
+    private static List<String> coldStartCommand(BuildMode mode, GraphShape shape, int size) throws IOException {
+        String classpath = System.getProperty("java.class.path");
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        if (mode == BuildMode.AOT) {
+            String className = "StartupProcessor_" + shape + "_" + size;
+            Path classDirectory = compileAotProcessor(shape, size, className);
+            command.add(classDirectory + File.pathSeparator + classpath);
+            command.addAll(Arrays.asList(ColdStart.class.getName(), mode.name(), shape.name(), Integer.toString(size),
+                    BuildMode.AOT_PACKAGE + "." + className));
+        } else {
+            command.add(classpath);
+            command.addAll(Arrays.asList(ColdStart.class.getName(), mode.name(), shape.name(), Integer.toString(size)));
+        }
+        return command;
+    }
+
+    /**
+     * Generates the AOT processor source and compiles it to a class directory, the build time work of an AOT
+     * deployment.
+     */
+    private static Path compileAotProcessor(GraphShape shape, int size, String className) throws IOException {
+        Path sourceDirectory = WORK_DIRECTORY.resolve("src");
+        Path classDirectory = WORK_DIRECTORY.resolve("classes");
+        Files.createDirectories(classDirectory);
+        ServiceManager.compileServiceManagerAot(sourceDirectory.toString(), className, BuildMode.AOT_PACKAGE, shape.services(size, true))
+                .shutdown();
+        Path sourceFile = sourceDirectory.resolve(BuildMode.AOT_PACKAGE.replace('.', File.separatorChar)).resolve(className + ".java");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int exitCode = compiler.run(null, null, null,
+                "-d", classDirectory.toString(), "-cp", System.getProperty("java.class.path"), sourceFile.toString());
+        if (exitCode != 0) {
+            throw new IllegalStateException("unable to compile aot processor " + sourceFile);
+        }
+        return classDirectory;
+    }
+
+    /**
+     * @return the result columns in microseconds, or the failure message
+     */
+    private static Object runColdStart(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String resultLine = null;
+        String lastLine = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("RESULT,")) {
+                    resultLine = line;
+                } else if (!line.isBlank()) {
+                    lastLine = line;
+                }
+            }
+        }
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || resultLine == null) {
+            return "exit code " + exitCode + ": " + lastLine;
+        }
+        return Arrays.stream(resultLine.substring("RESULT,".length()).split(",")).mapToLong(Long::parseLong).toArray();
+    }
+
+    private static long[] medians(List<long[]> results) {
+        long[] medians = new long[COLUMNS.length];
+        for (int column = 0; column < COLUMNS.length; column++) {
+            int index = column;
+            long[] values = results.stream().mapToLong(result -> result[index]).sorted().toArray();
+            medians[column] = values[values.length / 2];
+        }
+        return medians;
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.1f", micros / 1_000.0);
+    }
+
+    private static void writeReport(String reportPath, int runs, List<String> reportRows, List<String> csvRows) throws IOException {
+        List<String> report = new ArrayList<>();
+        report.add("# Startup benchmark");
+        report.add("");
+        report.add("Generated " + LocalDateTime.now() + ", java " + System.getProperty("java.version") + ", "
+                + Runtime.getRuntime().availableProcessors() + " cpus, median of " + runs + " runs in milliseconds.");
+        report.add("");
+        report.add("| mode | shape | size | " + String.join(" | ", COLUMNS) + " |");
+        report.add("|---|---|---|" + "---|".repeat(COLUMNS.length));
+        report.addAll(reportRows);
+        Path markdown = Paths.get(reportPath + ".md");
+        Path csv = Paths.get(reportPath + ".csv");
+        if (markdown.getParent() != null) {
+            Files.createDirectories(markdown.getParent());
+        }
+        Files.write(markdown, report, StandardCharsets.UTF_8);
+        Files.write(csv, csvRows, StandardCharsets.UTF_8);
+        System.out.println("startup report written to " + markdown.toAbsolutePath() + " and " + csv.toAbsolutePath());
+    }
+}
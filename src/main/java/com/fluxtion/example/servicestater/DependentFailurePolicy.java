@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.fluxtion.example.servicestater;
+
+/**
+ * Controls the services waiting on a service that has moved to {@link Service.Status#FAILED}:
+ * <ul>
+ *     <li>WAIT - waiting services remain waiting, they continue if the failed service is restarted or stopped</li>
+ *     <li>CASCADE_FAIL - services waiting to start on a failed start, or waiting to stop on a failed stop, are
+ *     transitively moved to FAILED</li>
+ * </ul>
+ */
+public enum DependentFailurePolicy {
+    WAIT,
+    CASCADE_FAIL,
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.fluxtion.example.servicestater;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A retry policy for the start task of a {@link Service}. A failed start task is rescheduled after an exponential
+ * backoff, the service remains STARTING until an attempt succeeds or the attempts are exhausted and the service moves
+ * to FAILED.
+ * <p>
+ * The backoff after attempt n is {@code initialBackoff * multiplier^(n-1)} capped at {@code maxBackoff}. Jitter
+ * randomly shortens each backoff by up to the jitter fraction, so services failing together do not retry in lockstep.
+ */
+@Value
+@Builder
+public class RetryPolicy {
+
+    /**
+     * the total number of attempts, including the first execution
+     */
+    @Builder.Default
+    int maxAttempts = 3;
+    @NonNull
+    @Builder.Default
+    Duration initialBackoff = Duration.ofMillis(100);
+    @NonNull
+    @Builder.Default
+    Duration maxBackoff = Duration.ofSeconds(30);
+    @Builder.Default
+    double multiplier = 2.0;
+    /**
+     * the fraction of the backoff that is randomised, between 0 and 1
+     */
+    @Builder.Default
+    double jitter = 0.5;
+
+    /**
+     * @param failedAttempt the attempt that has failed, starting at 1
+     * @return the delay in nanoseconds before the next attempt
+     */
+    public long backoffNanos(int failedAttempt) {
+        double backoff = initialBackoff.toNanos() * Math.pow(multiplier, Math.max(0, failedAttempt - 1));
+        backoff = Math.min(backoff, maxBackoff.toNanos());
+        double jitterFraction = Math.max(0, Math.min(1, jitter));
+        return (long) (backoff * (1 - jitterFraction * ThreadLocalRandom.current().nextDouble()));
+    }
+}
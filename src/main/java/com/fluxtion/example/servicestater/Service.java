@@ -20,14 +20,17 @@ import com.fluxtion.example.servicestater.graph.ForwardPassServiceController;
 import com.fluxtion.example.servicestater.graph.ReversePassServiceController;
 import com.fluxtion.runtime.node.NamedNode;
 import com.fluxtion.runtime.partition.LambdaReflection.SerializableRunnable;
+import com.fluxtion.runtime.partition.LambdaReflection.SerializableSupplier;
 import lombok.*;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nullable;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletionStage;
 
 /**
  * A representation of an external service and its dependencies. This service will be wrapped in the graph and controlled
@@ -37,6 +40,17 @@ import java.util.Objects;
  *     <li>Entering STARTING from WAITING_TO_START - the start task is executed</li>
  *     <li>Entering STOPPING from STOPPED - the stop task is executed</li>
  * </ul>
+ * A start or stop timeout bounds the execution of the task, a task that has not completed when the timeout expires is
+ * cancelled and the service moves to FAILED. A {@link RetryPolicy} reschedules a failed start task before the service
+ * moves to FAILED.
+ * <p>
+ * A non-blocking service can provide asynchronous start and stop tasks that return a {@link CompletionStage}, no thread
+ * is held while the stage is in flight. Normal completion of the stage notifies the manager that the service has
+ * started or stopped, exceptional completion is handled as a failed task. An asynchronous task replaces the
+ * synchronous task of the same kind.
+ * <p>
+ * Services can be tagged with a concurrency group, a {@link com.fluxtion.example.servicestater.helpers.BoundedTaskExecutor}
+ * limits the number of tasks of a group running at once.
  */
 @Builder(builderMethodName = "hiddenBuilder")
 @ToString
@@ -50,6 +64,7 @@ public class Service implements NamedNode {
         WAITING_FOR_PARENTS_TO_STOP,
         STOPPING,
         STOPPED,
+        FAILED,
     }
 
     @NonNull
@@ -63,8 +78,24 @@ public class Service implements NamedNode {
     @Nullable
     private final SerializableRunnable stopTask;
     @Nullable
+    private final SerializableSupplier<CompletionStage<?>> asyncStartTask;
+    @Nullable
+    private final SerializableSupplier<CompletionStage<?>> asyncStopTask;
+    @Nullable
     @Getter
     private final Object wrappedInstance;
+    @Nullable
+    @Getter
+    private final Duration startTimeout;
+    @Nullable
+    @Getter
+    private final Duration stopTimeout;
+    @Nullable
+    @Getter
+    private final RetryPolicy retryPolicy;
+    @Nullable
+    @Getter
+    private final String concurrencyGroup;
 
     public static ServiceBuilder builder(String name) {
         return hiddenBuilder().name(name)
@@ -115,6 +146,16 @@ public class Service implements NamedNode {
         return stopTask;
     }
 
+    @Nullable
+    public SerializableSupplier<CompletionStage<?>> getAsyncStartTask() {
+        return asyncStartTask;
+    }
+
+    @Nullable
+    public SerializableSupplier<CompletionStage<?>> getAsyncStopTask() {
+        return asyncStopTask;
+    }
+
     @NotNull
     @Override
     public String getName() {
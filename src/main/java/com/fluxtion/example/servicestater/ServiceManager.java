@@ -17,16 +17,22 @@
 package com.fluxtion.example.servicestater;
 
 import com.fluxtion.example.servicestater.graph.FluxtionServiceManager;
+import com.fluxtion.example.servicestater.graph.MailboxServiceManager;
 import com.fluxtion.example.servicestater.graph.ServiceManagerServer;
+import com.fluxtion.example.servicestater.helpers.ThrottledStatusPublisher;
 import com.fluxtion.runtime.EventProcessor;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 /**
  * Controls a set of {@link Service}'s
  */
-public interface ServiceManager extends ServiceQuery {
+public interface ServiceManager extends ServiceStatusQuery {
 
     /**
      * Build a transient ServiceManager, when this process ends the {@link ServiceManager} will disappear
@@ -55,6 +61,37 @@ public interface ServiceManager extends ServiceQuery {
         return fluxtionServiceManager;
     }
 
+    /**
+     * Build a compiled version of the service manager, caching the compiled processor in a local directory. A later
+     * build of a graph with the same topology loads the cached processor instead of compiling it.
+     *
+     * @param processorCacheDirectory the directory of the processor cache
+     * @param serviceList             the services to manage
+     * @return ServiceManager controlling client services
+     */
+    static ServiceManager compiledServiceManager(Path processorCacheDirectory, Service... serviceList) {
+        FluxtionServiceManager fluxtionServiceManager = new FluxtionServiceManager();
+        fluxtionServiceManager.compiled(true);
+        fluxtionServiceManager.processorCacheDirectory(processorCacheDirectory);
+        fluxtionServiceManager.buildServiceController(serviceList);
+        return fluxtionServiceManager;
+    }
+
+    /**
+     * Build a compiled version of the service manager with tiered execution. The service manager serves requests from
+     * an interpreted processor immediately, the processor is compiled on a background thread and swapped in when ready.
+     *
+     * @param serviceList the services to manage
+     * @return ServiceManager controlling client services
+     */
+    static ServiceManager tieredServiceManager(Service... serviceList) {
+        FluxtionServiceManager fluxtionServiceManager = new FluxtionServiceManager();
+        fluxtionServiceManager.compiled(true);
+        fluxtionServiceManager.tieredCompilation(true);
+        fluxtionServiceManager.buildServiceController(serviceList);
+        return fluxtionServiceManager;
+    }
+
     static ServiceManager compileServiceManagerAot(String className, String packageName, Service... serviceList) {
         FluxtionServiceManager fluxtionServiceManager = new FluxtionServiceManager();
         fluxtionServiceManager.buildServiceControllerAot(className, packageName, serviceList);
@@ -90,6 +127,17 @@ public interface ServiceManager extends ServiceQuery {
         return new ServiceManagerServer(serviceManager);
     }
 
+    /**
+     * Wraps a {@link ServiceManager} in a single writer mailbox. Calls from any thread are queued on a lock-free queue
+     * without blocking the caller, and applied in batches by a single owner thread.
+     *
+     * @param serviceManager the wrapped {@link ServiceManager}
+     * @return A wrapped serviceManager
+     */
+    static ServiceManager asSingleWriter(ServiceManager serviceManager) {
+        return new MailboxServiceManager(serviceManager);
+    }
+
     /**
      * Request from the client to start a service and its dependencies. The {@link ServiceManager} will publish task
      * lists to execute associated with the starting of each connected managed service. Services are started in reverse
@@ -108,6 +156,44 @@ public interface ServiceManager extends ServiceQuery {
      */
     void stopService(String serviceName);
 
+    /**
+     * Request to start a service and its dependencies, the returned future completes when the service reaches
+     * {@link Service.Status#STARTED}. The future completes exceptionally with a {@link ServiceTaskException} if the
+     * start task of the service or any service it requires fails.
+     *
+     * @param serviceName the service to start
+     * @return a future completing when the service has started
+     */
+    CompletableFuture<Void> startServiceAsync(String serviceName);
+
+    /**
+     * Request to stop a service and the services that require it, the returned future completes when the service
+     * reaches {@link Service.Status#STOPPED}. The future completes exceptionally with a {@link ServiceTaskException}
+     * if the stop task of the service or any service that requires it fails.
+     *
+     * @param serviceName the service to stop
+     * @return a future completing when the service has stopped
+     */
+    CompletableFuture<Void> stopServiceAsync(String serviceName);
+
+    /**
+     * Request from the client to start a set of services and their dependencies. The union of the connected services
+     * is marked in a single graph cycle, shared dependencies are visited once and a single combined task list is
+     * published.
+     *
+     * @param serviceNames the services to start
+     */
+    void startServices(Collection<String> serviceNames);
+
+    /**
+     * Request from the client to stop a set of services and their dependencies. The union of the connected services
+     * is marked in a single graph cycle, shared dependencies are visited once and a single combined task list is
+     * published.
+     *
+     * @param serviceNames the services to stop
+     */
+    void stopServices(Collection<String> serviceNames);
+
     /**
      * Clients call this method to notify the {@link ServiceManager} that a service has moved to started state or confirming
      * state of a service.
@@ -124,6 +210,22 @@ public interface ServiceManager extends ServiceQuery {
      */
     void serviceStopped(String serviceName);
 
+    /**
+     * Notifies the {@link ServiceManager} that a set of services have moved to the started state. All the
+     * notifications are applied in a single graph cycle and the resulting tasks are published as one list.
+     *
+     * @param serviceNames The names of the services that are in the started state
+     */
+    void serviceStarted(Collection<String> serviceNames);
+
+    /**
+     * Notifies the {@link ServiceManager} that a set of services have moved to the stopped state. All the
+     * notifications are applied in a single graph cycle and the resulting tasks are published as one list.
+     *
+     * @param serviceNames The names of the services that are in the stopped state
+     */
+    void serviceStopped(Collection<String> serviceNames);
+
     /**
      * A request from the client to start all services.The {@link ServiceManager} will publish task
      * lists to execute associated with the starting of each connected managed service. Services are started in reverse
@@ -147,6 +249,14 @@ public interface ServiceManager extends ServiceQuery {
      */
     void failFastOnTaskException(boolean failFastFlag);
 
+    /**
+     * Sets the policy applied to the services waiting on a service that has moved to {@link Service.Status#FAILED},
+     * the default is {@link DependentFailurePolicy#WAIT}.
+     *
+     * @param dependentFailurePolicy the policy for services waiting on a failed service
+     */
+    void dependentFailurePolicy(DependentFailurePolicy dependentFailurePolicy);
+
     /**
      * Publishes the current state of {@link Service}'s managed by this {@link ServiceManager} to the registered
      * status listener, see {@link this#registerStatusListener(Consumer)}
@@ -164,17 +274,54 @@ public interface ServiceManager extends ServiceQuery {
     void bindObjectToService(String serviceName, Object objectToBind);
 
     /**
-     * Add services to an already running graph, only supported on interpreted graphs. Compiled graph will throw an
-     * {@link UnsupportedOperationException}. Returns a reference to a new grpah with all the previous states preservec,
-     * new service are in {@link com.fluxtion.example.servicestater.Service.Status#STATUS_UNKNOWN} on completion of this
-     * method
+     * Add services to an already running graph, the status of the managed services is preserved and the added services
+     * are in {@link com.fluxtion.example.servicestater.Service.Status#STATUS_UNKNOWN} on completion of this method.
+     * Only the controllers sharing an edge with an added service are rewired, services that are already managed with
+     * identical dependencies are ignored and do not cause the graph to be rebuilt.
+     * <p>
+     * The controllers of an interpreted graph are spliced into the running processor, the processor is not rebuilt.
+     * A compiled graph is regenerated on a background thread while the current processor serves requests, this method
+     * blocks until the new processor is swapped in with the service status, wrapped instances and listeners of the
+     * current processor. If the processor cannot be generated or swapped in the graph is unchanged and the failure is
+     * thrown. Use {@link #addServiceAsync(Service...)} to add services without blocking, this method must not be
+     * called from a listener or task running in a graph cycle. A graph loaded from a processor cannot be changed and
+     * throws an {@link UnsupportedOperationException}.
      *
      * @param serviceList The services to add to the Service
-     * @return A reference to the new {@link ServiceManager} that holds the updated graph
+     * @return A reference to the {@link ServiceManager} that holds the updated graph
      */
     ServiceManager addService(Service... serviceList);
 
-    FluxtionServiceManager removeService(String... servicesToRemove);
+    /**
+     * Add services to an already running graph without waiting for a compiled graph to be regenerated, see
+     * {@link #addService(Service...)}. Requests are processed by the current graph until the returned future
+     * completes, the future completes exceptionally and the graph is unchanged if the processor cannot be generated
+     * or swapped in.
+     *
+     * @param serviceList The services to add to the Service
+     * @return a future completing when the added services are managed
+     */
+    CompletableFuture<Void> addServiceAsync(Service... serviceList);
+
+    /**
+     * Stops and removes services from an already running graph. The removed services are detached from their direct
+     * neighbours, the status of all other services is preserved. The stop is requested immediately, a compiled graph is
+     * regenerated on a background thread and this method blocks until the new processor is swapped in. If the processor
+     * cannot be generated or swapped in the services remain managed and the failure is thrown.
+     *
+     * @param servicesToRemove the names of the services to remove
+     * @return A reference to the {@link ServiceManager} that holds the updated graph
+     */
+    ServiceManager removeService(String... servicesToRemove);
+
+    /**
+     * Stops and removes services without waiting for a compiled graph to be regenerated, see
+     * {@link #removeService(String...)}.
+     *
+     * @param servicesToRemove the names of the services to remove
+     * @return a future completing when the services are no longer managed
+     */
+    CompletableFuture<Void> removeServiceAsync(String... servicesToRemove);
 
     void shutdown();
 
@@ -182,8 +329,38 @@ public interface ServiceManager extends ServiceQuery {
 
     void registerTaskExecutor(TaskWrapper.TaskExecutor commandProcessor);
 
+    /**
+     * Register a listener that receives the status of every managed service after each graph cycle. Building the full
+     * status list is only done when a status listener is registered.
+     *
+     * @param statusUpdateListener the full status listener
+     */
     void registerStatusListener(Consumer<List<ServiceStatusRecord>> statusUpdateListener);
 
+    /**
+     * Register a listener that receives only the services whose status changed in a graph cycle, with the previous
+     * and new status of each. On registration the current status of every service is published as a change from no
+     * status.
+     *
+     * @param statusChangeListener the status change listener
+     */
+    void registerStatusChangeListener(Consumer<List<ServiceStatusChange>> statusChangeListener);
+
+    /**
+     * Register a status listener that is invoked on a dedicated publisher thread at a maximum rate, status changes
+     * between publications are coalesced. The returned publisher is registered as the status change listener and
+     * should be closed when no longer required.
+     *
+     * @param minPublishInterval the minimum interval between publications
+     * @param statusListener     the status listener
+     * @return the publisher running the status listener
+     */
+    default ThrottledStatusPublisher registerThrottledStatusListener(Duration minPublishInterval, Consumer<List<ServiceStatusRecord>> statusListener) {
+        ThrottledStatusPublisher statusPublisher = ThrottledStatusPublisher.statusPublisher(minPublishInterval, statusListener);
+        registerStatusChangeListener(statusPublisher);
+        return statusPublisher;
+    }
+
     /**
      * Flag to control triggering of start tasks for a service if an unsolicited start notification is received.
      * When set to true, {@link this#serviceStarted(String)} is equivalent to calling {@link this#startService(String)}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.fluxtion.example.servicestater;
+
+import java.util.List;
+
+/**
+ * Status queries that can be called from any thread. The results are read from an immutable snapshot of the service
+ * status published at the end of each graph cycle, a query never takes the processor lock or triggers a graph cycle.
+ */
+public interface ServiceStatusQuery extends ServiceQuery {
+
+    /**
+     * @param serviceName the name of the service
+     * @return the status of the service or null if the service is not managed
+     */
+    Service.Status serviceStatus(String serviceName);
+
+    /**
+     * @param status the status to count
+     * @return the number of services in the status
+     */
+    int serviceCount(Service.Status status);
+
+    /**
+     * @return the status of every managed service
+     */
+    List<ServiceStatusRecord> serviceStatusSnapshot();
+}
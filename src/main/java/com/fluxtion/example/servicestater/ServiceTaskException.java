@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.fluxtion.example.servicestater;
+
+import lombok.Getter;
+
+/**
+ * Signals a start or stop task of a service has failed, the {@link TaskWrapper.TaskExecutionResult} of the failed task
+ * is available to the client.
+ */
+@Getter
+public class ServiceTaskException extends RuntimeException {
+
+    private final TaskWrapper.TaskExecutionResult taskExecutionResult;
+
+    public ServiceTaskException(TaskWrapper.TaskExecutionResult taskExecutionResult) {
+        super((taskExecutionResult.isStartTask() ? "start" : "stop") + " task failed for service:'"
+                + taskExecutionResult.getServiceName() + "'", taskExecutionResult.getException());
+        this.taskExecutionResult = taskExecutionResult;
+    }
+}
@@ -16,16 +16,26 @@
 
 package com.fluxtion.example.servicestater;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Value;
+import lombok.With;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Encapsulates a task that a service has provided during registration.
+ * <p>
+ * An asynchronous task returns a {@link CompletionStage}, the task is complete when the stage completes. The
+ * {@link ServiceManager} completes asynchronous tasks without holding a thread, {@link #call()} on an asynchronous task
+ * blocks until the stage completes.
  */
 @Data
 @Slf4j
@@ -34,6 +44,69 @@ public class TaskWrapper implements Callable<TaskWrapper.TaskExecutionResult> {
     private final String serviceName;
     private final boolean startTask;
     private final Runnable task;
+    /**
+     * the maximum execution time of the task in milliseconds, zero or less for no timeout
+     */
+    private final long timeoutMillis;
+    /**
+     * the concurrency group of the service, a task executor may limit the tasks of a group running at once
+     */
+    private final String concurrencyGroup;
+    /**
+     * the asynchronous task, null for a synchronous task
+     */
+    private final Supplier<? extends CompletionStage<?>> asyncTask;
+
+    public TaskWrapper(String serviceName, boolean startTask, Runnable task) {
+        this(serviceName, startTask, task, 0);
+    }
+
+    public TaskWrapper(String serviceName, boolean startTask, Runnable task, long timeoutMillis) {
+        this(serviceName, startTask, task, timeoutMillis, null);
+    }
+
+    public TaskWrapper(String serviceName, boolean startTask, Runnable task, long timeoutMillis, String concurrencyGroup) {
+        this(serviceName, startTask, task, null, timeoutMillis, concurrencyGroup);
+    }
+
+    private TaskWrapper(String serviceName, boolean startTask, Runnable task, Supplier<? extends CompletionStage<?>> asyncTask,
+                        long timeoutMillis, String concurrencyGroup) {
+        this.serviceName = serviceName;
+        this.startTask = startTask;
+        this.task = task;
+        this.asyncTask = asyncTask;
+        this.timeoutMillis = timeoutMillis;
+        this.concurrencyGroup = concurrencyGroup;
+    }
+
+    /**
+     * Creates an asynchronous task, the task is complete when the returned {@link CompletionStage} completes.
+     *
+     * @param serviceName      the name of the service
+     * @param startTask        flag indicating a start task
+     * @param asyncTask        the task, returns a stage that completes when the service has started or stopped
+     * @param timeoutMillis    the maximum time for the stage to complete in milliseconds, zero or less for no timeout
+     * @param concurrencyGroup the concurrency group of the service
+     * @return the asynchronous task
+     */
+    public static TaskWrapper asyncTask(String serviceName, boolean startTask, Supplier<? extends CompletionStage<?>> asyncTask,
+                                        long timeoutMillis, String concurrencyGroup) {
+        return new TaskWrapper(serviceName, startTask, null, Objects.requireNonNull(asyncTask), timeoutMillis, concurrencyGroup);
+    }
+
+    /**
+     * Copies the properties of a task, for use by decorating subclasses.
+     *
+     * @param taskWrapper the task to copy
+     */
+    protected TaskWrapper(TaskWrapper taskWrapper) {
+        this(taskWrapper.getServiceName(), taskWrapper.isStartTask(), taskWrapper.getTask(), taskWrapper.getAsyncTask(),
+                taskWrapper.getTimeoutMillis(), taskWrapper.getConcurrencyGroup());
+    }
+
+    public boolean isAsync() {
+        return asyncTask != null;
+    }
 
     @Override
     public String toString() {
@@ -48,8 +121,15 @@ public class TaskWrapper implements Callable<TaskWrapper.TaskExecutionResult> {
         TaskExecutionResult result;
         try {
             log.info("executing {}", this);
-            task.run();
+            if (isAsync()) {
+                asyncTask.get().toCompletableFuture().join();
+            } else {
+                task.run();
+            }
             result = new TaskExecutionResult(true, isStartTask(), getServiceName(), false, null);
+        } catch (CompletionException e) {
+            log.warn("problem executing task", e.getCause());
+            result = new TaskExecutionResult(false, isStartTask(), getServiceName(), true, e.getCause());
         } catch (Exception e) {
             log.warn("problem executing task", e);
             result = new TaskExecutionResult(false, isStartTask(), getServiceName(), true, e);
@@ -68,11 +148,21 @@ public class TaskWrapper implements Callable<TaskWrapper.TaskExecutionResult> {
     }
 
     @Value
+    @AllArgsConstructor
     public static class TaskExecutionResult {
         boolean success;
         boolean startTask;
         String serviceName;
         boolean exceptionThrown;
         Throwable exception;
+        /**
+         * the number of times the task has been executed
+         */
+        @With
+        int attempts;
+
+        public TaskExecutionResult(boolean success, boolean startTask, String serviceName, boolean exceptionThrown, Throwable exception) {
+            this(success, startTask, serviceName, exceptionThrown, exception, 1);
+        }
     }
 }
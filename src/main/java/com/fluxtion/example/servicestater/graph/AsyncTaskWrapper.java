@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.ServiceManager;
+import com.fluxtion.example.servicestater.TaskWrapper;
+import com.fluxtion.example.servicestater.helpers.HashedTimingWheel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Executes an asynchronous {@link TaskWrapper}, {@link #call()} invokes the task and returns without waiting for the
+ * returned {@link CompletionStage}. No thread is held while the stage is in flight, the stage completion is the task
+ * completion:
+ * <ul>
+ *     <li>normal completion - notifies the {@link ServiceManager} that the service has started or stopped</li>
+ *     <li>exceptional completion - reports a failed result to the failure handler, or notifies the
+ *     {@link ServiceManager} as a normal completion when exceptions are ignored</li>
+ * </ul>
+ * A task with a timeout reports a failed result with a {@link TimeoutException} from the timing wheel thread if the
+ * stage has not completed in time and cancels the stage, cancelling a stage that does not support cancellation has no
+ * effect and a late completion is ignored. Exactly one result is reported for the task.
+ */
+@Slf4j
+class AsyncTaskWrapper extends TaskWrapper {
+    private final ServiceManager serviceManager;
+    private final boolean ignoreException;
+    private final Consumer<TaskExecutionResult> failureHandler;
+    private final CriticalPathPrioritiser prioritiser;
+    private final AtomicBoolean complete = new AtomicBoolean(false);
+    private final HashedTimingWheel timingWheel;
+    private HashedTimingWheel.Timeout timeout;
+    private volatile CompletionStage<?> stage;
+    private volatile boolean timedOut;
+    private long startTime;
+
+    /**
+     * @param taskWrapper     the asynchronous task
+     * @param serviceManager  the target of completion notifications
+     * @param ignoreException notify the manager of completion when the stage completes exceptionally
+     * @param timingWheel     tracks the timeout of the task
+     * @param failureHandler  receives the result of a failed task
+     * @param prioritiser     records the duration of successful tasks, null for no recording
+     */
+    public AsyncTaskWrapper(TaskWrapper taskWrapper, ServiceManager serviceManager, boolean ignoreException,
+                            HashedTimingWheel timingWheel, Consumer<TaskExecutionResult> failureHandler,
+                            CriticalPathPrioritiser prioritiser) {
+        super(taskWrapper);
+        this.serviceManager = serviceManager;
+        this.ignoreException = ignoreException;
+        this.timingWheel = timingWheel;
+        this.failureHandler = failureHandler;
+        this.prioritiser = prioritiser;
+    }
+
+    @Override
+    public TaskExecutionResult call() {
+        log.info("executing {}", this);
+        startTime = System.nanoTime();
+        if (getTimeoutMillis() > 0) {
+            timeout = timingWheel.schedule(this::expire, TimeUnit.MILLISECONDS.toNanos(getTimeoutMillis()));
+        }
+        CompletionStage<?> stage;
+        try {
+            stage = Objects.requireNonNull(getAsyncTask().get(), "asynchronous task returned a null stage");
+            this.stage = stage;
+            if (timedOut) {
+                cancelStage();
+            }
+        } catch (Exception e) {
+            log.warn("problem executing task", e);
+            TaskExecutionResult result = new TaskExecutionResult(false, isStartTask(), getServiceName(), true, e);
+            complete(result);
+            return result;
+        }
+        stage.whenComplete((value, exception) -> complete(exception == null
+                ? new TaskExecutionResult(true, isStartTask(), getServiceName(), false, null)
+                : new TaskExecutionResult(false, isStartTask(), getServiceName(), true, unwrap(exception))));
+        return new TaskExecutionResult(true, isStartTask(), getServiceName(), false, null);
+    }
+
+    private void expire() {
+        if (complete.compareAndSet(false, true)) {
+            //cancel before reporting, the stage is cancelled once the service is FAILED
+            timedOut = true;
+            cancelStage();
+            report(new TaskExecutionResult(false, isStartTask(), getServiceName(), true,
+                    new TimeoutException("task timed out after " + getTimeoutMillis() + "ms, service:'" + getServiceName() + "'")));
+        }
+    }
+
+    /**
+     * Cancels the stage of a timed out task, the stage may not have been returned by the task yet.
+     */
+    private void cancelStage() {
+        CompletionStage<?> stage = this.stage;
+        if (stage != null) {
+            try {
+                stage.toCompletableFuture().cancel(true);
+            } catch (UnsupportedOperationException e) {
+                log.debug("stage of timed out task cannot be cancelled, service:'{}'", getServiceName());
+            }
+        }
+    }
+
+    private void complete(TaskExecutionResult result) {
+        if (complete.compareAndSet(false, true)) {
+            report(result);
+        }
+    }
+
+    private void report(TaskExecutionResult result) {
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        log.debug("completed executing: {}", result);
+        if (result.isSuccess() && prioritiser != null) {
+            prioritiser.recordDuration(getServiceName(), isStartTask(), System.nanoTime() - startTime);
+        }
+        //an ignored exception notifies the manager and is not reported as a failure
+        boolean notify = result.isSuccess() || (ignoreException && !(result.getException() instanceof TimeoutException));
+        if (!notify) {
+            failureHandler.accept(result);
+        } else if (isStartTask()) {
+            serviceManager.serviceStarted(getServiceName());
+        } else {
+            serviceManager.serviceStopped(getServiceName());
+        }
+    }
+
+    private static Throwable unwrap(Throwable exception) {
+        return exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.fluxtion.example.servicestater.graph;
+
+/**
+ * The phases of building the event processor of a {@link FluxtionServiceManager}, the manager records the duration of
+ * each phase of the last build, see {@link FluxtionServiceManager#buildPhaseNanos()}.
+ * <ul>
+ *     <li>GRAPH_CONSTRUCTION - creating the service controllers and their dependencies</li>
+ *     <li>INTERPRETATION - analysing the graph and constructing the in memory processor of an interpreted graph</li>
+ *     <li>CODE_GENERATION - analysing the graph and generating the processor source</li>
+ *     <li>COMPILATION - compiling the generated source</li>
+ *     <li>CLASS_LOADING - loading, linking and instantiating the compiled processor</li>
+ *     <li>AOT_COMPILATION - generating, writing, compiling and loading an ahead of time processor, Fluxtion runs
+ *     these steps in a single call so they are not timed separately</li>
+ *     <li>POST_BUILD - initialising the processor and registering the task executor and wrapped instances</li>
+ *     <li>PROCESSOR_SWAP - initialising the compiled processor of a tiered build and transferring the live state of
+ *     the interpreted processor to it</li>
+ * </ul>
+ */
+public enum BuildPhase {
+    GRAPH_CONSTRUCTION,
+    INTERPRETATION,
+    CODE_GENERATION,
+    COMPILATION,
+    CLASS_LOADING,
+    AOT_COMPILATION,
+    POST_BUILD,
+    PROCESSOR_SWAP,
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.TaskWrapper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Orders the tasks published in a graph cycle so the task blocking the most downstream work runs first. When executor
+ * threads are limited the services on the critical path start earliest, minimising the total time to start or stop
+ * the graph.
+ * <p>
+ * The cost of a start task is the length of the longest chain of services waiting on the service to start, the
+ * services that require it transitively. The cost of a stop task is the longest chain of services waiting on it to
+ * stop, the services it requires transitively. Each service on the chain counts as one, or when weighted by duration
+ * as the exponentially weighted moving average of its observed task duration in milliseconds. A service with no
+ * observed duration counts as one millisecond.
+ * <p>
+ * Costs are memoised and cleared when the topology changes, or before ordering a batch when durations have been
+ * recorded since the last ordering. Adding or removing services only clears the costs of the services whose paths
+ * pass through a changed service.
+ */
+class CriticalPathPrioritiser {
+
+    private static final double EWMA_ALPHA = 0.3;
+    private static final double DEFAULT_COST = 1.0;
+    private final Map<String, List<String>> requiredBy = new HashMap<>();
+    private final Map<String, List<String>> requires = new HashMap<>();
+    private final Map<String, Double> startPathCost = new HashMap<>();
+    private final Map<String, Double> stopPathCost = new HashMap<>();
+    private final Map<String, Double> startDurations = new ConcurrentHashMap<>();
+    private final Map<String, Double> stopDurations = new ConcurrentHashMap<>();
+    private volatile boolean durationsChanged = false;
+    private boolean weightByDuration = false;
+
+    void weightByDuration(boolean weightByDuration) {
+        this.weightByDuration = weightByDuration;
+        clearCosts();
+    }
+
+    boolean isWeightByDuration() {
+        return weightByDuration;
+    }
+
+    /**
+     * Rebuilds the service dependencies from the forward pass controllers, whose dependents are the services that
+     * require them.
+     *
+     * @param controllers the controllers in the graph
+     */
+    void topologyChanged(Collection<ServiceController> controllers) {
+        requiredBy.clear();
+        requires.clear();
+        for (ServiceController controller : controllers) {
+            if (controller instanceof ForwardPassServiceController) {
+                String serviceName = controller.getServiceName();
+                requiredBy.computeIfAbsent(serviceName, k -> new ArrayList<>());
+                for (ServiceController dependent : controller.getDependents()) {
+                    requiredBy.get(serviceName).add(dependent.getServiceName());
+                    requires.computeIfAbsent(dependent.getServiceName(), k -> new ArrayList<>()).add(serviceName);
+                }
+            }
+        }
+        clearCosts();
+    }
+
+    /**
+     * Replaces the dependencies of added or replaced services, the services that require a service are read from its
+     * forward pass controller and the services it requires from its reverse pass controller. Only the costs of the
+     * changed services and the services whose paths lead to them are cleared.
+     *
+     * @param controllers the start and stop controllers of the changed services
+     */
+    void servicesChanged(Collection<ServiceController> controllers) {
+        controllers.forEach(controller -> clearPathCosts(controller.getServiceName()));
+        for (ServiceController controller : controllers) {
+            String serviceName = controller.getServiceName();
+            List<String> dependents = new ArrayList<>();
+            controller.getDependents().forEach(dependent -> dependents.add(dependent.getServiceName()));
+            if (controller instanceof ForwardPassServiceController) {
+                replaceEdges(serviceName, dependents, requiredBy, requires);
+            } else {
+                replaceEdges(serviceName, dependents, requires, requiredBy);
+            }
+        }
+        controllers.forEach(controller -> clearPathCosts(controller.getServiceName()));
+    }
+
+    /**
+     * Removes the services and their dependencies, only the costs of the services whose paths lead to a removed
+     * service are cleared.
+     *
+     * @param serviceNames the removed services
+     */
+    void servicesRemoved(Collection<String> serviceNames) {
+        for (String serviceName : serviceNames) {
+            clearPathCosts(serviceName);
+            replaceEdges(serviceName, Collections.emptyList(), requiredBy, requires);
+            replaceEdges(serviceName, Collections.emptyList(), requires, requiredBy);
+            requiredBy.remove(serviceName);
+            requires.remove(serviceName);
+        }
+    }
+
+    /**
+     * Sorts the tasks by descending critical path cost, the order of tasks with equal cost is unchanged.
+     *
+     * @param tasks the tasks to sort in place
+     */
+    void prioritise(List<TaskWrapper> tasks) {
+        if (tasks.size() < 2) {
+            return;
+        }
+        if (weightByDuration && durationsChanged) {
+            durationsChanged = false;
+            clearCosts();
+        }
+        tasks.sort(Comparator.comparingDouble((TaskWrapper task) -> pathCost(task)).reversed());
+    }
+
+    /**
+     * Records the duration of a successful task execution, safe to call from any thread.
+     */
+    void recordDuration(String serviceName, boolean startTask, long durationNanos) {
+        double durationMillis = durationNanos / 1_000_000.0;
+        (startTask ? startDurations : stopDurations).merge(serviceName, durationMillis,
+                (average, latest) -> average + EWMA_ALPHA * (latest - average));
+        durationsChanged = true;
+    }
+
+    double pathCost(TaskWrapper task) {
+        return task.isStartTask()
+                ? pathCost(task.getServiceName(), requiredBy, startPathCost, startDurations)
+                : pathCost(task.getServiceName(), requires, stopPathCost, stopDurations);
+    }
+
+    /**
+     * Iterative post order walk so the stack depth is independent of the length of a dependency chain.
+     */
+    private double pathCost(String serviceName, Map<String, List<String>> waitingServices, Map<String, Double> costs, Map<String, Double> durations) {
+        Double cost = costs.get(serviceName);
+        if (cost != null) {
+            return cost;
+        }
+        ArrayDeque<String> stack = new ArrayDeque<>();
+        Set<String> visiting = new HashSet<>();
+        stack.push(serviceName);
+        while (!stack.isEmpty()) {
+            String name = stack.peek();
+            if (costs.containsKey(name)) {
+                stack.pop();
+                continue;
+            }
+            visiting.add(name);
+            boolean ready = true;
+            double maxWaitingCost = 0;
+            for (String waitingService : waitingServices.getOrDefault(name, Collections.emptyList())) {
+                Double waitingCost = costs.get(waitingService);
+                if (waitingCost != null) {
+                    maxWaitingCost = Math.max(maxWaitingCost, waitingCost);
+                } else if (!visiting.contains(waitingService)) {
+                    stack.push(waitingService);
+                    ready = false;
+                }
+            }
+            if (ready) {
+                stack.pop();
+                costs.put(name, serviceCost(name, durations) + maxWaitingCost);
+            }
+        }
+        return costs.get(serviceName);
+    }
+
+    private static void replaceEdges(String serviceName, List<String> neighbours, Map<String, List<String>> edges, Map<String, List<String>> reverseEdges) {
+        List<String> oldNeighbours = edges.put(serviceName, neighbours);
+        if (oldNeighbours != null) {
+            oldNeighbours.forEach(neighbour -> reverseEdges.getOrDefault(neighbour, Collections.emptyList()).remove(serviceName));
+        }
+        for (String neighbour : neighbours) {
+            List<String> reverseNeighbours = reverseEdges.computeIfAbsent(neighbour, k -> new ArrayList<>());
+            if (!reverseNeighbours.contains(serviceName)) {
+                reverseNeighbours.add(serviceName);
+            }
+        }
+    }
+
+    /**
+     * Clears the cost of a service and the costs that include it. A start cost includes the start costs of the
+     * services that require it, so the services it requires are cleared transitively, and the reverse for stop costs.
+     * A cost is only memoised after the costs it includes, the walk stops at a service beyond the first hop with no
+     * memoised cost.
+     */
+    private void clearPathCosts(String serviceName) {
+        clearPathCosts(serviceName, requires, startPathCost);
+        clearPathCosts(serviceName, requiredBy, stopPathCost);
+    }
+
+    private static void clearPathCosts(String serviceName, Map<String, List<String>> includedBy, Map<String, Double> costs) {
+        costs.remove(serviceName);
+        Set<String> visited = new HashSet<>();
+        visited.add(serviceName);
+        ArrayDeque<String> stack = new ArrayDeque<>();
+        //a neighbour across a changed edge may hold a cost memoised without this service
+        for (String neighbour : includedBy.getOrDefault(serviceName, Collections.emptyList())) {
+            if (visited.add(neighbour)) {
+                costs.remove(neighbour);
+                stack.push(neighbour);
+            }
+        }
+        while (!stack.isEmpty()) {
+            for (String name : includedBy.getOrDefault(stack.pop(), Collections.emptyList())) {
+                if (visited.add(name) && costs.remove(name) != null) {
+                    stack.push(name);
+                }
+            }
+        }
+    }
+
+    private double serviceCost(String serviceName, Map<String, Double> durations) {
+        return weightByDuration ? durations.getOrDefault(serviceName, DEFAULT_COST) : DEFAULT_COST;
+    }
+
+    private void clearCosts() {
+        startPathCost.clear();
+        stopPathCost.clear();
+    }
+}
@@ -19,23 +19,45 @@ package com.fluxtion.example.servicestater.graph;
 import com.fluxtion.compiler.EventProcessorConfig;
 import com.fluxtion.compiler.Fluxtion;
 import com.fluxtion.example.servicestater.*;
-import com.fluxtion.example.servicestater.graph.GraphEvent.RemoveService;
+import com.fluxtion.example.servicestater.helpers.HashedTimingWheel;
 import com.fluxtion.example.servicestater.helpers.Slf4JAuditLogger;
 import com.fluxtion.example.servicestater.helpers.SynchronousTaskExecutor;
 import com.fluxtion.runtime.EventProcessor;
+import com.fluxtion.runtime.audit.Auditor;
 import com.fluxtion.runtime.audit.EventLogControlEvent;
 import lombok.Synchronized;
 import lombok.Value;
+import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 /**
@@ -64,19 +86,50 @@ import java.util.stream.Collectors;
  * </ul>
  */
 @Slf4j
-public class FluxtionServiceManager implements ServiceManager, ServiceQuery {
+public class FluxtionServiceManager implements ServiceManager {
 
     public static final String START_SUFFIX = "_start";
     public static final String STOP_SUFFIX = "_stop";
-    private final Map<String, ServiceController> managedStartServices = new HashMap<>();
-    private final TaskWrapperPublisher taskWrapperPublisher = new TaskWrapperPublisher();
-    private final ServiceStatusRecordCache serviceStatusRecordCache = new ServiceStatusRecordCache();
+    static final String GENERATED_PACKAGE = "com.fluxtion.example.servicestater.graph.fluxtionservicemanager.servicestarter";
+    static final String GENERATED_CLASS = "Processor";
+    private static final LongAdder COMPILER_COUNT = new LongAdder();
+    private static final LongAdder RETRY_COUNT = new LongAdder();
     private final DelegatingTaskExecutor taskExecutor = new DelegatingTaskExecutor();
-    private EventProcessor startProcessor;
+    private final Map<String, Auditor> auditorMap = new HashMap<>();
+    private final HashedTimingWheel timeoutWheel = new HashedTimingWheel();
+    private final Queue<TaskWrapper.TaskExecutionResult> failedTasks = new ConcurrentLinkedQueue<>();
+    private final CriticalPathPrioritiser taskPrioritiser = new CriticalPathPrioritiser();
+    private final Map<BuildPhase, Long> buildPhaseNanos = new EnumMap<>(BuildPhase.class);
+    private final ExecutorService compilerExecutor = new ThreadPoolExecutor(
+            0, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), FluxtionServiceManager::newCompilerThread);
+    private final ExecutorService retryExecutor = new ThreadPoolExecutor(
+            0, Integer.MAX_VALUE, 30, TimeUnit.SECONDS, new SynchronousQueue<>(), FluxtionServiceManager::newRetryThread);
+    private ProcessorCache processorCache;
+    private SynchronizedEventProcessor startProcessor;
+    /**
+     * the graph of the processor serving requests, the nodes of an interpreted processor or the graph a compiled
+     * processor was generated from
+     */
+    private volatile ServiceGraph serviceGraph = new ServiceGraph();
+    /**
+     * the graph changes are applied to before compilation, only accessed on the compiler thread
+     */
+    private ServiceGraph compilerGraph;
+    private volatile ServiceStatusRecordCache liveStatusCache = serviceGraph.getServiceStatusRecordCache();
+    private volatile CompletableFuture<Void> compiledProcessorSwap = CompletableFuture.completedFuture(null);
+    private EventLogControlEvent.LogLevel traceLogLevel;
     private boolean addAudit = true;
     private boolean compile = true;
+    private boolean tieredCompilation = false;
+    private boolean interpreted = false;
+    private boolean loadedProcessor = false;
     private boolean triggerDependentsOnStartNotification = false;
     private boolean triggerDependentsOnStopNotification = false;
+    private boolean singleCycleRequests = true;
+    private boolean prioritiseCriticalPath = true;
+    private ServiceManager notificationTarget = this;
+    private Executor graphExecutor;
+    private final ThreadLocal<Trampoline> trampolines = ThreadLocal.withInitial(Trampoline::new);
 
     public static String toStartServiceName(String serviceName) {
         return serviceName + START_SUFFIX;
@@ -88,49 +141,158 @@ public class FluxtionServiceManager implements ServiceManager, ServiceQuery {
 
     @Override
     public FluxtionServiceManager addService(Service... serviceToAdd) {
+        awaitGraphChange(addServiceAsync(serviceToAdd));
+        return this;
+    }
+
+    @Override
+    public CompletableFuture<Void> addServiceAsync(Service... serviceToAdd) {
         Objects.requireNonNull(startProcessor);
         Objects.requireNonNull(serviceToAdd);
-        if (compile) {
-            throw new UnsupportedOperationException("only interpreted service graphs can be added to after initial build");
-        }
-        Set<Service> services = Arrays.stream(serviceToAdd).collect(Collectors.toSet());
-        if (!services.isEmpty()) {
-            serviceStatusRecordCache.rebuildingMode();
-            services.forEach(this::addServicesToMap);//change to recursive lookup
-            services.forEach(this::setServiceDependencies);//use the recursive list here
-            startProcessor = new SynchronizedEventProcessor(Fluxtion.interpret(this::serviceStarter));
-            postBuild(serviceToAdd);
-            serviceStatusRecordCache.normalMode();
+        if (!interpreted) {
+            requireServiceGraph();
+            Service[] services = serviceToAdd.clone();
+            return compileInBackground(graph -> addToServiceGraph(graph, services));
         }
-        return this;
+        Set<Service> services = serviceGraph.changedServices(serviceToAdd);
+        if (services.isEmpty()) {
+            log.debug("no topology change adding services, skipping graph splice");
+            return CompletableFuture.completedFuture(null);
+        }
+        startProcessor.updateNodes(() -> {
+            ServiceStatusRecordCache statusCache = serviceGraph.getServiceStatusRecordCache();
+            statusCache.rebuildingMode();
+            serviceGraph.spliceInServices(services);
+            statusCache.normalMode();
+        });
+        for (Service service : services) {
+            if (service.getWrappedInstance() != null) {
+                startProcessor.onEvent(new GraphEvent.RegisterWrappedInstance(service.getName(), service.getWrappedInstance()));
+            }
+        }
+        List<ServiceController> changedControllers = new ArrayList<>();
+        for (Service service : services) {
+            changedControllers.add(serviceGraph.controller(toStartServiceName(service.getName())));
+            changedControllers.add(serviceGraph.controller(toStopServiceName(service.getName())));
+        }
+        taskPrioritiser.servicesChanged(changedControllers);
+        liveStatusCache.publishSnapshot();
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
     public FluxtionServiceManager removeService(String... servicesToRemove) {
+        awaitGraphChange(removeServiceAsync(servicesToRemove));
+        return this;
+    }
+
+    @Override
+    public CompletableFuture<Void> removeServiceAsync(String... servicesToRemove) {
         Objects.requireNonNull(startProcessor);
         Objects.requireNonNull(servicesToRemove);
-        if (compile) {
-            throw new UnsupportedOperationException("only interpreted service graphs can be removed from after initial build");
+        if (!interpreted) {
+            requireServiceGraph();
+            String[] serviceNames = servicesToRemove.clone();
+            Arrays.stream(serviceNames).forEach(this::stopService);
+            return compileInBackground(graph -> removeFromServiceGraph(graph, serviceNames));
         }
         Arrays.stream(servicesToRemove).forEach(this::stopService);
-        Arrays.stream(servicesToRemove).map(RemoveService::new).forEach(startProcessor::onEvent);
-        Arrays.stream(servicesToRemove).map(FluxtionServiceManager::toStartServiceName).forEach(managedStartServices::remove);
-        Arrays.stream(servicesToRemove).map(FluxtionServiceManager::toStopServiceName).forEach(managedStartServices::remove);
-        startProcessor = new SynchronizedEventProcessor(Fluxtion.interpret(this::serviceStarter));
-        serviceStatusRecordCache.rebuildingMode();
-        postBuild();
-        serviceStatusRecordCache.normalMode();
-        return this;
+        List<String> removedServices = new ArrayList<>();
+        startProcessor.updateNodes(() -> {
+            removedServices.addAll(serviceGraph.removeServices(servicesToRemove));
+            serviceGraph.getServiceStatusRecordCache().publishRemovedServices();
+        });
+        taskPrioritiser.servicesRemoved(removedServices);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Blocks until a graph change is serving requests. Waiting from a graph cycle, such as a listener or a task run
+     * by a synchronous executor, would block the swap of the processor and is rejected.
+     */
+    private void awaitGraphChange(CompletableFuture<Void> graphChange) {
+        if (!graphChange.isDone() && trampolines.get().running) {
+            throw new IllegalStateException(
+                    "cannot wait for a graph change in a graph cycle, use addServiceAsync or removeServiceAsync");
+        }
+        join(graphChange);
+    }
+
+    /**
+     * Waits for a graph change to complete, the failure of the change is rethrown.
+     *
+     * @param graphChange the future of the graph change
+     */
+    static void join(CompletableFuture<Void> graphChange) {
+        try {
+            graphChange.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("service graph change failed", cause);
+        }
+    }
+
+    /**
+     * @return a copy of the graph with the services added, or null if the topology is unchanged
+     */
+    private static ServiceGraph addToServiceGraph(ServiceGraph graph, Service... serviceToAdd) {
+        Set<Service> services = graph.changedServices(serviceToAdd);
+        if (services.isEmpty()) {
+            log.debug("no topology change adding services, skipping processor compilation");
+            return null;
+        }
+        ServiceGraph changedGraph = graph.copy();
+        changedGraph.addServices(services);
+        return changedGraph;
+    }
+
+    /**
+     * @return a copy of the graph with the services removed, or null if none of the services are managed
+     */
+    private static ServiceGraph removeFromServiceGraph(ServiceGraph graph, String... servicesToRemove) {
+        if (Arrays.stream(servicesToRemove).noneMatch(graph::isManaged)) {
+            return null;
+        }
+        ServiceGraph changedGraph = graph.copy();
+        changedGraph.removeServices(servicesToRemove);
+        return changedGraph;
+    }
+
+    private void requireServiceGraph() {
+        if (loadedProcessor) {
+            throw new UnsupportedOperationException("the services of a graph loaded from a processor cannot be changed");
+        }
     }
 
     public FluxtionServiceManager buildServiceController(Service... serviceList) {
-        preBuild(serviceList);
-        if (compile) {
-            startProcessor = new SynchronizedEventProcessor(Fluxtion.compile(this::serviceStarter));
+        clearBuildPhases();
+        long phaseStart = System.nanoTime();
+        ServiceGraph graph = preBuild(serviceList);
+        phaseStart = recordBuildPhase(BuildPhase.GRAPH_CONSTRUCTION, phaseStart);
+        interpreted = !compile;
+        if (compile && !tieredCompilation) {
+            startProcessor = new SynchronizedEventProcessor(compileProcessor(graph));
+            serviceGraph = graph;
         } else {
+            //a tiered build interprets a copy, the graph handed to the compiler is never live
+            serviceGraph = compile ? graph.copy() : graph;
             startProcessor = new SynchronizedEventProcessor(Fluxtion.interpret(this::serviceStarter));
+            recordBuildPhase(BuildPhase.INTERPRETATION, phaseStart);
         }
+        setCompilerGraph(compile ? graph : null);
+        phaseStart = System.nanoTime();
         postBuild(serviceList);
+        recordBuildPhase(BuildPhase.POST_BUILD, phaseStart);
+        if (compile && tieredCompilation) {
+            compileInBackground(UnaryOperator.identity());
+        } else {
+            compiledProcessorSwap = CompletableFuture.completedFuture(null);
+        }
         return this;
     }
 
@@ -138,9 +300,17 @@ public class FluxtionServiceManager implements ServiceManager, ServiceQuery {
             String className,
             String packageName,
             Service... serviceList) {
-        preBuild(serviceList);
-        startProcessor = new SynchronizedEventProcessor(Fluxtion.compileAot(this::serviceStarter, packageName, className));
+        clearBuildPhases();
+        long phaseStart = System.nanoTime();
+        ServiceGraph graph = preBuild(serviceList);
+        phaseStart = recordBuildPhase(BuildPhase.GRAPH_CONSTRUCTION, phaseStart);
+        interpreted = false;
+        startProcessor = new SynchronizedEventProcessor(Fluxtion.compileAot(cfg -> serviceStarter(graph, cfg), packageName, className));
+        serviceGraph = graph;
+        setCompilerGraph(graph);
+        phaseStart = recordBuildPhase(BuildPhase.AOT_COMPILATION, phaseStart);
         postBuild(serviceList);
+        recordBuildPhase(BuildPhase.POST_BUILD, phaseStart);
         return this;
     }
 
@@ -149,22 +319,229 @@ public class FluxtionServiceManager implements ServiceManager, ServiceQuery {
             String className,
             String packageName,
             Service... serviceList) {
-        preBuild(serviceList);
-        startProcessor = Fluxtion.compile(this::serviceStarter, compilerCfg -> {
+        clearBuildPhases();
+        long phaseStart = System.nanoTime();
+        ServiceGraph graph = preBuild(serviceList);
+        phaseStart = recordBuildPhase(BuildPhase.GRAPH_CONSTRUCTION, phaseStart);
+        interpreted = false;
+        startProcessor = new SynchronizedEventProcessor(Fluxtion.compile(cfg -> serviceStarter(graph, cfg), compilerCfg -> {
             compilerCfg.setOutputDirectory(outputDirectory);
             compilerCfg.setPackageName(packageName.trim());
             compilerCfg.setClassName(className.trim());
-        });
+        }));
+        serviceGraph = graph;
+        setCompilerGraph(graph);
+        phaseStart = recordBuildPhase(BuildPhase.AOT_COMPILATION, phaseStart);
         postBuild(serviceList);
+        recordBuildPhase(BuildPhase.POST_BUILD, phaseStart);
         return this;
     }
 
     public FluxtionServiceManager useProcessor(EventProcessor processor) {
-        startProcessor = processor;
+        clearBuildPhases();
+        long phaseStart = System.nanoTime();
+        startProcessor = new SynchronizedEventProcessor(processor);
+        interpreted = false;
+        loadedProcessor = true;
+        serviceGraph = new ServiceGraph();
+        setCompilerGraph(null);
         postBuild();
+        recordBuildPhase(BuildPhase.POST_BUILD, phaseStart);
         return this;
     }
 
+    /**
+     * The duration of each phase of the last build of the event processor in nanoseconds, phases that did not run in
+     * the last build are absent. An interpreted build records {@link BuildPhase#INTERPRETATION}, an AOT build records
+     * source generation, compilation and class loading as the single {@link BuildPhase#AOT_COMPILATION} phase. A tiered
+     * build records the interpretation, then adds the phases of the background compilation and the
+     * {@link BuildPhase#PROCESSOR_SWAP} once the compiled processor is swapped in.
+     *
+     * @return the build phase durations
+     */
+    public Map<BuildPhase, Long> buildPhaseNanos() {
+        synchronized (buildPhaseNanos) {
+            return Collections.unmodifiableMap(new EnumMap<>(buildPhaseNanos));
+        }
+    }
+
+    /**
+     * A future completed when the compiled processor of the latest tiered build or topology change of a compiled graph
+     * is serving requests. If the background compilation fails the future is completed exceptionally and the current
+     * processor continues to serve requests. Completed immediately if no compilation is pending.
+     *
+     * @return a future completed when the compiled processor is swapped in
+     */
+    public CompletableFuture<Void> compiledProcessorReady() {
+        return compiledProcessorSwap.copy();
+    }
+
+    /**
+     * Applies a change to a copy of the service graph and compiles the processor on the compiler thread while the
+     * current processor serves requests, the compiled processor is swapped in when loaded. Changes are applied and
+     * compiled in order, a compilation superseded by a rebuild of the graph is discarded. The changed graph replaces
+     * the graph changes are applied to only when the swap completes, a failed compilation or swap leaves the graph
+     * unchanged.
+     *
+     * @param graphChange returns a changed copy of the graph, or null if the topology is unchanged
+     * @return a future completed when the changed graph serves requests, or exceptionally if the change failed
+     */
+    private CompletableFuture<Void> compileInBackground(UnaryOperator<ServiceGraph> graphChange) {
+        CompletableFuture<Void> swapFuture = new CompletableFuture<>();
+        compiledProcessorSwap = swapFuture;
+        EventProcessor currentProcessor = startProcessor;
+        compilerExecutor.execute(() -> {
+            try {
+                ServiceGraph changedGraph = graphChange.apply(compilerGraph);
+                if (changedGraph != null) {
+                    swapProcessor(currentProcessor, changedGraph, compileProcessor(changedGraph), swapFuture);
+                } else {
+                    swapFuture.complete(null);
+                }
+            } catch (Throwable t) {
+                log.warn("background compilation failed, continuing with the current processor", t);
+                swapFuture.completeExceptionally(t);
+            }
+        });
+        return swapFuture.copy();
+    }
+
+    /**
+     * Hands the graph of a new build to the compiler thread, queued behind the changes of the previous build.
+     */
+    private void setCompilerGraph(ServiceGraph graph) {
+        compilerExecutor.execute(() -> compilerGraph = graph);
+    }
+
+    private static Thread newCompilerThread(Runnable runnable) {
+        Thread compilerThread = new Thread(runnable, "processorCompiler-" + COMPILER_COUNT.intValue());
+        COMPILER_COUNT.increment();
+        compilerThread.setDaemon(true);
+        return compilerThread;
+    }
+
+    private static Thread newRetryThread(Runnable runnable) {
+        Thread retryThread = new Thread(runnable, "taskRetry-" + RETRY_COUNT.intValue());
+        RETRY_COUNT.increment();
+        retryThread.setDaemon(true);
+        return retryThread;
+    }
+
+    /**
+     * Swaps the compiled processor in for the current processor. No request is processed during the swap, the
+     * compiled processor is initialised and receives the service status, listeners, waiters, dependent failure policy,
+     * trace level, wrapped instances and task executor of the current processor before it serves requests. Called on
+     * the compiler thread, the compiled graph becomes the graph of the manager once the swap succeeds.
+     */
+    @Synchronized
+    private void swapProcessor(EventProcessor scheduledProcessor, ServiceGraph compiledGraph, EventProcessor compiledProcessor, CompletableFuture<Void> swapFuture) {
+        if (startProcessor != scheduledProcessor) {
+            log.info("graph rebuilt during background compilation, discarding compiled processor");
+            swapFuture.cancel(false);
+            return;
+        }
+        long phaseStart = System.nanoTime();
+        startProcessor.swapDelegate(compiledProcessor,
+                (currentProcessor, newProcessor) -> transferState(currentProcessor, newProcessor, compiledGraph));
+        compilerGraph = compiledGraph;
+        serviceGraph = compiledGraph;
+        taskPrioritiser.topologyChanged(compiledGraph.controllers());
+        recordBuildPhase(BuildPhase.PROCESSOR_SWAP, phaseStart);
+        log.info("swapped in compiled processor");
+        swapFuture.complete(null);
+    }
+
+    /**
+     * Transfers the live state of the current processor to the compiled processor. If services were added or removed
+     * the status is published, services removed from the graph are published with no status.
+     */
+    private void transferState(EventProcessor currentProcessor, EventProcessor compiledProcessor, ServiceGraph compiledGraph) {
+        compiledProcessor.init();
+        ServiceStatusRecordCache compiledStatusCache;
+        try {
+            compiledStatusCache = compiledProcessor.getNodeById(compiledGraph.getServiceStatusRecordCache().getName());
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("no status cache in compiled processor", e);
+        }
+        boolean topologyChanged = compiledStatusCache.copyState(liveStatusCache);
+        compiledProcessor.onEvent(new EventLogControlEvent(new Slf4JAuditLogger()));
+        if (traceLogLevel != null) {
+            compiledProcessor.onEvent(new EventLogControlEvent(traceLogLevel));
+        }
+        Map<String, Object> wrappedInstances = new HashMap<>();
+        for (ServiceController controller : compiledGraph.controllers()) {
+            Object wrappedInstance = controller.getWrappedInstance();
+            try {
+                ServiceController liveController = currentProcessor.getNodeById(controller.getName());
+                if (liveController.getWrappedInstance() != null) {
+                    wrappedInstance = liveController.getWrappedInstance();
+                }
+            } catch (NoSuchFieldException e) {
+                log.debug("service added to the graph, no live controller:'{}'", controller.getName());
+            }
+            if (wrappedInstance != null) {
+                wrappedInstances.put(controller.getServiceName(), wrappedInstance);
+            }
+        }
+        wrappedInstances.forEach((serviceName, wrappedInstance) ->
+                compiledProcessor.onEvent(new GraphEvent.RegisterWrappedInstance(serviceName, wrappedInstance)));
+        compiledProcessor.onEvent(new RegisterCommandProcessor(taskExecutor));
+        if (topologyChanged) {
+            compiledProcessor.onEvent(new GraphEvent.PublishStatus());
+        }
+        liveStatusCache = compiledStatusCache;
+    }
+
+    /**
+     * Generates, compiles and loads the processor as separate steps, recording the duration of each step. With a
+     * processor cache the compiled classes of a previously generated identical source are loaded from the cache,
+     * skipping compilation.
+     */
+    private EventProcessor compileProcessor(ServiceGraph graph) {
+        String fqn = GENERATED_PACKAGE + "." + GENERATED_CLASS;
+        long phaseStart = System.nanoTime();
+        String source = ProcessorCompiler.generateSource(cfg -> serviceStarter(graph, cfg), GENERATED_PACKAGE, GENERATED_CLASS);
+        phaseStart = recordBuildPhase(BuildPhase.CODE_GENERATION, phaseStart);
+        String sourceHash = processorCache == null ? null : ProcessorCache.sourceHash(source);
+        if (sourceHash != null) {
+            Map<String, byte[]> cachedClassBytes = processorCache.load(sourceHash);
+            if (cachedClassBytes != null) {
+                try {
+                    EventProcessor processor = ProcessorCompiler.newProcessor(fqn, cachedClassBytes);
+                    recordBuildPhase(BuildPhase.CLASS_LOADING, phaseStart);
+                    log.info("loaded cached processor sourceHash:{}", sourceHash);
+                    return processor;
+                } catch (RuntimeException | LinkageError e) {
+                    log.warn("unable to load cached processor sourceHash:{}, recompiling", sourceHash, e);
+                    processorCache.evict(sourceHash);
+                    phaseStart = System.nanoTime();
+                }
+            }
+        }
+        Map<String, byte[]> classBytes = ProcessorCompiler.compile(fqn, source);
+        phaseStart = recordBuildPhase(BuildPhase.COMPILATION, phaseStart);
+        EventProcessor processor = ProcessorCompiler.newProcessor(fqn, classBytes);
+        recordBuildPhase(BuildPhase.CLASS_LOADING, phaseStart);
+        if (sourceHash != null) {
+            processorCache.store(sourceHash, fqn, source, classBytes);
+        }
+        return processor;
+    }
+
+    private long recordBuildPhase(BuildPhase phase, long phaseStart) {
+        long now = System.nanoTime();
+        synchronized (buildPhaseNanos) {
+            buildPhaseNanos.merge(phase, now - phaseStart, Long::sum);
+        }
+        return now;
+    }
+
+    private void clearBuildPhases() {
+        synchronized (buildPhaseNanos) {
+            buildPhaseNanos.clear();
+        }
+    }
+
     @Override
     @Synchronized
     public void shutdown() {
@@ -174,56 +551,135 @@ public class FluxtionServiceManager implements ServiceManager, ServiceQuery {
         } catch (Exception e) {
             log.warn("failed to shutdown task executor", e);
         }
+        timeoutWheel.close();
+        compilerExecutor.shutdownNow();
+        retryExecutor.shutdownNow();
     }
 
     @Override
     public void traceMethodCalls(boolean traceOn) {
-        if (traceOn) {
-            startProcessor.onEvent(new EventLogControlEvent(EventLogControlEvent.LogLevel.TRACE));
-        } else {
-            startProcessor.onEvent(new EventLogControlEvent(EventLogControlEvent.LogLevel.WARN));
-        }
+        traceLogLevel = traceOn ? EventLogControlEvent.LogLevel.TRACE : EventLogControlEvent.LogLevel.WARN;
+        startProcessor.onEvent(new EventLogControlEvent(traceLogLevel));
     }
 
     @Override
-    @Synchronized
     public void startService(String serviceName) {
+        dispatch(() -> onStartService(serviceName));
+    }
+
+    @Synchronized
+    private void onStartService(String serviceName) {
         log.info("start single service:'{}'", serviceName);
         startProcessor.onEvent(new GraphEvent.RequestServiceStart(serviceName));
         taskExecutor.publishTasksToDelegate();
-        startProcessor.onEvent(new GraphEvent.PublishStartTask());
-        taskExecutor.publishTasksToDelegate();
-        publishSystemStatus();
+        if (!singleCycleRequests) {
+            startProcessor.onEvent(new GraphEvent.PublishStartTask());
+            taskExecutor.publishTasksToDelegate();
+            publishSystemStatus();
+        }
     }
 
     @Override
-    @Synchronized
     public void stopService(String serviceName) {
+        dispatch(() -> onStopService(serviceName));
+    }
+
+    @Synchronized
+    private void onStopService(String serviceName) {
         log.info("stop single service:'{}'", serviceName);
         startProcessor.onEvent(new GraphEvent.RequestServiceStop(serviceName));
         taskExecutor.publishTasksToDelegate();
-        startProcessor.onEvent(new GraphEvent.PublishStopTask());
+        if (!singleCycleRequests) {
+            startProcessor.onEvent(new GraphEvent.PublishStopTask());
+            taskExecutor.publishTasksToDelegate();
+            publishSystemStatus();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> startServiceAsync(String serviceName) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        dispatch(() -> {
+            startProcessor.onEvent(new GraphEvent.RegisterStatusWaiter(serviceName, Service.Status.STARTED, future));
+            onStartService(serviceName);
+        });
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Void> stopServiceAsync(String serviceName) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        dispatch(() -> {
+            startProcessor.onEvent(new GraphEvent.RegisterStatusWaiter(serviceName, Service.Status.STOPPED, future));
+            onStopService(serviceName);
+        });
+        return future;
+    }
+
+    @Override
+    public void startServices(Collection<String> serviceNames) {
+        dispatch(() -> onStartServices(serviceNames));
+    }
+
+    @Synchronized
+    private void onStartServices(Collection<String> serviceNames) {
+        log.info("start services:'{}'", serviceNames);
+        startProcessor.onEvent(new GraphEvent.RequestServicesStart(serviceNames));
+        taskExecutor.publishTasksToDelegate();
+        if (!singleCycleRequests) {
+            startProcessor.onEvent(new GraphEvent.PublishStartTask());
+            taskExecutor.publishTasksToDelegate();
+            publishSystemStatus();
+        }
+    }
+
+    @Override
+    public void stopServices(Collection<String> serviceNames) {
+        dispatch(() -> onStopServices(serviceNames));
+    }
+
+    @Synchronized
+    private void onStopServices(Collection<String> serviceNames) {
+        log.info("stop services:'{}'", serviceNames);
+        startProcessor.onEvent(new GraphEvent.RequestServicesStop(serviceNames));
         taskExecutor.publishTasksToDelegate();
-        publishSystemStatus();
+        if (!singleCycleRequests) {
+            startProcessor.onEvent(new GraphEvent.PublishStopTask());
+            taskExecutor.publishTasksToDelegate();
+            publishSystemStatus();
+        }
     }
 
     @Override
     public void startAllServices() {
+        dispatch(this::onStartAllServices);
+    }
+
+    private void onStartAllServices() {
         log.info("start all");
         startProcessor.onEvent(new GraphEvent.RequestStartAll());
         taskExecutor.publishTasksToDelegate();
-        startProcessor.onEvent(new GraphEvent.PublishStartTask());
-        taskExecutor.publishTasksToDelegate();
-        publishSystemStatus();
+        if (!singleCycleRequests) {
+            startProcessor.onEvent(new GraphEvent.PublishStartTask());
+            taskExecutor.publishTasksToDelegate();
+            publishSystemStatus();
+        }
     }
 
     @Override
     public void stopAllServices() {
+        dispatch(this::onStopAllServices);
+    }
+
+    private void onStopAllServices() {
         log.info("stop all");
         startProcessor.onEvent(new GraphEvent.RequestStopAll());
-        startProcessor.onEvent(new GraphEvent.PublishStopTask());
         taskExecutor.publishTasksToDelegate();
-        publishSystemStatus();
+        if (!singleCycleRequests) {
+            startProcessor.onEvent(new GraphEvent.PublishStopTask());
+            taskExecutor.publishTasksToDelegate();
+            publishSystemStatus();
+        }
     }
 
     @Override
@@ -236,11 +692,22 @@ public class FluxtionServiceManager implements ServiceManager, ServiceQuery {
         startProcessor.onEvent(new RegisterStatusListener(statusUpdateListener));
     }
 
+    @Override
+    public void registerStatusChangeListener(Consumer<List<ServiceStatusChange>> statusChangeListener) {
+        startProcessor.onEvent(new RegisterStatusChangeListener(statusChangeListener));
+    }
+
     @Override
     public void failFastOnTaskException(boolean failFastFlag) {
         taskExecutor.failFast(failFastFlag);
     }
 
+    @Override
+    public void dependentFailurePolicy(DependentFailurePolicy dependentFailurePolicy) {
+        Objects.requireNonNull(dependentFailurePolicy, "dependent failure policy cannot be null");
+        startProcessor.onEvent(new GraphEvent.SetDependentFailurePolicy(dependentFailurePolicy));
+    }
+
     @Override
     public void publishSystemStatus() {
         startProcessor.onEvent(new GraphEvent.PublishStatus());
@@ -253,12 +720,16 @@ public class FluxtionServiceManager implements ServiceManager, ServiceQuery {
 
     @Override
     public void serviceStarted(String serviceName) {
+        dispatch(() -> onServiceStarted(serviceName));
+    }
+
+    private void onServiceStarted(String serviceName) {
         log.info("notified service started;'{}'", serviceName);
         GraphEvent.NotifyServiceStarted notifyServiceStarted = new GraphEvent.NotifyServiceStarted(serviceName);
         log.debug(notifyServiceStarted.toString());
         if (triggerDependentsOnStartNotification) {
             log.info("triggering start for dependencies");
-            startService(serviceName);
+            onStartService(serviceName);
         }
         startProcessor.onEvent(notifyServiceStarted);
         taskExecutor.publishTasksToDelegate();
@@ -266,17 +737,91 @@ public class FluxtionServiceManager implements ServiceManager, ServiceQuery {
 
     @Override
     public void serviceStopped(String serviceName) {
+        dispatch(() -> onServiceStopped(serviceName));
+    }
+
+    private void onServiceStopped(String serviceName) {
         log.info("notified service stopped;'{}'", serviceName);
         GraphEvent.NotifyServiceStopped notifyServiceStopped = new GraphEvent.NotifyServiceStopped(serviceName);
         log.info(notifyServiceStopped.toString());
         if (triggerDependentsOnStopNotification) {
             log.info("triggering stop for dependencies");
-            stopService(serviceName);
+            onStopService(serviceName);
         }
         startProcessor.onEvent(notifyServiceStopped);
         taskExecutor.publishTasksToDelegate();
     }
 
+    @Override
+    public void serviceStarted(Collection<String> serviceNames) {
+        dispatch(() -> onServiceStarted(serviceNames));
+    }
+
+    private void onServiceStarted(Collection<String> serviceNames) {
+        log.info("notified services started;'{}'", serviceNames);
+        if (triggerDependentsOnStartNotification) {
+            log.info("triggering start for dependencies");
+            onStartServices(serviceNames);
+        }
+        startProcessor.onEvent(new GraphEvent.NotifyServicesStarted(serviceNames));
+        taskExecutor.publishTasksToDelegate();
+    }
+
+    @Override
+    public void serviceStopped(Collection<String> serviceNames) {
+        dispatch(() -> onServiceStopped(serviceNames));
+    }
+
+    private void onServiceStopped(Collection<String> serviceNames) {
+        log.info("notified services stopped;'{}'", serviceNames);
+        if (triggerDependentsOnStopNotification) {
+            log.info("triggering stop for dependencies");
+            onStopServices(serviceNames);
+        }
+        startProcessor.onEvent(new GraphEvent.NotifyServicesStopped(serviceNames));
+        taskExecutor.publishTasksToDelegate();
+    }
+
+    /**
+     * Routes the result of a failed task into the graph, called from the thread that executed the task or the timing
+     * wheel thread. Failures are queued and every failure queued when the graph is next free is applied in a single
+     * cycle. When a graph executor is registered the cycle runs on the graph owner thread, ordered with the
+     * notifications already queued there. Otherwise a failure reported from the timing wheel is handed to a retry
+     * thread, so the graph cycle never delays other timeouts, and any other failure runs on the calling thread.
+     *
+     * @param taskExecutionResult the result of the failed task
+     */
+    void taskFailed(TaskWrapper.TaskExecutionResult taskExecutionResult) {
+        failedTasks.offer(taskExecutionResult);
+        if (graphExecutor == null && !timeoutWheel.isWorkerThread()) {
+            dispatch(this::onTasksFailed);
+            return;
+        }
+        try {
+            (graphExecutor == null ? retryExecutor : graphExecutor).execute(() -> dispatch(this::onTasksFailed));
+        } catch (RejectedExecutionException | IllegalStateException e) {
+            log.warn("cannot route task failure to the graph, service manager has shutdown service:'{}'",
+                    taskExecutionResult.getServiceName(), e);
+        }
+    }
+
+    @Synchronized
+    private void onTasksFailed() {
+        List<TaskWrapper.TaskExecutionResult> results = new ArrayList<>();
+        TaskWrapper.TaskExecutionResult result;
+        while ((result = failedTasks.poll()) != null) {
+            results.add(result);
+        }
+        if (results.isEmpty()) {
+            return;
+        }
+        log.warn("tasks failed:{}", results.stream()
+                .map(r -> (r.isStartTask() ? "start:" : "stop:") + r.getServiceName())
+                .collect(Collectors.toList()));
+        startProcessor.onEvent(new GraphEvent.TasksFailed(results));
+        taskExecutor.publishTasksToDelegate();
+    }
+
     @Override
     public void triggerDependentsOnStartNotification(boolean triggerDependentsOnStart) {
         this.triggerDependentsOnStartNotification = triggerDependentsOnStart;
@@ -310,73 +855,183 @@ public class FluxtionServiceManager implements ServiceManager, ServiceQuery {
         return this;
     }
 
+    /**
+     * Adds an {@link Auditor} to the graph that is notified of every node invocation, must be called before the graph
+     * is built.
+     *
+     * @param name    the name of the auditor in the graph
+     * @param auditor the auditor to add
+     * @return this {@link FluxtionServiceManager}
+     */
+    public FluxtionServiceManager addAuditor(String name, Auditor auditor) {
+        auditorMap.put(name, auditor);
+        return this;
+    }
+
+    /**
+     * Controls how start/stop requests are dispatched to the graph. When true, the default, a request is processed in
+     * a single event cycle that marks the affected services, publishes the tasks that can run and publishes the
+     * status. When false the request is followed by separate publish task and publish status cycles.
+     *
+     * @param singleCycleRequests flag controlling request dispatch
+     * @return this {@link FluxtionServiceManager}
+     */
+    public FluxtionServiceManager singleCycleRequests(boolean singleCycleRequests) {
+        this.singleCycleRequests = singleCycleRequests;
+        return this;
+    }
+
+    /**
+     * Orders the tasks published in a cycle by the length of the longest chain of services waiting on each task, the
+     * default is true. The order only matters when the task executor has fewer threads than tasks.
+     *
+     * @param prioritiseCriticalPath flag controlling critical path ordering
+     * @return this {@link FluxtionServiceManager}
+     */
+    public FluxtionServiceManager prioritiseCriticalPath(boolean prioritiseCriticalPath) {
+        this.prioritiseCriticalPath = prioritiseCriticalPath;
+        return this;
+    }
+
+    /**
+     * Weights the critical path of a task by the observed duration of the tasks on the path, a moving average of
+     * the execution time of each task is recorded. By default every service on the path has equal weight.
+     *
+     * @param weightByDuration flag controlling duration weighting of the critical path
+     * @return this {@link FluxtionServiceManager}
+     */
+    public FluxtionServiceManager weightCriticalPathByTaskDuration(boolean weightByDuration) {
+        taskPrioritiser.weightByDuration(weightByDuration);
+        return this;
+    }
+
+    /**
+     * The {@link ServiceManager} notified when a task completes, by default this instance. A wrapping
+     * {@link ServiceManager} that serialises access to this instance routes task notifications through itself, and
+     * supplies the executor that runs task failures on the thread that owns the graph.
+     *
+     * @param notificationTarget the target of task notifications
+     * @param graphExecutor      runs graph operations triggered from task and timer threads on the graph owner thread
+     */
+    void notificationTarget(ServiceManager notificationTarget, Executor graphExecutor) {
+        this.notificationTarget = Objects.requireNonNull(notificationTarget);
+        this.graphExecutor = Objects.requireNonNull(graphExecutor);
+    }
+
     public FluxtionServiceManager compiled(boolean compile) {
         this.compile = compile;
         return this;
     }
 
-    private void addServicesToMap(Service s) {
-        ForwardPassServiceController forwardPassServiceController = new ForwardPassServiceController(s.getName(), taskWrapperPublisher, serviceStatusRecordCache);
-        forwardPassServiceController.setStartTask(s.getStartTask());
-        forwardPassServiceController.setStopTask(s.getStopTask());
-        forwardPassServiceController.setWrappedInstance(s.getWrappedInstance());
-        ReversePassServiceController reversePassServiceController = new ReversePassServiceController(s.getName(), taskWrapperPublisher, serviceStatusRecordCache);
-        reversePassServiceController.setStartTask(s.getStartTask());
-        reversePassServiceController.setStopTask(s.getStopTask());
-        reversePassServiceController.setWrappedInstance(s.getWrappedInstance());
-        managedStartServices.put(forwardPassServiceController.getName(), forwardPassServiceController);
-        managedStartServices.put(reversePassServiceController.getName(), reversePassServiceController);
-    }
-
-    private void setServiceDependencies(Service service) {
-        ServiceController controller = managedStartServices.get(toStartServiceName(service.getName()));
-        controller.setDependents(
-                service.getServiceListThatRequireMe().stream()
-                        .map(Service::getName)
-                        .map(FluxtionServiceManager::toStartServiceName)
-                        .map(managedStartServices::get)
-                        .collect(Collectors.toList())
-        );
-        //assign dependencies
-        final ServiceController startController = controller;
-        service.getRequiredServiceList().stream()
-                .map(Service::getName)
-                .map(FluxtionServiceManager::toStartServiceName)
-                .map(managedStartServices::get)
-                .forEach(s -> s.addDependent(startController));
-
-
-        //reverse controller
-        controller = managedStartServices.get(toStopServiceName(service.getName()));
-        final ServiceController stopController = controller;
-        service.getRequiredServiceList().stream()
-                .map(Service::getName)
-                .map(FluxtionServiceManager::toStopServiceName)
-                .map(managedStartServices::get)
-                .forEach(stopController::addDependent);
-
-
-        //
-        service.getServiceListThatRequireMe().stream()
-                .map(Service::getName)
-                .map(FluxtionServiceManager::toStopServiceName)
-                .map(managedStartServices::get)
-                .forEach(s -> s.addDependent(stopController));
+    /**
+     * Tiered execution of a compiled graph, the build serves requests from an interpreted processor while the processor
+     * is compiled on a background thread. The compiled processor is swapped in atomically once it is loaded, the live
+     * service status, listeners and task executor carry over, see {@link #compiledProcessorReady()}. Must be called
+     * before the graph is built, has no effect on interpreted graphs.
+     *
+     * @param tieredCompilation flag enabling tiered execution
+     * @return this {@link FluxtionServiceManager}
+     */
+    public FluxtionServiceManager tieredCompilation(boolean tieredCompilation) {
+        this.tieredCompilation = tieredCompilation;
+        return this;
+    }
+
+    /**
+     * Caches compiled processors in a local directory keyed by a hash of the generated processor source. A later
+     * compiled build generating the same source, in this or another process, loads the cached classes instead of
+     * compiling the processor. Must be called before the graph is built, has no effect on interpreted graphs.
+     *
+     * @param cacheDirectory the cache directory, created if absent, null disables the cache
+     * @return this {@link FluxtionServiceManager}
+     */
+    public FluxtionServiceManager processorCacheDirectory(Path cacheDirectory) {
+        this.processorCache = cacheDirectory == null ? null : new ProcessorCache(cacheDirectory);
+        return this;
+    }
+
+    Collection<ServiceController> managedControllers() {
+        return serviceGraph.controllers();
+    }
+
+    /**
+     * @param controllerName the name of the controller node
+     * @return the controller node in the running processor
+     * @throws NoSuchFieldException if the running processor has no controller with the name
+     */
+    ServiceController liveController(String controllerName) throws NoSuchFieldException {
+        ServiceController controller = interpreted ? serviceGraph.controller(controllerName) : null;
+        return controller != null ? controller : startProcessor.getNodeById(controllerName);
+    }
+
+    /**
+     * @return the event processor serving requests
+     */
+    EventProcessor liveProcessor() {
+        return startProcessor.getDelegate();
+    }
+
+    /**
+     * Runs a graph operation, operations invoked re-entrantly while an operation is running on this thread, such as a
+     * notification from a task executed synchronously, are queued and run iteratively once the current operation
+     * completes. The stack depth is constant regardless of the length of a notification chain.
+     * <p>
+     * An operation that throws does not discard the operations queued behind it, the queue is always drained. The
+     * first failure is rethrown once the queue is empty, later failures are logged and added as suppressed exceptions.
+     *
+     * @param operation the graph operation to run
+     */
+    private void dispatch(Runnable operation) {
+        Trampoline trampoline = trampolines.get();
+        if (trampoline.running) {
+            trampoline.deferred.add(operation);
+            return;
+        }
+        trampoline.running = true;
+        Throwable failure = null;
+        try {
+            Runnable nextOperation = operation;
+            while (nextOperation != null) {
+                try {
+                    nextOperation.run();
+                } catch (RuntimeException | Error e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        log.error("graph operation failed while draining queued operations", e);
+                        failure.addSuppressed(e);
+                    }
+                }
+                nextOperation = trampoline.deferred.poll();
+            }
+        } finally {
+            trampoline.running = false;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw (RuntimeException) failure;
+        }
     }
 
     private void serviceStarter(EventProcessorConfig cfg) {
-        managedStartServices.values().forEach(cfg::addNode);
-        cfg.addNode(taskWrapperPublisher);
+        serviceStarter(serviceGraph, cfg);
+        cfg.addNode(serviceGraph.getSplicedServiceControllers());
+    }
+
+    private void serviceStarter(ServiceGraph graph, EventProcessorConfig cfg) {
+        graph.controllers().forEach(cfg::addNode);
+        cfg.addNode(graph.getTaskWrapperPublisher());
+        auditorMap.forEach((name, auditor) -> cfg.addAuditor(auditor, name));
         if (addAudit) {
             cfg.addEventAudit(EventLogControlEvent.LogLevel.INFO);
         }
     }
 
-    private void preBuild(Service... serviceList) {
+    private ServiceGraph preBuild(Service... serviceList) {
         Objects.requireNonNull(serviceList);
-        managedStartServices.clear();
-        Arrays.stream(serviceList).forEach(this::addServicesToMap);//change to recursive lookup
-        Arrays.stream(serviceList).forEach(this::setServiceDependencies);//use the recursive list here
+        loadedProcessor = false;
+        return new ServiceGraph(serviceList);
     }
 
     private void postBuild(Service... serviceToAdd) {
@@ -388,16 +1043,48 @@ public class FluxtionServiceManager implements ServiceManager, ServiceQuery {
             }
         }
         startProcessor.onEvent(new RegisterCommandProcessor(taskExecutor));
+        taskPrioritiser.topologyChanged(managedControllers());
+        try {
+            liveStatusCache = startProcessor.getNodeById(serviceGraph.getServiceStatusRecordCache().getName());
+        } catch (NoSuchFieldException e) {
+            log.warn("no status cache in processor, status queries use the local cache", e);
+            liveStatusCache = serviceGraph.getServiceStatusRecordCache();
+        }
+        liveStatusCache.publishSnapshot();
+    }
+
+    @Override
+    public Service.Status serviceStatus(String serviceName) {
+        return liveStatusCache.getStatusSnapshot().getStatus(serviceName);
+    }
+
+    @Override
+    public int serviceCount(Service.Status status) {
+        return liveStatusCache.getStatusSnapshot().getCount(status);
+    }
+
+    @Override
+    public List<ServiceStatusRecord> serviceStatusSnapshot() {
+        return liveStatusCache.getStatusSnapshot().getStatusList();
     }
 
     @Override
     public void startOrder(Consumer<ServiceOrderRecord<?>> serviceConsumer) {
-        startProcessor.getExportedService(ServiceQuery.class).startOrder(serviceConsumer);
+        if (interpreted && serviceGraph.isSpliced()) {
+            //spliced controllers are not part of the exported service of the processor
+            startProcessor.updateNodes(() -> serviceGraph.startOrder(serviceConsumer));
+        } else {
+            startProcessor.getExportedService(ServiceQuery.class).startOrder(serviceConsumer);
+        }
     }
 
     @Override
     public void stopOrder(Consumer<ServiceOrderRecord<?>> serviceConsumer) {
-        startProcessor.getExportedService(ServiceQuery.class).stopOrder(serviceConsumer);
+        if (interpreted && serviceGraph.isSpliced()) {
+            startProcessor.updateNodes(() -> serviceGraph.stopOrder(serviceConsumer));
+        } else {
+            startProcessor.getExportedService(ServiceQuery.class).stopOrder(serviceConsumer);
+        }
     }
 
     @Value
@@ -410,9 +1097,43 @@ public class FluxtionServiceManager implements ServiceManager, ServiceQuery {
         Consumer<List<ServiceStatusRecord>> statusListener;
     }
 
+    @Value
+    public static class RegisterStatusChangeListener {
+        Consumer<List<ServiceStatusChange>> statusChangeListener;
+    }
+
+    private static class Trampoline {
+        private final ArrayDeque<Runnable> deferred = new ArrayDeque<>();
+        private boolean running;
+    }
+
     @Value
     static class SynchronizedEventProcessor implements EventProcessor {
-        EventProcessor delegate;
+        @NonFinal
+        volatile EventProcessor delegate;
+
+        /**
+         * Replaces the delegate, no event is processed while the state of the current delegate is transferred to the
+         * new delegate.
+         *
+         * @param newDelegate   the new delegate
+         * @param stateTransfer transfers the state of the current delegate to the new delegate
+         */
+        @Synchronized
+        void swapDelegate(EventProcessor newDelegate, BiConsumer<EventProcessor, EventProcessor> stateTransfer) {
+            stateTransfer.accept(delegate, newDelegate);
+            delegate = newDelegate;
+        }
+
+        /**
+         * Changes the nodes of the delegate, no event is processed while the nodes are changed.
+         *
+         * @param nodeUpdate the change to the nodes
+         */
+        @Synchronized
+        void updateNodes(Runnable nodeUpdate) {
+            nodeUpdate.run();
+        }
 
         @Override
         @Synchronized
@@ -436,12 +1157,17 @@ public class FluxtionServiceManager implements ServiceManager, ServiceQuery {
         public <T> T getExportedService(Class<T> exportedServiceClass) {
             return delegate.getExportedService(exportedServiceClass);
         }
+
+        @Override
+        public <T> T getNodeById(String id) throws NoSuchFieldException {
+            return delegate.getNodeById(id);
+        }
     }
 
 
     class DelegatingTaskExecutor implements TaskWrapper.TaskExecutor {
         private transient final List<TaskWrapper> tasks = new ArrayList<>();
-        private TaskWrapper.TaskExecutor delegate;
+        private volatile TaskWrapper.TaskExecutor delegate;
         private boolean triggerNotificationOnSuccessfulTaskExecution = false;
         private boolean triggerNotificationAfterTaskExecution = false;
         private boolean failFastFlag = true;
@@ -476,15 +1202,90 @@ public class FluxtionServiceManager implements ServiceManager, ServiceQuery {
         @Override
         public void accept(List<TaskWrapper> taskWrappers) {
             tasks.clear();
-            if (triggerNotificationOnSuccessfulTaskExecution) {
-                tasks.addAll(
-                        taskWrappers.stream()
-                                .map(t -> new NotifyOnSuccessTaskWrapper(t, FluxtionServiceManager.this, triggerNotificationAfterTaskExecution))
-                                .collect(Collectors.toList())
-                );
+            List<TaskWrapper> orderedTasks = new ArrayList<>(taskWrappers);
+            if (prioritiseCriticalPath) {
+                taskPrioritiser.prioritise(orderedTasks);
+            }
+            for (TaskWrapper taskWrapper : orderedTasks) {
+                tasks.add(wrapTask(taskWrapper, 1));
+            }
+        }
+
+        private TaskWrapper wrapTask(TaskWrapper task, int attempt) {
+            Consumer<TaskWrapper.TaskExecutionResult> failureHandler = result -> taskAttemptFailed(task, attempt, result);
+            if (task.isAsync()) {
+                return new AsyncTaskWrapper(task, notificationTarget, triggerNotificationAfterTaskExecution, timeoutWheel,
+                        failureHandler, taskPrioritiser.isWeightByDuration() ? taskPrioritiser : null);
+            }
+            if (triggerNotificationAfterTaskExecution) {
+                //an ignored exception notifies the service as started or stopped, only a timeout fails the service
+                Consumer<TaskWrapper.TaskExecutionResult> timeoutHandler = failureHandler;
+                failureHandler = result -> {
+                    if (result.getException() instanceof TimeoutException) {
+                        timeoutHandler.accept(result);
+                    }
+                };
+            }
+            TaskWrapper wrappedTask = task;
+            if (taskPrioritiser.isWeightByDuration()) {
+                wrappedTask = new RecordDurationTaskWrapper(wrappedTask, taskPrioritiser);
+            }
+            if (task.getTimeoutMillis() > 0) {
+                wrappedTask = new TimeoutTaskWrapper(wrappedTask, timeoutWheel, failureHandler);
             } else {
-                tasks.addAll(taskWrappers);
+                wrappedTask = new ReportFailureTaskWrapper(wrappedTask, failureHandler);
+            }
+            if (triggerNotificationOnSuccessfulTaskExecution) {
+                wrappedTask = new NotifyOnSuccessTaskWrapper(wrappedTask, notificationTarget, triggerNotificationAfterTaskExecution);
+            }
+            return wrappedTask;
+        }
+
+        /**
+         * A failed start task with a {@link RetryPolicy} and attempts remaining is rescheduled after the backoff, the
+         * timing wheel only measures the backoff and no executor thread is blocked while waiting. Otherwise the
+         * failure is routed into the graph.
+         */
+        private void taskAttemptFailed(TaskWrapper task, int attempt, TaskWrapper.TaskExecutionResult result) {
+            RetryPolicy retryPolicy = task.isStartTask() ? serviceGraph.retryPolicy(task.getServiceName()) : null;
+            if (retryPolicy != null && attempt < retryPolicy.getMaxAttempts()) {
+                long backoffNanos = retryPolicy.backoffNanos(attempt);
+                log.info("start task failed attempt:{} service:'{}', retrying in {}ms",
+                        attempt, task.getServiceName(), backoffNanos / 1_000_000);
+                try {
+                    timeoutWheel.schedule(() -> submitRetry(task, attempt + 1), backoffNanos);
+                    return;
+                } catch (IllegalStateException e) {
+                    log.warn("cannot schedule retry, service manager has shutdown", e);
+                }
+            }
+            taskFailed(result.withAttempts(attempt));
+        }
+
+        /**
+         * Hands a retry from the timing wheel thread to the graph owner thread when a graph executor is registered,
+         * otherwise to a retry thread. The retry never runs on the timing wheel, a synchronous task executor would
+         * otherwise block every pending timeout and backoff, including the timeout of the retried task.
+         */
+        private void submitRetry(TaskWrapper task, int attempt) {
+            try {
+                (graphExecutor == null ? retryExecutor : graphExecutor).execute(() -> retryTask(task, attempt));
+            } catch (RejectedExecutionException | IllegalStateException e) {
+                log.warn("cannot retry start task, service manager has shutdown service:'{}'", task.getServiceName(), e);
+            }
+        }
+
+        /**
+         * Executes a retry if the service is still starting, a service that has been stopped in the meantime is not
+         * retried. A synchronous task executor runs the retry on the calling thread.
+         */
+        private void retryTask(TaskWrapper task, int attempt) {
+            if (serviceStatus(task.getServiceName()) != Service.Status.STARTING) {
+                log.info("service no longer starting, cancelling retry service:'{}'", task.getServiceName());
+                return;
             }
+            log.info("retrying start task attempt:{} service:'{}'", attempt, task.getServiceName());
+            delegate.accept(Collections.singletonList(wrapTask(task, attempt)));
         }
 
         public void publishTasksToDelegate() {
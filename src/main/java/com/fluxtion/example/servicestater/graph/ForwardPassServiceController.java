@@ -56,7 +56,15 @@ public class ForwardPassServiceController extends ServiceController {
         return startServiceRequest();
     }
 
+    @OnEventHandler
+    public boolean startServices(GraphEvent.RequestServicesStart startServices) {
+        return startServices.getServiceNames().contains(getServiceName()) && startServiceRequest();
+    }
+
     private boolean startServiceRequest() {
+        if (isDetached()) {
+            return false;
+        }
         boolean changed = false;
         Service.Status startStatus = getStatus();
         auditLog.info("nullStatus", startStatus == null);
@@ -67,7 +75,8 @@ public class ForwardPassServiceController extends ServiceController {
             case STATUS_UNKNOWN:
             case WAITING_FOR_PARENTS_TO_STOP:
             case STOPPING:
-            case STOPPED:{
+            case STOPPED:
+            case FAILED:{
                 setStatus(Service.Status.WAITING_FOR_PARENTS_TO_START);
                 changed = true;
             }
@@ -81,10 +90,14 @@ public class ForwardPassServiceController extends ServiceController {
 
     @OnEventHandler(propagate = false)
     public boolean publishStartTasks(PublishStopTask publishStartTask) {
-        if (getStatus() == Service.Status.WAITING_FOR_PARENTS_TO_STOP && (!hasParents() || areAllParentsStopped())) {
+        stopIfParentsStopped();
+        return false;
+    }
+
+    void stopIfParentsStopped() {
+        if (!isDetached() && getStatus() == Service.Status.WAITING_FOR_PARENTS_TO_STOP && (!hasParents() || areAllParentsStopped())) {
             stopService();
         }
-        return false;
     }
 
     @Override
@@ -95,23 +108,41 @@ public class ForwardPassServiceController extends ServiceController {
 
     @OnEventHandler(filterVariable = "serviceName")
     public boolean notifyServiceStopped(GraphEvent.NotifyServiceStopped statusUpdate) {
-        boolean changed = getStatus() != Service.Status.STOPPED;
+        return serviceStopped();
+    }
+
+    @OnEventHandler
+    public boolean notifyServicesStopped(GraphEvent.NotifyServicesStopped statusUpdate) {
+        return statusUpdate.getServiceNames().contains(getServiceName()) && serviceStopped();
+    }
+
+    private boolean serviceStopped() {
+        boolean changed = !isDetached() && getStatus() != Service.Status.STOPPED;
         if (changed) {
             setStatus(Service.Status.STOPPED);
         }
         return changed;
     }
 
+    /**
+     * Recalculates the status of this service when a parent has changed.
+     *
+     * @return flag indicating the status of this service has changed and children should be notified
+     */
     @OnTrigger
     public boolean recalculateStatusForStart() {
-        if (getStatus() == Service.Status.WAITING_FOR_PARENTS_TO_STOP &&  areAllParentsStopped() ) {
+        if (isDetached()) {
+            return false;
+        }
+        Service.Status status = getStatus();
+        if (status == Service.Status.WAITING_FOR_PARENTS_TO_STOP && areAllParentsStopped()) {
             stopService();
             return true;
-        }else if(getStatus() != STARTED && getParentStatusSet().contains(WAITING_FOR_PARENTS_TO_START)){
+        } else if (status != STARTED && status != WAITING_FOR_PARENTS_TO_START && anyParentHasStatus(WAITING_FOR_PARENTS_TO_START)) {
             setStatus(WAITING_FOR_PARENTS_TO_START);
             return true;
         }
-        return true;
+        return false;
     }
 
 
@@ -16,12 +16,20 @@
 
 package com.fluxtion.example.servicestater.graph;
 
+import com.fluxtion.example.servicestater.DependentFailurePolicy;
 import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.TaskWrapper;
 import com.fluxtion.runtime.event.Event;
 import com.fluxtion.runtime.node.NamedNode;
 import lombok.Getter;
 import lombok.ToString;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * A collection of events that are used within the graph
  */
@@ -82,6 +90,103 @@ public interface GraphEvent {
         }
     }
 
+    /**
+     * Requests the start of a set of services and their dependencies in a single cycle
+     */
+    @Getter
+    @ToString
+    class RequestServicesStart {
+        private final Set<String> serviceNames;
+
+        public RequestServicesStart(Collection<String> serviceNames) {
+            this.serviceNames = new HashSet<>(serviceNames);
+        }
+    }
+
+    /**
+     * Requests the stop of a set of services and their dependencies in a single cycle
+     */
+    @Getter
+    @ToString
+    class RequestServicesStop {
+        private final Set<String> serviceNames;
+
+        public RequestServicesStop(Collection<String> serviceNames) {
+            this.serviceNames = new HashSet<>(serviceNames);
+        }
+    }
+
+    /**
+     * Notifies a set of services have started, processed by the service controllers in a single cycle
+     */
+    @Getter
+    @ToString
+    class NotifyServicesStarted {
+        private final Set<String> serviceNames;
+
+        public NotifyServicesStarted(Collection<String> serviceNames) {
+            this.serviceNames = new HashSet<>(serviceNames);
+        }
+    }
+
+    /**
+     * Notifies a set of services have stopped, processed by the service controllers in a single cycle
+     */
+    @Getter
+    @ToString
+    class NotifyServicesStopped {
+        private final Set<String> serviceNames;
+
+        public NotifyServicesStopped(Collection<String> serviceNames) {
+            this.serviceNames = new HashSet<>(serviceNames);
+        }
+    }
+
+    /**
+     * Registers a future that is completed when a service reaches a target status
+     */
+    @Getter
+    @ToString
+    class RegisterStatusWaiter {
+        private final String serviceName;
+        private final Service.Status targetStatus;
+        @ToString.Exclude
+        private final CompletableFuture<Void> future;
+
+        public RegisterStatusWaiter(String serviceName, Service.Status targetStatus, CompletableFuture<Void> future) {
+            this.serviceName = serviceName;
+            this.targetStatus = targetStatus;
+            this.future = future;
+        }
+    }
+
+    /**
+     * The results of start or stop tasks that have failed, all the failures reported since the last graph cycle are
+     * processed in a single cycle
+     */
+    @Getter
+    @ToString
+    class TasksFailed {
+        private final List<TaskWrapper.TaskExecutionResult> taskExecutionResults;
+
+        public TasksFailed(List<TaskWrapper.TaskExecutionResult> taskExecutionResults) {
+            this.taskExecutionResults = taskExecutionResults;
+        }
+    }
+
+    /**
+     * Sets the {@link DependentFailurePolicy} applied when a service moves to FAILED
+     */
+    @Getter
+    @ToString
+    class SetDependentFailurePolicy {
+        private final DependentFailurePolicy dependentFailurePolicy;
+
+        public SetDependentFailurePolicy(DependentFailurePolicy dependentFailurePolicy) {
+            this.dependentFailurePolicy = dependentFailurePolicy;
+        }
+    }
+
     @Getter
     @ToString(callSuper = true)
     class RegisterWrappedInstance extends FilteredGraphEvent {
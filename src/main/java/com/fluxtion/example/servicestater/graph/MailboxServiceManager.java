@@ -0,0 +1,428 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.DependentFailurePolicy;
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import com.fluxtion.example.servicestater.ServiceOrderRecord;
+import com.fluxtion.example.servicestater.ServiceStatusChange;
+import com.fluxtion.example.servicestater.ServiceStatusRecord;
+import com.fluxtion.example.servicestater.TaskWrapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A single writer {@link ServiceManager}, every method call is converted to a command and offered to a lock-free
+ * multi-producer queue. A single owner thread drains the queue and applies the commands to the wrapped
+ * {@link ServiceManager}, callers never block on the graph except to add or remove services.
+ * <p>
+ * The owner thread drains all the queued commands in a batch, consecutive start or stop notifications are merged and
+ * applied with {@link ServiceManager#serviceStarted(Collection)} or {@link ServiceManager#serviceStopped(Collection)}.
+ * When the queue is empty the owner thread parks until a producer offers a new command.
+ * <p>
+ * Adding or removing services blocks the caller until the change queued in the mailbox is serving requests, the
+ * asynchronous variants return a future instead.
+ * <p>
+ * A failure executing a command is returned to the caller. The future of an asynchronous command completes
+ * exceptionally. Configuration, listener registration and service order queries wait for the owner thread to execute
+ * them and rethrow the failure, called from the owner thread they run directly. Start and stop requests and
+ * notifications never block the caller, a failure is logged and the asynchronous variants report it.
+ * <p>
+ * Task notifications and task failures from a wrapped {@link FluxtionServiceManager} are routed through the mailbox,
+ * so task, timeout and retry threads never run a graph cycle and do not contend with the owner thread. Status queries
+ * read the status snapshot of the wrapped {@link ServiceManager} directly.
+ */
+@Slf4j
+public class MailboxServiceManager implements ServiceManager {
+
+    private static final LongAdder COUNT = new LongAdder();
+    private final Queue<Consumer<ServiceManager>> mailbox = new ConcurrentLinkedQueue<>();
+    private final ServiceManager serviceManager;
+    private final Thread ownerThread;
+    private final List<String> startedNotifications = new ArrayList<>();
+    private final List<String> stoppedNotifications = new ArrayList<>();
+    private volatile boolean running = true;
+    private volatile boolean parked = false;
+
+    public MailboxServiceManager(ServiceManager serviceManager) {
+        this.serviceManager = serviceManager;
+        if (serviceManager instanceof FluxtionServiceManager) {
+            ((FluxtionServiceManager) serviceManager).notificationTarget(this, graphOperation -> submit(s -> graphOperation.run()));
+        }
+        ownerThread = new Thread(this::drainMailbox, "serviceManagerMailbox-" + COUNT.intValue());
+        COUNT.increment();
+        ownerThread.setDaemon(true);
+        ownerThread.start();
+    }
+
+    private void submit(Consumer<ServiceManager> command) {
+        if (!running) {
+            throw new IllegalStateException("service manager mailbox has been shutdown");
+        }
+        mailbox.offer(command);
+        if (parked) {
+            LockSupport.unpark(ownerThread);
+        }
+    }
+
+    private void drainMailbox() {
+        while (running || !mailbox.isEmpty()) {
+            Consumer<ServiceManager> command = mailbox.poll();
+            if (command == null) {
+                flushNotifications();
+                parked = true;
+                if (running && mailbox.isEmpty()) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+            } else if (command instanceof StartedNotification) {
+                if (!stoppedNotifications.isEmpty()) {
+                    flushNotifications();
+                }
+                startedNotifications.add(((StartedNotification) command).serviceName);
+            } else if (command instanceof StoppedNotification) {
+                if (!startedNotifications.isEmpty()) {
+                    flushNotifications();
+                }
+                stoppedNotifications.add(((StoppedNotification) command).serviceName);
+            } else {
+                flushNotifications();
+                execute(command);
+            }
+        }
+        flushNotifications();
+        log.info("mailbox drained, owner thread exiting");
+    }
+
+    private void flushNotifications() {
+        if (!startedNotifications.isEmpty()) {
+            List<String> serviceNames = new ArrayList<>(startedNotifications);
+            startedNotifications.clear();
+            execute(s -> s.serviceStarted(serviceNames));
+        }
+        if (!stoppedNotifications.isEmpty()) {
+            List<String> serviceNames = new ArrayList<>(stoppedNotifications);
+            stoppedNotifications.clear();
+            execute(s -> s.serviceStopped(serviceNames));
+        }
+    }
+
+    /**
+     * Queues a command whose future completes once the owner thread has executed it, exceptionally if the command
+     * fails.
+     */
+    private CompletableFuture<Void> submitWithResult(Consumer<ServiceManager> command) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        submit(s -> {
+            try {
+                command.accept(s);
+                future.complete(null);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Executes a command before returning, the failure of the command is rethrown. A caller on the owner thread runs
+     * the command directly, any other caller waits for the owner thread to execute the queued command.
+     */
+    private void submitAndWait(Consumer<ServiceManager> command) {
+        if (Thread.currentThread() == ownerThread) {
+            command.accept(serviceManager);
+            return;
+        }
+        FluxtionServiceManager.join(submitWithResult(command));
+    }
+
+    private void execute(Consumer<ServiceManager> command) {
+        try {
+            command.accept(serviceManager);
+        } catch (Throwable t) {
+            log.error("problem executing service manager command", t);
+        }
+    }
+
+    @Override
+    public void startService(String serviceName) {
+        submit(s -> s.startService(serviceName));
+    }
+
+    @Override
+    public void stopService(String serviceName) {
+        submit(s -> s.stopService(serviceName));
+    }
+
+    @Override
+    public CompletableFuture<Void> startServiceAsync(String serviceName) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        submit(s -> relayResult(() -> s.startServiceAsync(serviceName), future));
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Void> stopServiceAsync(String serviceName) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        submit(s -> relayResult(() -> s.stopServiceAsync(serviceName), future));
+        return future;
+    }
+
+    private static void relay(CompletableFuture<Void> source, CompletableFuture<Void> target) {
+        source.whenComplete((result, exception) -> {
+            if (exception == null) {
+                target.complete(result);
+            } else {
+                target.completeExceptionally(exception);
+            }
+        });
+    }
+
+    @Override
+    public void startServices(Collection<String> serviceNames) {
+        List<String> names = new ArrayList<>(serviceNames);
+        submit(s -> s.startServices(names));
+    }
+
+    @Override
+    public void stopServices(Collection<String> serviceNames) {
+        List<String> names = new ArrayList<>(serviceNames);
+        submit(s -> s.stopServices(names));
+    }
+
+    @Override
+    public void serviceStarted(String serviceName) {
+        submit(new StartedNotification(serviceName));
+    }
+
+    @Override
+    public void serviceStopped(String serviceName) {
+        submit(new StoppedNotification(serviceName));
+    }
+
+    @Override
+    public void serviceStarted(Collection<String> serviceNames) {
+        List<String> names = new ArrayList<>(serviceNames);
+        submit(s -> s.serviceStarted(names));
+    }
+
+    @Override
+    public void serviceStopped(Collection<String> serviceNames) {
+        List<String> names = new ArrayList<>(serviceNames);
+        submit(s -> s.serviceStopped(names));
+    }
+
+    @Override
+    public void startAllServices() {
+        submit(ServiceManager::startAllServices);
+    }
+
+    @Override
+    public void stopAllServices() {
+        submit(ServiceManager::stopAllServices);
+    }
+
+    @Override
+    public void failFastOnTaskException(boolean failFastFlag) {
+        submitAndWait(s -> s.failFastOnTaskException(failFastFlag));
+    }
+
+    @Override
+    public void dependentFailurePolicy(DependentFailurePolicy dependentFailurePolicy) {
+        submitAndWait(s -> s.dependentFailurePolicy(dependentFailurePolicy));
+    }
+
+    @Override
+    public void publishSystemStatus() {
+        submit(ServiceManager::publishSystemStatus);
+    }
+
+    @Override
+    public void bindObjectToService(String serviceName, Object objectToBind) {
+        submitAndWait(s -> s.bindObjectToService(serviceName, objectToBind));
+    }
+
+    @Override
+    public ServiceManager addService(Service... serviceList) {
+        awaitGraphChange(addServiceAsync(serviceList));
+        return this;
+    }
+
+    @Override
+    public CompletableFuture<Void> addServiceAsync(Service... serviceList) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        submit(s -> relayResult(() -> s.addServiceAsync(serviceList), future));
+        return future;
+    }
+
+    @Override
+    public ServiceManager removeService(String... servicesToRemove) {
+        awaitGraphChange(removeServiceAsync(servicesToRemove));
+        return this;
+    }
+
+    @Override
+    public CompletableFuture<Void> removeServiceAsync(String... servicesToRemove) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        submit(s -> relayResult(() -> s.removeServiceAsync(servicesToRemove), future));
+        return future;
+    }
+
+    private static void relayResult(Supplier<CompletableFuture<Void>> command, CompletableFuture<Void> target) {
+        try {
+            relay(command.get(), target);
+        } catch (RuntimeException e) {
+            target.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Blocks the caller until a graph change queued in the mailbox has completed, the owner thread cannot wait on a
+     * command it has not yet executed.
+     */
+    private void awaitGraphChange(CompletableFuture<Void> graphChange) {
+        if (Thread.currentThread() == ownerThread) {
+            throw new IllegalStateException(
+                    "cannot wait for a graph change on the mailbox thread, use addServiceAsync or removeServiceAsync");
+        }
+        FluxtionServiceManager.join(graphChange);
+    }
+
+    /**
+     * Executes all the commands queued before this call and then stops the owner thread.
+     */
+    @Override
+    public void shutdown() {
+        submit(ServiceManager::shutdown);
+        running = false;
+        LockSupport.unpark(ownerThread);
+        log.info("mailbox shutdown");
+    }
+
+    @Override
+    public void traceMethodCalls(boolean traceOn) {
+        submitAndWait(s -> s.traceMethodCalls(traceOn));
+    }
+
+    @Override
+    public void registerTaskExecutor(TaskWrapper.TaskExecutor commandProcessor) {
+        submitAndWait(s -> s.registerTaskExecutor(commandProcessor));
+    }
+
+    @Override
+    public void registerStatusListener(Consumer<List<ServiceStatusRecord>> statusUpdateListener) {
+        submitAndWait(s -> s.registerStatusListener(statusUpdateListener));
+    }
+
+    @Override
+    public void registerStatusChangeListener(Consumer<List<ServiceStatusChange>> statusChangeListener) {
+        submitAndWait(s -> s.registerStatusChangeListener(statusChangeListener));
+    }
+
+    @Override
+    public void triggerDependentsOnStartNotification(boolean triggerDependentsOnStart) {
+        submitAndWait(s -> s.triggerDependentsOnStartNotification(triggerDependentsOnStart));
+    }
+
+    @Override
+    public void triggerDependentsOnStopNotification(boolean triggerDependentsOnStop) {
+        submitAndWait(s -> s.triggerDependentsOnStopNotification(triggerDependentsOnStop));
+    }
+
+    @Override
+    public void triggerDependentsOnNotification(boolean triggerDependents) {
+        submitAndWait(s -> s.triggerDependentsOnNotification(triggerDependents));
+    }
+
+    @Override
+    public void triggerNotificationOnSuccessfulTaskExecution(boolean triggerNotificationOnSuccessfulTaskExecution) {
+        submitAndWait(s -> s.triggerNotificationOnSuccessfulTaskExecution(triggerNotificationOnSuccessfulTaskExecution));
+    }
+
+    @Override
+    public void triggerNotificationAfterTaskExecution(boolean triggerNotificationAfterTaskExecution) {
+        submitAndWait(s -> s.triggerNotificationAfterTaskExecution(triggerNotificationAfterTaskExecution));
+    }
+
+    @Override
+    public Service.Status serviceStatus(String serviceName) {
+        return serviceManager.serviceStatus(serviceName);
+    }
+
+    @Override
+    public int serviceCount(Service.Status status) {
+        return serviceManager.serviceCount(status);
+    }
+
+    @Override
+    public List<ServiceStatusRecord> serviceStatusSnapshot() {
+        return serviceManager.serviceStatusSnapshot();
+    }
+
+    /**
+     * The service consumer is invoked on the owner thread, the call returns once every service has been published.
+     */
+    @Override
+    public void startOrder(Consumer<ServiceOrderRecord<?>> serviceConsumer) {
+        submitAndWait(s -> s.startOrder(serviceConsumer));
+    }
+
+    /**
+     * The service consumer is invoked on the owner thread, the call returns once every service has been published.
+     */
+    @Override
+    public void stopOrder(Consumer<ServiceOrderRecord<?>> serviceConsumer) {
+        submitAndWait(s -> s.stopOrder(serviceConsumer));
+    }
+
+    private static class StartedNotification implements Consumer<ServiceManager> {
+        private final String serviceName;
+
+        private StartedNotification(String serviceName) {
+            this.serviceName = serviceName;
+        }
+
+        @Override
+        public void accept(ServiceManager serviceManager) {
+            serviceManager.serviceStarted(serviceName);
+        }
+    }
+
+    private static class StoppedNotification implements Consumer<ServiceManager> {
+        private final String serviceName;
+
+        private StoppedNotification(String serviceName) {
+            this.serviceName = serviceName;
+        }
+
+        @Override
+        public void accept(ServiceManager serviceManager) {
+            serviceManager.serviceStopped(serviceName);
+        }
+    }
+}
@@ -19,6 +19,8 @@ package com.fluxtion.example.servicestater.graph;
 import com.fluxtion.example.servicestater.ServiceManager;
 import com.fluxtion.example.servicestater.TaskWrapper;
 
+import java.util.concurrent.TimeoutException;
+
 /**
  * Wraps a {@link TaskWrapper} and if the task executes without exception notifies the {@link ServiceManager} that the service
  * has stopped or started with either:
@@ -27,24 +29,28 @@ import com.fluxtion.example.servicestater.TaskWrapper;
  *     <li>{@link ServiceManager#serviceStopped(String)}</li>
  * </ul>
  *
- * {@link TaskWrapper#isStartTask()} determines which notification to send to the {@link ServiceManager}
+ * {@link TaskWrapper#isStartTask()} determines which notification to send to the {@link ServiceManager}. A task that
+ * timed out never notifies, even when exceptions are ignored.
  */
 class NotifyOnSuccessTaskWrapper extends TaskWrapper {
+    private final TaskWrapper taskWrapper;
     private final ServiceManager serviceManager;
     private final boolean ignoreException;
 
     public NotifyOnSuccessTaskWrapper(TaskWrapper taskWrapper, ServiceManager serviceManager, boolean ignoreException) {
-        super(taskWrapper.getServiceName(), taskWrapper.isStartTask(), taskWrapper.getTask());
+        super(taskWrapper);
+        this.taskWrapper = taskWrapper;
         this.serviceManager = serviceManager;
         this.ignoreException = ignoreException;
     }
 
     @Override
     public TaskExecutionResult call() {
-        TaskExecutionResult result = super.call();
-        if ((ignoreException || result.isSuccess()) && isStartTask()) {
+        TaskExecutionResult result = taskWrapper.call();
+        boolean notify = result.isSuccess() || (ignoreException && !(result.getException() instanceof TimeoutException));
+        if (notify && isStartTask()) {
             serviceManager.serviceStarted(getServiceName());
-        } else if ((ignoreException || result.isSuccess()) && !isStartTask()) {
+        } else if (notify && !isStartTask()) {
             serviceManager.serviceStopped(getServiceName());
         }
         return result;
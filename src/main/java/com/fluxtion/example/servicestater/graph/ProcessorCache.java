@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.fluxtion.example.servicestater.graph;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An on disk cache of compiled processors keyed by a hash of the generated processor source. Each entry is a directory
+ * named by the hash holding the generated source and the class files of the processor, a cache hit skips compiling
+ * the source.
+ * <p>
+ * The hash covers the generated source and the versions of the cache format, Fluxtion and the service starter. The
+ * source holds everything the compiled classes depend on, including the state captured by a task such as the
+ * receiver of {@code new Db("urlA")::start}, so any graph the processor can be generated from is cached. Entries are
+ * written to a temporary directory and moved into place, a concurrent build of the same graph in another process never
+ * sees a partial entry. Cache read and write failures are logged and the processor is compiled as if the cache were
+ * absent.
+ */
+@Slf4j
+final class ProcessorCache {
+
+    static final int FORMAT_VERSION = 2;
+    private static final String CLASS_EXTENSION = ".class";
+    private final Path directory;
+
+    ProcessorCache(Path directory) {
+        this.directory = directory;
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the class files of the cached processor keyed by class name, or null if the graph is not cached
+     */
+    Map<String, byte[]> load(String sourceHash) {
+        Path entry = directory.resolve(sourceHash);
+        if (!Files.isDirectory(entry)) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(entry)) {
+            Map<String, byte[]> classBytes = new HashMap<>();
+            for (Path file : files.collect(Collectors.toList())) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(CLASS_EXTENSION)) {
+                    String className = fileName.substring(0, fileName.length() - CLASS_EXTENSION.length());
+                    classBytes.put(className, Files.readAllBytes(file));
+                }
+            }
+            return classBytes.isEmpty() ? null : classBytes;
+        } catch (IOException e) {
+            log.warn("unable to read cached processor {}", entry, e);
+            return null;
+        }
+    }
+
+    /**
+     * Removes an entry that cannot be loaded, so the recompiled processor replaces it.
+     */
+    void evict(String sourceHash) {
+        deleteQuietly(directory.resolve(sourceHash));
+    }
+
+    void store(String sourceHash, String fqn, String source, Map<String, byte[]> classBytes) {
+        Path entry = directory.resolve(sourceHash);
+        if (Files.isDirectory(entry)) {
+            return;
+        }
+        Path tempEntry = null;
+        try {
+            Files.createDirectories(directory);
+            tempEntry = Files.createTempDirectory(directory, sourceHash + ".tmp");
+            Files.write(tempEntry.resolve(fqn.substring(fqn.lastIndexOf('.') + 1) + ".java"), source.getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, byte[]> classFile : classBytes.entrySet()) {
+                Files.write(tempEntry.resolve(classFile.getKey() + CLASS_EXTENSION), classFile.getValue());
+            }
+            try {
+                Files.move(tempEntry, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempEntry, entry);
+            }
+            tempEntry = null;
+            log.info("cached compiled processor {}", entry);
+        } catch (FileAlreadyExistsException e) {
+            log.debug("processor cached by a concurrent build {}", entry);
+        } catch (IOException e) {
+            log.warn("unable to cache compiled processor {}", entry, e);
+        } finally {
+            deleteQuietly(tempEntry);
+        }
+    }
+
+    /**
+     * A stable hash of the generated source and the libraries it is compiled against, identical sources generated in
+     * different processes have the same hash.
+     *
+     * @param source the generated processor source
+     * @return the hash
+     */
+    static String sourceHash(String source) {
+        String key = "format:" + FORMAT_VERSION
+                + "\nfluxtion:" + version(com.fluxtion.runtime.EventProcessor.class)
+                + "\nservicestarter:" + version(FluxtionServiceManager.class)
+                + "\n" + source;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hash = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                hash.append(String.format("%02x", digest[i]));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The implementation version of the class, or the modification time of the class file when the jar has no version
+     * so a rebuilt library does not load processors generated against an earlier build.
+     */
+    private static String version(Class<?> clazz) {
+        String version = clazz.getPackage().getImplementationVersion();
+        if (version != null) {
+            return version;
+        }
+        try {
+            URL classFile = clazz.getResource(clazz.getSimpleName() + CLASS_EXTENSION);
+            return classFile == null ? "unknown" : Long.toString(classFile.openConnection().getLastModified());
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.debug("unable to delete {}", path, e);
+        }
+    }
+}
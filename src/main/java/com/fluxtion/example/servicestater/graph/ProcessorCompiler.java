@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.compiler.EventProcessorConfig;
+import com.fluxtion.compiler.Fluxtion;
+import com.fluxtion.runtime.EventProcessor;
+import com.fluxtion.runtime.partition.LambdaReflection.SerializableConsumer;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Builds a compiled event processor in separate steps, so each step can be timed and the intermediate results reused:
+ * <ol>
+ *     <li>{@link #generateSource(SerializableConsumer, String, String)} - generates the processor source with Fluxtion</li>
+ *     <li>{@link #compile(String, String)} - compiles the source in memory to class files</li>
+ *     <li>{@link #newProcessor(String, Map)} - defines the classes in a new class loader and instantiates the processor</li>
+ * </ol>
+ * The compiler uses the classpath of the JVM, or the FLUXTION.GENERATION.CLASSPATH system property when set.
+ */
+@Slf4j
+final class ProcessorCompiler {
+
+    static final String CLASSPATH_PROPERTY = "FLUXTION.GENERATION.CLASSPATH";
+
+    private ProcessorCompiler() {
+    }
+
+    static String generateSource(SerializableConsumer<EventProcessorConfig> builder, String packageName, String className) {
+        StringWriter sourceWriter = new StringWriter();
+        Fluxtion.compile(builder, compilerCfg -> {
+            compilerCfg.setPackageName(packageName);
+            compilerCfg.setClassName(className);
+            compilerCfg.setCompileSource(false);
+            compilerCfg.setWriteSourceToFile(false);
+            compilerCfg.setFormatSource(false);
+            compilerCfg.setGenerateDescription(false);
+            compilerCfg.setSourceWriter(sourceWriter);
+        });
+        return sourceWriter.toString();
+    }
+
+    /**
+     * @param fqn    the fully qualified name of the generated processor
+     * @param source the generated source
+     * @return the class files of the compiled source keyed by class name
+     */
+    static Map<String, byte[]> compile(String fqn, String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("no system java compiler available, compiled processors require a JDK");
+        }
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, ByteArrayOutputStream> classFiles = new HashMap<>();
+        List<String> options = new ArrayList<>();
+        String classpath = System.getProperty(CLASSPATH_PROPERTY);
+        if (classpath != null) {
+            options.add("-classpath");
+            options.add(classpath);
+        }
+        try (JavaFileManager fileManager = new ForwardingJavaFileManager<JavaFileManager>(
+                compiler.getStandardFileManager(diagnostics, null, null)) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("bytes:///" + className.replace('.', '/') + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        return classFiles.computeIfAbsent(className, name -> new ByteArrayOutputStream());
+                    }
+                };
+            }
+        }) {
+            JavaFileObject sourceFile = new SimpleJavaFileObject(
+                    URI.create("string:///" + fqn.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return source;
+                }
+            };
+            boolean compiled = compiler.getTask(null, fileManager, diagnostics, options, null, Collections.singletonList(sourceFile)).call();
+            if (!compiled) {
+                String errors = diagnostics.getDiagnostics().stream()
+                        .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                        .map(d -> "line " + d.getLineNumber() + ": " + d.getMessage(null))
+                        .collect(Collectors.joining("\n"));
+                throw new IllegalStateException("unable to compile processor '" + fqn + "'\n" + errors);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("unable to compile processor '" + fqn + "'", e);
+        }
+        Map<String, byte[]> classBytes = new HashMap<>();
+        classFiles.forEach((name, bytes) -> classBytes.put(name, bytes.toByteArray()));
+        return classBytes;
+    }
+
+    /**
+     * Defines the classes in a new class loader and creates an instance of the processor.
+     *
+     * @param fqn        the fully qualified name of the generated processor
+     * @param classBytes the class files of the processor
+     * @return a new processor instance
+     */
+    static EventProcessor newProcessor(String fqn, Map<String, byte[]> classBytes) {
+        try {
+            ClassLoader classLoader = new ProcessorClassLoader(classBytes, FluxtionServiceManager.class.getClassLoader());
+            return (EventProcessor) classLoader.loadClass(fqn).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("unable to instantiate processor '" + fqn + "'", e);
+        }
+    }
+
+    private static class ProcessorClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classBytes;
+
+        private ProcessorClassLoader(Map<String, byte[]> classBytes, ClassLoader parent) {
+            super(parent);
+            this.classBytes = classBytes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classBytes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.TaskWrapper;
+
+/**
+ * Wraps a {@link TaskWrapper} and records the execution duration of successful executions with a
+ * {@link CriticalPathPrioritiser}.
+ */
+class RecordDurationTaskWrapper extends TaskWrapper {
+    private final TaskWrapper taskWrapper;
+    private final CriticalPathPrioritiser prioritiser;
+
+    public RecordDurationTaskWrapper(TaskWrapper taskWrapper, CriticalPathPrioritiser prioritiser) {
+        super(taskWrapper);
+        this.taskWrapper = taskWrapper;
+        this.prioritiser = prioritiser;
+    }
+
+    @Override
+    public TaskExecutionResult call() {
+        long startTime = System.nanoTime();
+        TaskExecutionResult result = taskWrapper.call();
+        if (result.isSuccess()) {
+            prioritiser.recordDuration(getServiceName(), isStartTask(), System.nanoTime() - startTime);
+        }
+        return result;
+    }
+}
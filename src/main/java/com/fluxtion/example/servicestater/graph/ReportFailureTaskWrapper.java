@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.TaskWrapper;
+
+import java.util.function.Consumer;
+
+/**
+ * Wraps a {@link TaskWrapper} and reports the {@link TaskWrapper.TaskExecutionResult} of a failed execution to a
+ * failure handler, the result is returned to the caller unchanged.
+ */
+class ReportFailureTaskWrapper extends TaskWrapper {
+    private final TaskWrapper taskWrapper;
+    private final Consumer<TaskExecutionResult> failureHandler;
+
+    public ReportFailureTaskWrapper(TaskWrapper taskWrapper, Consumer<TaskExecutionResult> failureHandler) {
+        super(taskWrapper);
+        this.taskWrapper = taskWrapper;
+        this.failureHandler = failureHandler;
+    }
+
+    @Override
+    public TaskExecutionResult call() {
+        TaskExecutionResult result = taskWrapper.call();
+        if (!result.isSuccess()) {
+            failureHandler.accept(result);
+        }
+        return result;
+    }
+}
@@ -48,8 +48,6 @@ public class ReversePassServiceController extends ServiceController {
         super(serviceName, toStopServiceName(serviceName), taskWrapperPublisher, serviceStatusRecordCache);
     }
 
-    private boolean justStarted = false;
-
     @OnEventHandler
     public boolean stopAllServices(GraphEvent.RequestStopAll startAll){
         return stopServiceRequest();
@@ -60,7 +58,15 @@ public class ReversePassServiceController extends ServiceController {
         return stopServiceRequest();
     }
 
+    @OnEventHandler
+    public boolean stopServices(GraphEvent.RequestServicesStop stopServices){
+        return stopServices.getServiceNames().contains(getServiceName()) && stopServiceRequest();
+    }
+
     private boolean stopServiceRequest() {
+        if (isDetached()) {
+            return false;
+        }
         boolean changed = false;
         Service.Status initialStatus = getStatus();
         auditLog.info("nullStatus", initialStatus == null);
@@ -71,7 +77,8 @@ public class ReversePassServiceController extends ServiceController {
             case STATUS_UNKNOWN:
             case WAITING_FOR_PARENTS_TO_START:
             case STARTING:
-            case STARTED: {
+            case STARTED:
+            case FAILED: {
                 setStatus(Service.Status.WAITING_FOR_PARENTS_TO_STOP);
                 changed = true;
             }
@@ -85,10 +92,14 @@ public class ReversePassServiceController extends ServiceController {
 
     @OnEventHandler(propagate = false)
     public boolean publishStartTasks(PublishStartTask publishStartTask) {
-        if (getStatus() == Service.Status.WAITING_FOR_PARENTS_TO_START && (!hasParents() || areAllParentsStarted())) {
+        startIfParentsStarted();
+        return false;
+    }
+
+    void startIfParentsStarted() {
+        if (!isDetached() && getStatus() == Service.Status.WAITING_FOR_PARENTS_TO_START && (!hasParents() || areAllParentsStarted())) {
             startService();
         }
-        return false;
     }
 
     @Override
@@ -99,25 +110,39 @@ public class ReversePassServiceController extends ServiceController {
 
     @OnEventHandler(filterVariable = "serviceName")
     public boolean notifyServiceStarted(GraphEvent.NotifyServiceStarted statusUpdate) {
-        boolean changed = getStatus() != Service.Status.STARTED;
+        return serviceStarted();
+    }
+
+    @OnEventHandler
+    public boolean notifyServicesStarted(GraphEvent.NotifyServicesStarted statusUpdate) {
+        return statusUpdate.getServiceNames().contains(getServiceName()) && serviceStarted();
+    }
+
+    private boolean serviceStarted() {
+        boolean changed = !isDetached() && getStatus() != Service.Status.STARTED;
         if (changed) {
             setStatus(Service.Status.STARTED);
-            justStarted = true;
         }
         return changed;
     }
 
+    /**
+     * Recalculates the status of this service when a parent has changed.
+     *
+     * @return flag indicating the status of this service has changed and children should be notified
+     */
     @OnTrigger
     public boolean recalculateStatusForStop() {
-        if (getStatus() == Service.Status.WAITING_FOR_PARENTS_TO_START && areAllParentsStarted() ) {
+        if (isDetached()) {
+            return false;
+        }
+        Service.Status status = getStatus();
+        if (status == Service.Status.WAITING_FOR_PARENTS_TO_START && areAllParentsStarted()) {
             startService();
             return true;
-        }else if(getStatus() != STOPPED && getParentStatusSet().contains(WAITING_FOR_PARENTS_TO_STOP)){
+        } else if (status != STOPPED && status != WAITING_FOR_PARENTS_TO_STOP && anyParentHasStatus(WAITING_FOR_PARENTS_TO_STOP)) {
             setStatus(WAITING_FOR_PARENTS_TO_STOP);
             return true;
-        } else if(justStarted){
-            justStarted = false;
-            return true;
         }
         return false;
     }
@@ -27,12 +27,12 @@ import lombok.Setter;
 import lombok.ToString;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 import static com.fluxtion.example.servicestater.Service.Status.STATUS_UNKNOWN;
 
@@ -60,11 +60,42 @@ public abstract class ServiceController extends EventLogNode implements NamedNod
      * services that depend up on this instance
      */
     private List<ServiceController> dependents = new ArrayList<>();
+    /**
+     * status cache ids of this service and its dependents, assigned when the controller is initialised
+     */
+    private transient int serviceId = -1;
+    private transient int[] dependentIds = new int[0];
+    /**
+     * count of dependents in each {@link Service.Status}, indexed by ordinal and maintained by the status cache
+     */
+    private transient final int[] parentStatusCount = new int[Service.Status.values().length];
+    /**
+     * a spliced controller was added to, or had its dependents changed in, a running interpreted graph, the processor
+     * does not dispatch its edges and the status cache propagates changes to it
+     */
+    private transient boolean spliced;
+    /**
+     * a detached controller has been removed from a running graph and ignores events
+     */
+    private transient boolean detached;
     @Setter @Getter
     private LambdaReflection.SerializableRunnable startTask;
     @Setter @Getter
     private LambdaReflection.SerializableRunnable stopTask;
     @Setter @Getter
+    private LambdaReflection.SerializableSupplier<CompletionStage<?>> asyncStartTask;
+    @Setter @Getter
+    private LambdaReflection.SerializableSupplier<CompletionStage<?>> asyncStopTask;
+    /**
+     * start and stop task timeouts in milliseconds, zero for no timeout
+     */
+    @Setter @Getter
+    private long startTimeoutMillis;
+    @Setter @Getter
+    private long stopTimeoutMillis;
+    @Setter @Getter
+    private String concurrencyGroup;
+    @Setter @Getter
     private transient Object wrappedInstance;
 
     public ServiceController(String serviceName, String controllerName, TaskWrapperPublisher taskWrapperPublisher, ServiceStatusRecordCache serviceStatusRecordCache) {
@@ -75,15 +106,36 @@ public abstract class ServiceController extends EventLogNode implements NamedNod
     }
 
     void addDependent(ServiceController dependency) {
-        if (!dependents.contains(dependency)) {
+        int index = dependents.indexOf(dependency);
+        if (index >= 0) {
+            //a replaced controller is equal by service name, keep the id and reference the replacement
+            dependents.set(index, dependency);
+        } else {
             dependents.add(dependency);
+            int dependencyId = serviceStatusRecordCache.registerService(dependency.getServiceName());
+            dependentIds = Arrays.copyOf(dependentIds, dependentIds.length + 1);
+            dependentIds[dependentIds.length - 1] = dependencyId;
+            serviceStatusRecordCache.watchStatus(this, dependencyId);
         }
 
     }
 
+    void removeDependent(ServiceController dependency) {
+        int index = dependents.indexOf(dependency);
+        if (index >= 0) {
+            dependents.remove(index);
+            serviceStatusRecordCache.unwatchStatus(this, dependentIds[index]);
+            int[] ids = new int[dependentIds.length - 1];
+            System.arraycopy(dependentIds, 0, ids, 0, index);
+            System.arraycopy(dependentIds, index + 1, ids, index, ids.length - index);
+            dependentIds = ids;
+        }
+    }
+
     @OnEventHandler(propagate = false)
     public boolean removeDependent(RemoveService removeServiceEvent) {
         dependents.removeIf(removeServiceEvent::serviceMatch);
+        refreshDependentIds();
         return false;
     }
 
@@ -93,10 +145,11 @@ public abstract class ServiceController extends EventLogNode implements NamedNod
 
     public final void setDependents(List<ServiceController> dependents) {
         this.dependents = dependents;
+        refreshDependentIds();
     }
 
     public final Service.Status getStatus() {
-        return serviceStatusRecordCache.getStatus(getServiceName());
+        return serviceId < 0 ? serviceStatusRecordCache.getStatus(getServiceName()) : serviceStatusRecordCache.getStatus(serviceId);
     }
 
     @Override
@@ -111,14 +164,16 @@ public abstract class ServiceController extends EventLogNode implements NamedNod
 
     @OnEventHandler(propagate = false, filterVariable = "serviceName")
     public boolean registerWrappedInstance(GraphEvent.RegisterWrappedInstance registerWrappedInstance){
-        wrappedInstance = registerWrappedInstance.getWrappedInstance();
+        if (!detached) {
+            wrappedInstance = registerWrappedInstance.getWrappedInstance();
+        }
         return false;
     }
 
     protected void setStatus(Service.Status status) {
         auditLog.info("initialStatus", getStatus());
         auditLog.info("setStatus", status);
-        serviceStatusRecordCache.setServiceStatus(getServiceName(), status);
+        serviceStatusRecordCache.setServiceStatus(serviceId, status);
     }
 
     protected void publishTask(TaskWrapper task) {
@@ -126,33 +181,101 @@ public abstract class ServiceController extends EventLogNode implements NamedNod
     }
 
     protected boolean areAllParentsStarted() {
-        return getDependents().stream().map(ServiceController::getStatus).allMatch(Service.Status.STARTED::equals);
+        return allParentsHaveStatus(Service.Status.STARTED);
     }
 
     protected boolean areAllParentsStopped() {
-        return getDependents().stream().map(ServiceController::getStatus).allMatch(Service.Status.STOPPED::equals);
+        return allParentsHaveStatus(Service.Status.STOPPED);
     }
 
     protected boolean hasParents() {
-        return getDependents().size() > 0;
+        return dependentIds.length > 0;
+    }
+
+    protected boolean anyParentHasStatus(Service.Status status) {
+        return parentStatusCount[status.ordinal()] > 0;
+    }
+
+    private boolean allParentsHaveStatus(Service.Status status) {
+        return parentStatusCount[status.ordinal()] == dependentIds.length;
+    }
+
+    int getServiceId() {
+        return serviceId;
     }
 
-    protected EnumSet<Service.Status> getParentStatusSet() {
-        return getDependents().stream()
-                .map(ServiceController::getStatus)
-                .collect(Collectors.toCollection(() -> EnumSet.noneOf(Service.Status.class)));
+    /**
+     * @param status the status to count
+     * @return the number of dependents currently in the status
+     */
+    int parentStatusCount(Service.Status status) {
+        return parentStatusCount[status.ordinal()];
+    }
+
+    /**
+     * Callback from the status cache when a watched dependent changes status, a negative value indicates no status.
+     */
+    void parentStatusChanged(int oldStatus, int newStatus) {
+        if (oldStatus >= 0) {
+            parentStatusCount[oldStatus]--;
+        }
+        if (newStatus >= 0) {
+            parentStatusCount[newStatus]++;
+        }
+    }
+
+    boolean isSpliced() {
+        return spliced;
+    }
+
+    void markSpliced() {
+        spliced = true;
+    }
+
+    protected boolean isDetached() {
+        return detached;
+    }
+
+    /**
+     * Detach this controller from the status cache and ignore all further events, called when the controller is
+     * removed from the graph
+     */
+    void detach() {
+        unwatchDependents();
+        detached = true;
+    }
+
+    private void unwatchDependents() {
+        for (int dependentId : dependentIds) {
+            serviceStatusRecordCache.unwatchStatus(this, dependentId);
+        }
+        dependentIds = new int[0];
+    }
+
+    private void refreshDependentIds() {
+        unwatchDependents();
+        int[] ids = new int[dependents.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = serviceStatusRecordCache.registerService(dependents.get(i).getServiceName());
+            serviceStatusRecordCache.watchStatus(this, ids[i]);
+        }
+        dependentIds = ids;
     }
 
     protected void startService() {
-        if (getStartTask() != null) {
-            publishTask(new TaskWrapper(getServiceName(), true, getStartTask()));
+        if (getAsyncStartTask() != null) {
+            publishTask(TaskWrapper.asyncTask(getServiceName(), true, getAsyncStartTask(), getStartTimeoutMillis(), getConcurrencyGroup()));
+        } else if (getStartTask() != null) {
+            publishTask(new TaskWrapper(getServiceName(), true, getStartTask(), getStartTimeoutMillis(), getConcurrencyGroup()));
         }
         setStatus(Service.Status.STARTING);
     }
 
     protected void stopService() {
-        if (getStopTask() != null) {
-            publishTask(new TaskWrapper(getServiceName(), false, getStopTask()));
+        if (getAsyncStopTask() != null) {
+            publishTask(TaskWrapper.asyncTask(getServiceName(), false, getAsyncStopTask(), getStopTimeoutMillis(), getConcurrencyGroup()));
+        } else if (getStopTask() != null) {
+            publishTask(new TaskWrapper(getServiceName(), false, getStopTask(), getStopTimeoutMillis(), getConcurrencyGroup()));
         }
         setStatus(Service.Status.STOPPING);
     }
@@ -165,6 +288,8 @@ public abstract class ServiceController extends EventLogNode implements NamedNod
 
     @Initialise
     public final void initialise() {
+        serviceId = serviceStatusRecordCache.registerService(getServiceName());
+        serviceStatusRecordCache.registerController(serviceId, this);
         serviceStatusRecordCache.setServiceStatus(getServiceName(), STATUS_UNKNOWN);
     }
 
@@ -0,0 +1,416 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.RetryPolicy;
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceOrderRecord;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static com.fluxtion.example.servicestater.graph.FluxtionServiceManager.toStartServiceName;
+import static com.fluxtion.example.servicestater.graph.FluxtionServiceManager.toStopServiceName;
+
+/**
+ * The nodes of a service graph, the start and stop {@link ServiceController} of every service with the
+ * {@link ServiceStatusRecordCache} and {@link TaskWrapperPublisher} they share, and the {@link RetryPolicy} of each
+ * service. An interpreted processor runs these nodes, a compiled processor is generated from them and runs its own
+ * instances.
+ * <p>
+ * A graph is owned by a single thread at a time. A change to the graph of a compiled processor is applied to a
+ * {@link #copy()} and the copy replaces the graph once the processor generated from it is serving requests. A change
+ * to the graph of an interpreted processor is spliced into the running nodes, see {@link #spliceInServices(Collection)}.
+ */
+class ServiceGraph {
+
+    private final Map<String, ServiceController> controllers = new HashMap<>();
+    private final Map<String, RetryPolicy> retryPolicies = new ConcurrentHashMap<>();
+    private final TaskWrapperPublisher taskWrapperPublisher = new TaskWrapperPublisher();
+    private final ServiceStatusRecordCache serviceStatusRecordCache = new ServiceStatusRecordCache();
+    private final SplicedServiceControllers splicedServiceControllers = new SplicedServiceControllers(serviceStatusRecordCache);
+    private boolean spliced;
+
+    ServiceGraph(Service... services) {
+        Arrays.stream(services).forEach(this::addServiceToMap);//change to recursive lookup
+        Arrays.stream(services).forEach(this::setServiceDependencies);//use the recursive list here
+    }
+
+    /**
+     * A copy of this graph with new controllers, status cache and task publisher. The controllers are configured and
+     * connected as in this graph, no live state is copied.
+     *
+     * @return a copy of this graph
+     */
+    ServiceGraph copy() {
+        ServiceGraph copy = new ServiceGraph();
+        controllers.values().forEach(controller -> copy.controllers.put(controller.getName(), copy.copyController(controller)));
+        controllers.values().forEach(controller -> copy.controllers.get(controller.getName()).setDependents(
+                controller.getDependents().stream()
+                        .map(ServiceController::getName)
+                        .map(copy.controllers::get)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList())));
+        copy.retryPolicies.putAll(retryPolicies);
+        return copy;
+    }
+
+    private ServiceController copyController(ServiceController controller) {
+        ServiceController copy = controller instanceof ForwardPassServiceController
+                ? new ForwardPassServiceController(controller.getServiceName(), taskWrapperPublisher, serviceStatusRecordCache)
+                : new ReversePassServiceController(controller.getServiceName(), taskWrapperPublisher, serviceStatusRecordCache);
+        copy.setStartTask(controller.getStartTask());
+        copy.setStopTask(controller.getStopTask());
+        copy.setAsyncStartTask(controller.getAsyncStartTask());
+        copy.setAsyncStopTask(controller.getAsyncStopTask());
+        copy.setStartTimeoutMillis(controller.getStartTimeoutMillis());
+        copy.setStopTimeoutMillis(controller.getStopTimeoutMillis());
+        copy.setConcurrencyGroup(controller.getConcurrencyGroup());
+        copy.setWrappedInstance(controller.getWrappedInstance());
+        return copy;
+    }
+
+    Collection<ServiceController> controllers() {
+        return controllers.values();
+    }
+
+    ServiceController controller(String controllerName) {
+        return controllers.get(controllerName);
+    }
+
+    boolean isManaged(String serviceName) {
+        return controllers.containsKey(toStartServiceName(serviceName));
+    }
+
+    RetryPolicy retryPolicy(String serviceName) {
+        return retryPolicies.get(serviceName);
+    }
+
+    TaskWrapperPublisher getTaskWrapperPublisher() {
+        return taskWrapperPublisher;
+    }
+
+    ServiceStatusRecordCache getServiceStatusRecordCache() {
+        return serviceStatusRecordCache;
+    }
+
+    SplicedServiceControllers getSplicedServiceControllers() {
+        return splicedServiceControllers;
+    }
+
+    /**
+     * @return true if services have been spliced into the running graph
+     */
+    boolean isSpliced() {
+        return spliced;
+    }
+
+    /**
+     * @param services the candidate services to add
+     * @return the services that are not managed with identical dependencies
+     */
+    Set<Service> changedServices(Service... services) {
+        return Arrays.stream(services)
+                .filter(s -> !isRegisteredWithSameTopology(s))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Adds or replaces the controllers of the services, only the controllers sharing an edge with an added service
+     * are rewired.
+     *
+     * @param services the services to add
+     */
+    void addServices(Collection<Service> services) {
+        services.forEach(this::addServiceToMap);
+        services.forEach(this::setServiceDependencies);
+    }
+
+    /**
+     * Removes the managed services in the list, services that are not managed are ignored.
+     *
+     * @param serviceNames the services to remove
+     * @return the names of the removed services
+     */
+    List<String> removeServices(String... serviceNames) {
+        List<String> managedServices = Arrays.stream(serviceNames)
+                .filter(this::isManaged)
+                .distinct()
+                .collect(Collectors.toList());
+        managedServices.forEach(this::spliceOutService);
+        return managedServices;
+    }
+
+    /**
+     * Adds or replaces the controllers of the services in the nodes of a running interpreted processor. The new
+     * controllers are initialised and routed events by the {@link SplicedServiceControllers} node, the replaced
+     * controllers are detached and ignore events. The status cache propagates status changes to every controller
+     * sharing an edge with an added service, the neighbours are found from the edges of the replaced and added
+     * controllers without visiting the rest of the graph. Must be called with the status cache in rebuilding mode so
+     * the status of a replaced service is kept.
+     *
+     * @param services the services to add
+     */
+    void spliceInServices(Collection<Service> services) {
+        List<ServiceController> replacedControllers = new ArrayList<>();
+        for (Service service : services) {
+            replacedControllers.add(controllers.get(toStartServiceName(service.getName())));
+            replacedControllers.add(controllers.get(toStopServiceName(service.getName())));
+        }
+        addServices(services);
+        for (Service service : services) {
+            ServiceController startController = controllers.get(toStartServiceName(service.getName()));
+            ServiceController stopController = controllers.get(toStopServiceName(service.getName()));
+            spliceInController(startController);
+            spliceInController(stopController);
+            markNeighboursSpliced(startController);
+            markNeighboursSpliced(stopController);
+        }
+        replacedControllers.stream().filter(Objects::nonNull).forEach(this::markNeighboursSpliced);
+        serviceStatusRecordCache.splicedGraph();
+        spliced = true;
+    }
+
+    /**
+     * Marks the controllers holding this controller's service as a dependent. The services that require me hold my
+     * stop controller, the services I require hold my start controller.
+     */
+    private void markNeighboursSpliced(ServiceController controller) {
+        boolean startController = controller instanceof ForwardPassServiceController;
+        for (ServiceController dependent : controller.getDependents()) {
+            ServiceController neighbour = controllers.get(startController
+                    ? toStopServiceName(dependent.getServiceName())
+                    : toStartServiceName(dependent.getServiceName()));
+            if (neighbour != null) {
+                neighbour.markSpliced();
+            }
+        }
+    }
+
+    private void spliceInController(ServiceController controller) {
+        controller.initialise();
+        controller.markSpliced();
+        splicedServiceControllers.register(controller);
+    }
+
+    /**
+     * Publishes the start order of the services, services are ordered after the services they require.
+     *
+     * @param serviceConsumer the receiver of the start order
+     */
+    void startOrder(Consumer<ServiceOrderRecord<?>> serviceConsumer) {
+        topologicalOrder(ReversePassServiceController.class).forEach(controller -> controller.startOrder(serviceConsumer));
+    }
+
+    /**
+     * Publishes the stop order of the services, services are ordered after the services that require them.
+     *
+     * @param serviceConsumer the receiver of the stop order
+     */
+    void stopOrder(Consumer<ServiceOrderRecord<?>> serviceConsumer) {
+        topologicalOrder(ForwardPassServiceController.class).forEach(controller -> controller.stopOrder(serviceConsumer));
+    }
+
+    /**
+     * An iterative depth first sort of the controllers of one pass, every controller is ordered after its dependents.
+     */
+    private List<ServiceController> topologicalOrder(Class<? extends ServiceController> controllerClass) {
+        List<ServiceController> order = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        Deque<ServiceController> path = new ArrayDeque<>();
+        Deque<Iterator<ServiceController>> dependents = new ArrayDeque<>();
+        for (ServiceController root : controllers.values()) {
+            if (!controllerClass.isInstance(root) || !visited.add(root.getName())) {
+                continue;
+            }
+            path.push(root);
+            dependents.push(root.getDependents().iterator());
+            while (!path.isEmpty()) {
+                Iterator<ServiceController> iterator = dependents.peek();
+                if (iterator.hasNext()) {
+                    ServiceController dependent = controllers.get(iterator.next().getName());
+                    if (dependent != null && visited.add(dependent.getName())) {
+                        path.push(dependent);
+                        dependents.push(dependent.getDependents().iterator());
+                    }
+                } else {
+                    dependents.pop();
+                    order.add(path.pop());
+                }
+            }
+        }
+        return order;
+    }
+
+    private void addServiceToMap(Service s) {
+        ForwardPassServiceController forwardPassServiceController = new ForwardPassServiceController(s.getName(), taskWrapperPublisher, serviceStatusRecordCache);
+        forwardPassServiceController.setStartTask(s.getStartTask());
+        forwardPassServiceController.setStopTask(s.getStopTask());
+        forwardPassServiceController.setAsyncStartTask(s.getAsyncStartTask());
+        forwardPassServiceController.setAsyncStopTask(s.getAsyncStopTask());
+        forwardPassServiceController.setStartTimeoutMillis(toMillis(s.getStartTimeout()));
+        forwardPassServiceController.setStopTimeoutMillis(toMillis(s.getStopTimeout()));
+        forwardPassServiceController.setConcurrencyGroup(s.getConcurrencyGroup());
+        forwardPassServiceController.setWrappedInstance(s.getWrappedInstance());
+        ReversePassServiceController reversePassServiceController = new ReversePassServiceController(s.getName(), taskWrapperPublisher, serviceStatusRecordCache);
+        reversePassServiceController.setStartTask(s.getStartTask());
+        reversePassServiceController.setStopTask(s.getStopTask());
+        reversePassServiceController.setAsyncStartTask(s.getAsyncStartTask());
+        reversePassServiceController.setAsyncStopTask(s.getAsyncStopTask());
+        reversePassServiceController.setStartTimeoutMillis(toMillis(s.getStartTimeout()));
+        reversePassServiceController.setStopTimeoutMillis(toMillis(s.getStopTimeout()));
+        reversePassServiceController.setConcurrencyGroup(s.getConcurrencyGroup());
+        if (s.getRetryPolicy() == null) {
+            retryPolicies.remove(s.getName());
+        } else {
+            retryPolicies.put(s.getName(), s.getRetryPolicy());
+        }
+        reversePassServiceController.setWrappedInstance(s.getWrappedInstance());
+        replaceController(forwardPassServiceController);
+        replaceController(reversePassServiceController);
+    }
+
+    private static long toMillis(Duration timeout) {
+        return timeout == null ? 0 : timeout.toMillis();
+    }
+
+    private void replaceController(ServiceController controller) {
+        ServiceController oldController = controllers.put(controller.getName(), controller);
+        if (oldController != null) {
+            oldController.detach();
+            splicedServiceControllers.deregister(oldController);
+        }
+    }
+
+    private void setServiceDependencies(Service service) {
+        ServiceController controller = controllers.get(toStartServiceName(service.getName()));
+        //keep the edges added by services earlier in the batch that require me
+        service.getServiceListThatRequireMe().stream()
+                .map(Service::getName)
+                .map(FluxtionServiceManager::toStartServiceName)
+                .map(controllers::get)
+                .forEach(controller::addDependent);
+        //assign dependencies
+        final ServiceController startController = controller;
+        service.getRequiredServiceList().stream()
+                .map(Service::getName)
+                .map(FluxtionServiceManager::toStartServiceName)
+                .map(controllers::get)
+                .forEach(s -> s.addDependent(startController));
+
+
+        //reverse controller
+        controller = controllers.get(toStopServiceName(service.getName()));
+        final ServiceController stopController = controller;
+        service.getRequiredServiceList().stream()
+                .map(Service::getName)
+                .map(FluxtionServiceManager::toStopServiceName)
+                .map(controllers::get)
+                .forEach(stopController::addDependent);
+
+
+        //
+        service.getServiceListThatRequireMe().stream()
+                .map(Service::getName)
+                .map(FluxtionServiceManager::toStopServiceName)
+                .map(controllers::get)
+                .forEach(s -> s.addDependent(stopController));
+    }
+
+    /**
+     * Detaches the controllers of a service from their neighbours, only the controllers that share an edge with the
+     * removed service are visited.
+     *
+     * @param serviceName the service to remove
+     */
+    private void spliceOutService(String serviceName) {
+        ServiceController startController = controllers.remove(toStartServiceName(serviceName));
+        ServiceController stopController = controllers.remove(toStopServiceName(serviceName));
+        if (startController != null) {
+            //services that require me hold my stop controller as a parent
+            startController.getDependents().stream()
+                    .map(ServiceController::getServiceName)
+                    .map(FluxtionServiceManager::toStopServiceName)
+                    .map(controllers::get)
+                    .filter(Objects::nonNull)
+                    .forEach(s -> s.removeDependent(stopController));
+        }
+        if (stopController != null) {
+            //services I require hold my start controller as a parent
+            stopController.getDependents().stream()
+                    .map(ServiceController::getServiceName)
+                    .map(FluxtionServiceManager::toStartServiceName)
+                    .map(controllers::get)
+                    .filter(Objects::nonNull)
+                    .forEach(s -> s.removeDependent(startController));
+        }
+        if (startController != null) {
+            startController.detach();
+            splicedServiceControllers.deregister(startController);
+        }
+        if (stopController != null) {
+            stopController.detach();
+            splicedServiceControllers.deregister(stopController);
+        }
+        serviceStatusRecordCache.removeServiceStatus(serviceName);
+        retryPolicies.remove(serviceName);
+    }
+
+    /**
+     * Checks if a service is already managed with identical dependencies, adding the service again would not change
+     * the graph.
+     *
+     * @param service the candidate service to add
+     * @return true if the service is registered with the same edges
+     */
+    private boolean isRegisteredWithSameTopology(Service service) {
+        ServiceController startController = controllers.get(toStartServiceName(service.getName()));
+        ServiceController stopController = controllers.get(toStopServiceName(service.getName()));
+        if (startController == null || stopController == null
+                || startController.getStartTask() != service.getStartTask()
+                || startController.getStopTask() != service.getStopTask()
+                || startController.getAsyncStartTask() != service.getAsyncStartTask()
+                || startController.getAsyncStopTask() != service.getAsyncStopTask()
+                || startController.getStartTimeoutMillis() != toMillis(service.getStartTimeout())
+                || startController.getStopTimeoutMillis() != toMillis(service.getStopTimeout())
+                || !Objects.equals(startController.getConcurrencyGroup(), service.getConcurrencyGroup())
+                || !Objects.equals(retryPolicies.get(service.getName()), service.getRetryPolicy())) {
+            return false;
+        }
+        Set<String> requiredByMe = service.getRequiredServiceList().stream().map(Service::getName).collect(Collectors.toSet());
+        Set<String> requireMe = service.getServiceListThatRequireMe().stream().map(Service::getName).collect(Collectors.toSet());
+        return requireMe.equals(dependentNames(startController)) && requiredByMe.equals(dependentNames(stopController));
+    }
+
+    private static Set<String> dependentNames(ServiceController controller) {
+        return controller.getDependents().stream().map(ServiceController::getServiceName).collect(Collectors.toSet());
+    }
+}
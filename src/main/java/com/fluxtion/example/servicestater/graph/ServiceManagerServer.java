@@ -17,9 +17,11 @@
 package com.fluxtion.example.servicestater.graph;
 
 import com.fluxtion.example.servicestater.ServiceManager;
+import com.fluxtion.example.servicestater.ServiceStatusChange;
 import com.fluxtion.example.servicestater.ServiceStatusRecord;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -65,6 +67,14 @@ public class ServiceManagerServer {
         publisher.submit(f -> f.stopService(serviceName));
     }
 
+    public void startServices(Collection<String> serviceNames) {
+        publisher.submit(f -> f.startServices(serviceNames));
+    }
+
+    public void stopServices(Collection<String> serviceNames) {
+        publisher.submit(f -> f.stopServices(serviceNames));
+    }
+
     public void startAllServices() {
         publisher.submit(ServiceManager::startAllServices);
     }
@@ -85,8 +95,20 @@ public class ServiceManagerServer {
         publisher.submit(f -> f.serviceStopped(serviceName));
     }
 
+    public void serviceStartedNotification(Collection<String> serviceNames) {
+        publisher.submit(f -> f.serviceStarted(serviceNames));
+    }
+
+    public void serviceStoppedNotification(Collection<String> serviceNames) {
+        publisher.submit(f -> f.serviceStopped(serviceNames));
+    }
+
     public void registerStatusListener(Consumer<List<ServiceStatusRecord>> publishStatusToLog) {
         publisher.submit(f -> f.registerStatusListener(publishStatusToLog));
     }
 
+    public void registerStatusChangeListener(Consumer<List<ServiceStatusChange>> statusChangeListener) {
+        publisher.submit(f -> f.registerStatusChangeListener(statusChangeListener));
+    }
+
 }
@@ -16,21 +16,36 @@
 
 package com.fluxtion.example.servicestater.graph;
 
+import com.fluxtion.example.servicestater.DependentFailurePolicy;
 import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceStatusChange;
 import com.fluxtion.example.servicestater.ServiceStatusRecord;
+import com.fluxtion.example.servicestater.ServiceTaskException;
+import com.fluxtion.example.servicestater.TaskWrapper;
+import com.fluxtion.example.servicestater.graph.FluxtionServiceManager.RegisterStatusChangeListener;
 import com.fluxtion.example.servicestater.graph.FluxtionServiceManager.RegisterStatusListener;
 import com.fluxtion.example.servicestater.graph.GraphEvent.PublishStatus;
+import com.fluxtion.example.servicestater.graph.GraphEvent.RegisterStatusWaiter;
 import com.fluxtion.example.servicestater.graph.GraphEvent.RemoveService;
+import com.fluxtion.example.servicestater.graph.GraphEvent.SetDependentFailurePolicy;
+import com.fluxtion.example.servicestater.graph.GraphEvent.TasksFailed;
 import com.fluxtion.runtime.annotations.Initialise;
 import com.fluxtion.runtime.annotations.OnEventHandler;
 import com.fluxtion.runtime.annotations.OnTrigger;
 import com.fluxtion.runtime.node.NamedNode;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 /**
  * A cache for the current status of the external {@link com.fluxtion.example.servicestater.Service}, both
@@ -38,27 +53,492 @@ import java.util.stream.Collectors;
  * read and write the status cache to determine the state change to make.
  * <p>
  * A client application can listen to status updates by calling {@link FluxtionServiceManager#registerStatusListener(Consumer)}
+ * <p>
+ * Each service is assigned a dense int id when its controllers are initialised, the status is stored in a byte array
+ * indexed by id. Controllers hold the ids of their dependents so status checks in the graph cycle are array reads.
+ * <p>
+ * Controllers watch the ids of their dependents, on every status transition the watchers are notified so they can keep
+ * a count of parents in each status.
+ * <p>
+ * Status changes are recorded as they happen. At the end of a cycle a status change listener receives only the services
+ * whose status changed in the cycle, the full status snapshot is only built if a status listener is registered.
+ * <p>
+ * Futures waiting for a service to reach a status are released by the status transition and completed once the cycle
+ * snapshot is published, a task failure of a service completes exceptionally the futures waiting on that service. A
+ * service whose start or stop task fails or times out moves to FAILED.
+ * <p>
+ * A service entering a waiting state is a candidate for task publication. At the end of the graph cycle the cache
+ * publishes the start/stop task of every candidate whose parents are ready, then publishes the status, so a request is
+ * fully processed in a single event cycle.
+ * <p>
+ * Controllers spliced into a running interpreted graph are not dispatched by the processor, the cache propagates
+ * status changes to them at the end of the cycle before publishing tasks.
  */
 public class ServiceStatusRecordCache implements NamedNode {
 
-    private transient final Map<String, Service.Status> serviceStatusMap = new HashMap<>();
-    private Consumer<List<ServiceStatusRecord>> statusListener = (strings -> {
-    });
+    private static final Service.Status[] STATUS_VALUES = Service.Status.values();
+    private static final byte NO_STATUS = -1;
+    private static final byte UNCHANGED = -2;
+    private static final int INITIAL_CAPACITY = 16;
+    private transient final Map<String, Integer> serviceIdMap = new HashMap<>();
+    private transient final ArrayDeque<Integer> freeIds = new ArrayDeque<>();
+    private transient String[] serviceNames = new String[INITIAL_CAPACITY];
+    private transient byte[] serviceStatus = newStatusArray(INITIAL_CAPACITY, NO_STATUS);
+    private transient final List<List<ServiceController>> statusWatchers = new ArrayList<>();
+    private transient final List<List<StatusWaiter>> statusWaiters = new ArrayList<>();
+    private transient final List<List<StatusWaiter>> failureWaiters = new ArrayList<>();
+    private transient final List<Runnable> releasedWaiters = new ArrayList<>();
+    private transient ReversePassServiceController[] startTaskControllers = new ReversePassServiceController[INITIAL_CAPACITY];
+    private transient ForwardPassServiceController[] stopTaskControllers = new ForwardPassServiceController[INITIAL_CAPACITY];
+    private transient int[] startCandidates = new int[INITIAL_CAPACITY];
+    private transient int[] stopCandidates = new int[INITIAL_CAPACITY];
+    private transient int startCandidateCount;
+    private transient int stopCandidateCount;
+    private transient int idCount;
+    private transient byte[] cycleStartStatus = newStatusArray(INITIAL_CAPACITY, UNCHANGED);
+    private transient int[] changedIds = new int[INITIAL_CAPACITY];
+    private transient int changedCount;
+    private transient final List<ServiceStatusChange> removedServiceChanges = new ArrayList<>();
+    private transient final int[] statusCounts = new int[STATUS_VALUES.length];
+    private transient boolean snapshotStale;
+    private transient final List<String> changedServiceIds = new ArrayList<>();
+    private transient final Map<String, Integer> snapshotIdMap = new ConcurrentHashMap<>();
+    private transient final Map<String, Integer> readOnlySnapshotIdMap = Collections.unmodifiableMap(snapshotIdMap);
+    private transient String[] snapshotNames = new String[0];
+    private transient volatile ServiceStatusSnapshot statusSnapshot = ServiceStatusSnapshot.EMPTY;
+    private transient Consumer<List<ServiceStatusRecord>> statusListener;
+    private transient Consumer<List<ServiceStatusChange>> statusChangeListener;
+    private transient DependentFailurePolicy dependentFailurePolicy = DependentFailurePolicy.WAIT;
+    private transient final ArrayDeque<ServiceController> splicedWatchers = new ArrayDeque<>();
+    private transient boolean splicedGraph;
+    private transient boolean propagatingSplicedChanges;
 
     private boolean rebuild;
 
+    /**
+     * Lookup or assign the dense id for a service, ids of removed services are reused.
+     *
+     * @param name the service name
+     * @return the id of the service
+     */
+    public int registerService(String name) {
+        Integer id = serviceIdMap.get(name);
+        if (id == null) {
+            id = freeIds.isEmpty() ? idCount++ : freeIds.poll();
+            if (id >= serviceStatus.length) {
+                int newCapacity = serviceStatus.length * 2;
+                serviceNames = Arrays.copyOf(serviceNames, newCapacity);
+                startTaskControllers = Arrays.copyOf(startTaskControllers, newCapacity);
+                stopTaskControllers = Arrays.copyOf(stopTaskControllers, newCapacity);
+                byte[] newStatus = newStatusArray(newCapacity, NO_STATUS);
+                System.arraycopy(serviceStatus, 0, newStatus, 0, serviceStatus.length);
+                serviceStatus = newStatus;
+                byte[] newCycleStartStatus = newStatusArray(newCapacity, UNCHANGED);
+                System.arraycopy(cycleStartStatus, 0, newCycleStartStatus, 0, cycleStartStatus.length);
+                cycleStartStatus = newCycleStartStatus;
+            }
+            serviceNames[id] = name;
+            serviceIdMap.put(name, id);
+            changedServiceIds.add(name);
+            while (statusWatchers.size() <= id) {
+                statusWatchers.add(new ArrayList<>());
+                statusWaiters.add(null);
+                failureWaiters.add(null);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * @param name the service name
+     * @return the id of the service or -1 if the service is not registered
+     */
+    public int serviceId(String name) {
+        return serviceIdMap.getOrDefault(name, -1);
+    }
+
     public Service.Status getStatus(String name) {
-        return serviceStatusMap.get(name);
+        int id = serviceId(name);
+        return id < 0 ? null : getStatus(id);
+    }
+
+    public Service.Status getStatus(int id) {
+        byte status = serviceStatus[id];
+        return status == NO_STATUS ? null : STATUS_VALUES[status];
     }
 
     public void setServiceStatus(String name, Service.Status status) {
-        if(rebuild){
-            serviceStatusMap.putIfAbsent(name, status);
-        }else{
-            serviceStatusMap.put(name, status);
+        int id = registerService(name);
+        if (!rebuild || serviceStatus[id] == NO_STATUS) {
+            setServiceStatus(id, status);
+        }
+    }
+
+    public void setServiceStatus(int id, Service.Status status) {
+        updateStatus(id, (byte) status.ordinal());
+    }
+
+    /**
+     * Register a controller to be notified of status transitions for a service, the current status of the service is
+     * pushed to the watcher on registration.
+     *
+     * @param watcher the controller to notify
+     * @param id      the id of the watched service
+     */
+    void watchStatus(ServiceController watcher, int id) {
+        statusWatchers.get(id).add(watcher);
+        watcher.parentStatusChanged(NO_STATUS, serviceStatus[id]);
+    }
+
+    void unwatchStatus(ServiceController watcher, int id) {
+        List<ServiceController> watchers = statusWatchers.get(id);
+        for (int i = 0; i < watchers.size(); i++) {
+            if (watchers.get(i) == watcher) {
+                watchers.remove(i);
+                watcher.parentStatusChanged(serviceStatus[id], NO_STATUS);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Register the controller that publishes tasks for a service, reverse pass controllers publish start tasks and
+     * forward pass controllers publish stop tasks.
+     *
+     * @param id         the id of the service
+     * @param controller the controller of the service
+     */
+    void registerController(int id, ServiceController controller) {
+        if (controller instanceof ReversePassServiceController) {
+            startTaskControllers[id] = (ReversePassServiceController) controller;
+        } else if (controller instanceof ForwardPassServiceController) {
+            stopTaskControllers[id] = (ForwardPassServiceController) controller;
+        }
+    }
+
+    private void publishReadyTasks() {
+        for (int i = 0; i < startCandidateCount; i++) {
+            ReversePassServiceController controller = startTaskControllers[startCandidates[i]];
+            if (controller != null) {
+                controller.startIfParentsStarted();
+            }
+        }
+        startCandidateCount = 0;
+        for (int i = 0; i < stopCandidateCount; i++) {
+            ForwardPassServiceController controller = stopTaskControllers[stopCandidates[i]];
+            if (controller != null) {
+                controller.stopIfParentsStopped();
+            }
+        }
+        stopCandidateCount = 0;
+    }
+
+    /**
+     * Called when controllers are spliced into a running interpreted graph. The processor does not dispatch the edges
+     * of a spliced controller, from now on status changes are propagated to spliced controllers by the cache, see
+     * {@link #propagateSplicedChanges()}.
+     */
+    void splicedGraph() {
+        splicedGraph = true;
+    }
+
+    /**
+     * Recalculates the status of the spliced controllers watching a service whose status changed in this cycle. A
+     * change made while propagating is propagated to every watcher, the processor has already dispatched the cycle.
+     */
+    private void propagateSplicedChanges() {
+        propagatingSplicedChanges = true;
+        ServiceController watcher;
+        while ((watcher = splicedWatchers.poll()) != null) {
+            if (watcher instanceof ForwardPassServiceController) {
+                ((ForwardPassServiceController) watcher).recalculateStatusForStart();
+            } else if (watcher instanceof ReversePassServiceController) {
+                ((ReversePassServiceController) watcher).recalculateStatusForStop();
+            }
+        }
+        propagatingSplicedChanges = false;
+    }
+
+    private void updateStatus(int id, byte newStatus) {
+        byte oldStatus = serviceStatus[id];
+        if (oldStatus != newStatus) {
+            serviceStatus[id] = newStatus;
+            recordChange(id, oldStatus);
+            if (oldStatus >= 0) {
+                statusCounts[oldStatus]--;
+            }
+            if (newStatus >= 0) {
+                statusCounts[newStatus]++;
+            }
+            snapshotStale = true;
+            if (newStatus == Service.Status.WAITING_FOR_PARENTS_TO_START.ordinal()) {
+                addStartCandidate(id);
+            } else if (newStatus == Service.Status.WAITING_FOR_PARENTS_TO_STOP.ordinal()) {
+                addStopCandidate(id);
+            }
+            List<ServiceController> watchers = statusWatchers.get(id);
+            for (int i = 0; i < watchers.size(); i++) {
+                ServiceController watcher = watchers.get(i);
+                watcher.parentStatusChanged(oldStatus, newStatus);
+                if (splicedGraph && (propagatingSplicedChanges || watcher.isSpliced())) {
+                    splicedWatchers.add(watcher);
+                }
+            }
+            releaseStatusWaiters(id, newStatus);
+        }
+    }
+
+    private void releaseStatusWaiters(int id, byte newStatus) {
+        List<StatusWaiter> waiters = statusWaiters.get(id);
+        if (waiters != null) {
+            for (int i = waiters.size() - 1; i >= 0; i--) {
+                StatusWaiter waiter = waiters.get(i);
+                if (waiter.targetStatus == newStatus) {
+                    releasedWaiters.add(() -> waiter.future.complete(null));
+                    waiters.remove(i);
+                } else if (waiter.future.isDone()) {
+                    waiters.remove(i);
+                }
+            }
+        }
+        List<StatusWaiter> failures = failureWaiters.get(id);
+        if (failures != null) {
+            failures.removeIf(waiter -> waiter.future.isDone());
         }
     }
 
+    /**
+     * Injection point for external RegisterStatusWaiter events, the future is completed when the service reaches the
+     * target status. The waiter is also registered against the services the target is waiting on, a task failure of
+     * any of these services completes the future exceptionally.
+     *
+     * @param registerStatusWaiter the waiter to register
+     * @return
+     */
+    @OnEventHandler(propagate = false)
+    public boolean registerStatusWaiter(RegisterStatusWaiter registerStatusWaiter) {
+        CompletableFuture<Void> future = registerStatusWaiter.getFuture();
+        Service.Status targetStatus = registerStatusWaiter.getTargetStatus();
+        int id = serviceId(registerStatusWaiter.getServiceName());
+        if (id < 0) {
+            future.completeExceptionally(new IllegalArgumentException(
+                    "service not managed:'" + registerStatusWaiter.getServiceName() + "'"));
+        } else if (getStatus(id) == targetStatus) {
+            future.complete(null);
+        } else {
+            StatusWaiter waiter = new StatusWaiter(future, (byte) targetStatus.ordinal());
+            waiterList(statusWaiters, id).add(waiter);
+            //start waits on the services I require, stop waits on the services that require me
+            ServiceController controller = targetStatus == Service.Status.STARTED ? startTaskControllers[id] : stopTaskControllers[id];
+            ArrayDeque<ServiceController> toVisit = new ArrayDeque<>();
+            toVisit.add(controller);
+            Set<ServiceController> visited = new HashSet<>();
+            while (!toVisit.isEmpty()) {
+                ServiceController next = toVisit.poll();
+                if (next != null && visited.add(next)) {
+                    waiterList(failureWaiters, next.getServiceId()).add(waiter);
+                    toVisit.addAll(next.getDependents());
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Injection point for external TasksFailed events, applies a batch of failed task results in a single cycle. Each
+     * failed service moves to FAILED, the {@link DependentFailurePolicy} is applied to the services waiting on it and
+     * the futures waiting on the failed service are completed exceptionally. The status is published once for the
+     * batch.
+     *
+     * @param tasksFailed the failed task results
+     * @return
+     */
+    @OnEventHandler(propagate = false)
+    public boolean tasksFailed(TasksFailed tasksFailed) {
+        for (TaskWrapper.TaskExecutionResult result : tasksFailed.getTaskExecutionResults()) {
+            int id = serviceId(result.getServiceName());
+            if (id < 0) {
+                continue;
+            }
+            List<StatusWaiter> waiters = failureWaiters.get(id);
+            if (waiters != null) {
+                byte failedTarget = (byte) (result.isStartTask() ? Service.Status.STARTED : Service.Status.STOPPED).ordinal();
+                ServiceTaskException taskException = new ServiceTaskException(result);
+                waiters.removeIf(waiter -> {
+                    if (waiter.targetStatus == failedTarget) {
+                        releasedWaiters.add(() -> waiter.future.completeExceptionally(taskException));
+                        return true;
+                    }
+                    return waiter.future.isDone();
+                });
+            }
+            failService(id, result.isStartTask());
+        }
+        publishStatus();
+        return false;
+    }
+
+    @OnEventHandler(propagate = false)
+    public boolean setDependentFailurePolicy(SetDependentFailurePolicy setDependentFailurePolicy) {
+        dependentFailurePolicy = setDependentFailurePolicy.getDependentFailurePolicy();
+        return false;
+    }
+
+    /**
+     * Moves a service whose task failed to FAILED, a result for a service that is no longer starting or stopping is
+     * stale and ignored. With {@link DependentFailurePolicy#CASCADE_FAIL} the services transitively waiting on the
+     * failed service are also moved to FAILED, a failed start fails the services that require it and are waiting to
+     * start, a failed stop fails the services it requires that are waiting to stop.
+     *
+     * @param id        the id of the failed service
+     * @param startTask flag indicating the start task failed
+     */
+    private void failService(int id, boolean startTask) {
+        Service.Status runningStatus = startTask ? Service.Status.STARTING : Service.Status.STOPPING;
+        if (serviceStatus[id] != runningStatus.ordinal()) {
+            return;
+        }
+        updateStatus(id, (byte) Service.Status.FAILED.ordinal());
+        if (dependentFailurePolicy != DependentFailurePolicy.CASCADE_FAIL) {
+            return;
+        }
+        byte waitingStatus = (byte) (startTask ? Service.Status.WAITING_FOR_PARENTS_TO_START : Service.Status.WAITING_FOR_PARENTS_TO_STOP).ordinal();
+        ArrayDeque<Integer> failedIds = new ArrayDeque<>();
+        failedIds.add(id);
+        while (!failedIds.isEmpty()) {
+            List<ServiceController> watchers = statusWatchers.get(failedIds.poll());
+            for (int i = 0; i < watchers.size(); i++) {
+                ServiceController watcher = watchers.get(i);
+                int watcherId = watcher.getServiceId();
+                boolean waitingOnFailed = startTask
+                        ? watcher instanceof ReversePassServiceController
+                        : watcher instanceof ForwardPassServiceController;
+                if (waitingOnFailed && serviceStatus[watcherId] == waitingStatus) {
+                    updateStatus(watcherId, (byte) Service.Status.FAILED.ordinal());
+                    failedIds.add(watcherId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the live state of another cache into this cache, used when the processor is replaced by a processor built
+     * from the same or a changed graph. Statuses and pending waiters are copied by service name, the listeners and the
+     * dependent failure policy are carried over. The copied statuses are not published as changes and do not make
+     * services task candidates.
+     * <p>
+     * Services only in this cache are recorded as a change from no status, services only in the source cache are
+     * recorded as removed and their waiters are completed exceptionally. The changes are published and the waiters
+     * completed with the next status publication. The source cache is only read, it continues to serve requests if
+     * the replacement fails.
+     *
+     * @param source the cache of the replaced processor
+     * @return flag indicating services were added or removed
+     */
+    boolean copyState(ServiceStatusRecordCache source) {
+        for (int sourceId = 0; sourceId < source.idCount; sourceId++) {
+            int id = targetId(source, sourceId);
+            if (id >= 0 && source.serviceStatus[sourceId] != NO_STATUS) {
+                updateStatus(id, source.serviceStatus[sourceId]);
+            }
+        }
+        for (int sourceId = 0; sourceId < source.idCount; sourceId++) {
+            int id = targetId(source, sourceId);
+            if (id >= 0) {
+                copyWaiters(source.statusWaiters.get(sourceId), statusWaiters, id);
+                copyWaiters(source.failureWaiters.get(sourceId), failureWaiters, id);
+            }
+        }
+        statusListener = source.statusListener;
+        statusChangeListener = source.statusChangeListener;
+        dependentFailurePolicy = source.dependentFailurePolicy;
+        clearStatusChanges();
+        startCandidateCount = 0;
+        stopCandidateCount = 0;
+        releasedWaiters.clear();
+        boolean topologyChanged = false;
+        for (int sourceId = 0; sourceId < source.idCount; sourceId++) {
+            String name = source.serviceNames[sourceId];
+            if (name != null && serviceId(name) < 0) {
+                topologyChanged = true;
+                if (source.serviceStatus[sourceId] != NO_STATUS) {
+                    removedServiceChanges.add(new ServiceStatusChange(name, toStatus(source.serviceStatus[sourceId]), null));
+                }
+                releaseRemovedWaiters(source.statusWaiters.get(sourceId), name);
+                releaseRemovedWaiters(source.failureWaiters.get(sourceId), name);
+            }
+        }
+        for (int id = 0; id < idCount; id++) {
+            if (serviceNames[id] != null && source.serviceId(serviceNames[id]) < 0) {
+                topologyChanged = true;
+                recordChange(id, NO_STATUS);
+            }
+        }
+        publishSnapshot();
+        return topologyChanged;
+    }
+
+    /**
+     * Completes exceptionally the waiters of a service that is not in this cache when the status is next published,
+     * the waiter lists of the source cache are not modified.
+     */
+    private void releaseRemovedWaiters(List<StatusWaiter> waiters, String name) {
+        if (waiters != null) {
+            IllegalStateException removed = new IllegalStateException("service removed:'" + name + "'");
+            for (StatusWaiter waiter : waiters) {
+                releasedWaiters.add(() -> waiter.future.completeExceptionally(removed));
+            }
+        }
+    }
+
+    private int targetId(ServiceStatusRecordCache source, int sourceId) {
+        String name = source.serviceNames[sourceId];
+        return name == null ? -1 : serviceId(name);
+    }
+
+    private static void copyWaiters(List<StatusWaiter> sourceWaiters, List<List<StatusWaiter>> waiterLists, int id) {
+        if (sourceWaiters != null) {
+            for (StatusWaiter waiter : sourceWaiters) {
+                if (!waiter.future.isDone()) {
+                    waiterList(waiterLists, id).add(waiter);
+                }
+            }
+        }
+    }
+
+    private static List<StatusWaiter> waiterList(List<List<StatusWaiter>> waiterLists, int id) {
+        List<StatusWaiter> waiters = waiterLists.get(id);
+        if (waiters == null) {
+            waiters = new ArrayList<>();
+            waiterLists.set(id, waiters);
+        }
+        return waiters;
+    }
+
+    private void recordChange(int id, byte oldStatus) {
+        if (cycleStartStatus[id] == UNCHANGED) {
+            cycleStartStatus[id] = oldStatus;
+            if (changedCount == changedIds.length) {
+                changedIds = Arrays.copyOf(changedIds, changedCount * 2);
+            }
+            changedIds[changedCount++] = id;
+        }
+    }
+
+    private void addStartCandidate(int id) {
+        if (startCandidateCount == startCandidates.length) {
+            startCandidates = Arrays.copyOf(startCandidates, startCandidateCount * 2);
+        }
+        startCandidates[startCandidateCount++] = id;
+    }
+
+    private void addStopCandidate(int id) {
+        if (stopCandidateCount == stopCandidates.length) {
+            stopCandidates = Arrays.copyOf(stopCandidates, stopCandidateCount * 2);
+        }
+        stopCandidates[stopCandidateCount++] = id;
+    }
+
     /**
      * Injection point for external RegisterStatusListener events, Fluxtion will route events to this instance.
      * <p>
@@ -74,6 +554,29 @@ public class ServiceStatusRecordCache implements NamedNode {
         return false;
     }
 
+    /**
+     * Injection point for external RegisterStatusChangeListener events, Fluxtion will route events to this instance.
+     * <p>
+     * Upon registration the status of every service is published to the listener as a change from no status, after
+     * that the listener only receives the services whose status has changed in a graph cycle.
+     *
+     * @param listener contains the status change listener
+     * @return
+     */
+    @OnEventHandler(propagate = false)
+    public boolean registerStatusChangeListener(RegisterStatusChangeListener listener) {
+        statusChangeListener = listener.getStatusChangeListener();
+        clearStatusChanges();
+        List<ServiceStatusChange> changeList = new ArrayList<>(serviceIdMap.size());
+        for (int id = 0; id < idCount; id++) {
+            if (serviceStatus[id] != NO_STATUS) {
+                changeList.add(new ServiceStatusChange(serviceNames[id], null, STATUS_VALUES[serviceStatus[id]]));
+            }
+        }
+        statusChangeListener.accept(changeList);
+        return false;
+    }
+
     /**
      * Injection point for external publishStatusRequest events, Fluxtion will route events to this instance.
      * <p>
@@ -89,26 +592,169 @@ public class ServiceStatusRecordCache implements NamedNode {
     }
 
     /**
-     * If any service dependencies have changed, publishes the current service status.
+     * If any service dependencies have changed, publishes the tasks of services that are ready to start or stop and
+     * then publishes the current service status.
      *
      * @return flag indicating this node has changed and should notify child nodes of the change
      */
     @OnTrigger
     public boolean publishStatus() {
-        statusListener.accept(
-                serviceStatusMap.entrySet().stream()
-                        .map(e -> new ServiceStatusRecord(e.getKey(), e.getValue()))
-                        .collect(Collectors.toList())
-        );
+        propagateSplicedChanges();
+        publishReadyTasks();
+        //task publication is not propagated in the graph cycle
+        splicedWatchers.clear();
+        publishSnapshot();
+        completeReleasedWaiters();
+        publishStatusChanges();
+        if (statusListener != null) {
+            List<ServiceStatusRecord> statusList = new ArrayList<>(serviceIdMap.size());
+            for (int id = 0; id < idCount; id++) {
+                if (serviceStatus[id] != NO_STATUS) {
+                    statusList.add(new ServiceStatusRecord(serviceNames[id], STATUS_VALUES[serviceStatus[id]]));
+                }
+            }
+            statusListener.accept(statusList);
+        }
         return false;
     }
 
+    /**
+     * Publishes the services whose status differs from the status at the start of the cycle, services that changed
+     * and then returned to their original status are not published.
+     */
+    private void publishStatusChanges() {
+        List<ServiceStatusChange> changeList = null;
+        if (statusChangeListener != null) {
+            changeList = new ArrayList<>(changedCount + removedServiceChanges.size());
+            changeList.addAll(removedServiceChanges);
+        }
+        removedServiceChanges.clear();
+        for (int i = 0; i < changedCount; i++) {
+            int id = changedIds[i];
+            byte previousStatus = cycleStartStatus[id];
+            cycleStartStatus[id] = UNCHANGED;
+            if (changeList != null && previousStatus != UNCHANGED && previousStatus != serviceStatus[id]) {
+                changeList.add(new ServiceStatusChange(serviceNames[id], toStatus(previousStatus), toStatus(serviceStatus[id])));
+            }
+        }
+        changedCount = 0;
+        if (changeList != null && !changeList.isEmpty()) {
+            statusChangeListener.accept(changeList);
+        }
+    }
+
+    /**
+     * @return the latest immutable status snapshot, safe to call from any thread
+     */
+    ServiceStatusSnapshot getStatusSnapshot() {
+        return statusSnapshot;
+    }
+
+    /**
+     * Publishes a new immutable snapshot if any status has changed since the last snapshot. The service name lookup is
+     * shared by every snapshot and only the services added or removed since the last snapshot are applied to it, a
+     * snapshot validates a lookup against its own copy of the service names.
+     */
+    void publishSnapshot() {
+        if (!snapshotStale && changedServiceIds.isEmpty()) {
+            return;
+        }
+        if (!changedServiceIds.isEmpty()) {
+            for (int i = 0; i < changedServiceIds.size(); i++) {
+                String name = changedServiceIds.get(i);
+                Integer id = serviceIdMap.get(name);
+                if (id == null) {
+                    snapshotIdMap.remove(name);
+                } else {
+                    snapshotIdMap.put(name, id);
+                }
+            }
+            changedServiceIds.clear();
+            snapshotNames = Arrays.copyOf(serviceNames, idCount);
+        }
+        statusSnapshot = new ServiceStatusSnapshot(
+                readOnlySnapshotIdMap, snapshotNames, Arrays.copyOf(serviceStatus, idCount), statusCounts.clone());
+        snapshotStale = false;
+    }
+
+    /**
+     * Completes the futures of waiters released in this cycle, normally when the service reached the target status or
+     * exceptionally when a task failed. Called after the snapshot is published so a completed future always observes
+     * the new status.
+     */
+    private void completeReleasedWaiters() {
+        for (int i = 0; i < releasedWaiters.size(); i++) {
+            releasedWaiters.get(i).run();
+        }
+        releasedWaiters.clear();
+    }
+
+    private void clearStatusChanges() {
+        for (int i = 0; i < changedCount; i++) {
+            cycleStartStatus[changedIds[i]] = UNCHANGED;
+        }
+        changedCount = 0;
+        removedServiceChanges.clear();
+    }
+
+    private static Service.Status toStatus(byte status) {
+        return status < 0 ? null : STATUS_VALUES[status];
+    }
+
+    private static class StatusWaiter {
+        private final CompletableFuture<Void> future;
+        private final byte targetStatus;
+
+        private StatusWaiter(CompletableFuture<Void> future, byte targetStatus) {
+            this.future = future;
+            this.targetStatus = targetStatus;
+        }
+    }
+
     @OnEventHandler(propagate = false)
     public boolean removeDependent(RemoveService removeServiceEvent){
-        serviceStatusMap.remove(removeServiceEvent.getServiceName());
+        removeServiceStatus(removeServiceEvent.getServiceName());
         return false;
     }
 
+    public void removeServiceStatus(String name) {
+        Integer id = serviceIdMap.remove(name);
+        if (id != null) {
+            //the id may be reused before the next publication, record the removal against the name now
+            byte previousStatus = cycleStartStatus[id] == UNCHANGED ? serviceStatus[id] : cycleStartStatus[id];
+            if (previousStatus != NO_STATUS) {
+                removedServiceChanges.add(new ServiceStatusChange(name, toStatus(previousStatus), null));
+            }
+            updateStatus(id, NO_STATUS);
+            cycleStartStatus[id] = UNCHANGED;
+            statusWatchers.get(id).clear();
+            failWaiters(statusWaiters, id, name);
+            failWaiters(failureWaiters, id, name);
+            startTaskControllers[id] = null;
+            stopTaskControllers[id] = null;
+            serviceNames[id] = null;
+            freeIds.add(id);
+            changedServiceIds.add(name);
+        }
+    }
+
+    private void failWaiters(List<List<StatusWaiter>> waiterLists, int id, String name) {
+        List<StatusWaiter> waiters = waiterLists.get(id);
+        if (waiters != null) {
+            releaseRemovedWaiters(waiters, name);
+            waiterLists.set(id, null);
+        }
+    }
+
+    /**
+     * Publishes the snapshot and completes the waiters released by services removed outside a graph cycle, a
+     * completed future observes the service as removed.
+     */
+    void publishRemovedServices() {
+        publishSnapshot();
+        completeReleasedWaiters();
+    }
+
     @Initialise
     public void init() {
     }
@@ -125,4 +771,10 @@ public class ServiceStatusRecordCache implements NamedNode {
     public void normalMode(){
         rebuild = false;
     }
+
+    private static byte[] newStatusArray(int capacity, byte initialValue) {
+        byte[] statusArray = new byte[capacity];
+        Arrays.fill(statusArray, initialValue);
+        return statusArray;
+    }
 }
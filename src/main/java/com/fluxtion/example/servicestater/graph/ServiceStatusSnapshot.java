@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceStatusRecord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable copy of the status of every service, published by the {@link ServiceStatusRecordCache} at the end of a
+ * graph cycle and safe to read from any thread.
+ * <p>
+ * The service id lookup is shared with later snapshots and may already hold the ids of services added or removed
+ * after this snapshot, a name is only resolved if this snapshot holds the same name at the id.
+ */
+final class ServiceStatusSnapshot {
+
+    static final ServiceStatusSnapshot EMPTY = new ServiceStatusSnapshot(
+            Collections.emptyMap(), new String[0], new byte[0], new int[Service.Status.values().length]);
+    private static final Service.Status[] STATUS_VALUES = Service.Status.values();
+    private final Map<String, Integer> serviceIdMap;
+    private final String[] serviceNames;
+    private final byte[] serviceStatus;
+    private final int[] statusCounts;
+
+    ServiceStatusSnapshot(Map<String, Integer> serviceIdMap, String[] serviceNames, byte[] serviceStatus, int[] statusCounts) {
+        this.serviceIdMap = serviceIdMap;
+        this.serviceNames = serviceNames;
+        this.serviceStatus = serviceStatus;
+        this.statusCounts = statusCounts;
+    }
+
+    Service.Status getStatus(String serviceName) {
+        Integer id = serviceIdMap.get(serviceName);
+        if (id == null || id >= serviceNames.length || !serviceName.equals(serviceNames[id])) {
+            return null;
+        }
+        return serviceStatus[id] < 0 ? null : STATUS_VALUES[serviceStatus[id]];
+    }
+
+    int getCount(Service.Status status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    List<ServiceStatusRecord> getStatusList() {
+        List<ServiceStatusRecord> statusList = new ArrayList<>(serviceNames.length);
+        for (int id = 0; id < serviceStatus.length; id++) {
+            if (serviceStatus[id] >= 0 && serviceNames[id] != null) {
+                statusList.add(new ServiceStatusRecord(serviceNames[id], STATUS_VALUES[serviceStatus[id]]));
+            }
+        }
+        return statusList;
+    }
+}
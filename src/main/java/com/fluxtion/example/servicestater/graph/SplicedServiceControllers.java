@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.runtime.annotations.OnEventHandler;
+import com.fluxtion.runtime.annotations.PushReference;
+import com.fluxtion.runtime.node.NamedNode;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Routes events to the {@link ServiceController}s spliced into a running interpreted graph. The dispatch tables of an
+ * interpreted processor are fixed when the processor is built, a controller added later is registered here and
+ * receives events through this node. Status changes between controllers are propagated by the
+ * {@link ServiceStatusRecordCache}, which is triggered after this node.
+ */
+public class SplicedServiceControllers implements NamedNode {
+
+    @PushReference
+    private final ServiceStatusRecordCache serviceStatusRecordCache;
+    private transient final Map<String, ForwardPassServiceController> startControllers = new LinkedHashMap<>();
+    private transient final Map<String, ReversePassServiceController> stopControllers = new LinkedHashMap<>();
+
+    public SplicedServiceControllers(ServiceStatusRecordCache serviceStatusRecordCache) {
+        this.serviceStatusRecordCache = serviceStatusRecordCache;
+    }
+
+    void register(ServiceController controller) {
+        if (controller instanceof ForwardPassServiceController) {
+            startControllers.put(controller.getServiceName(), (ForwardPassServiceController) controller);
+        } else if (controller instanceof ReversePassServiceController) {
+            stopControllers.put(controller.getServiceName(), (ReversePassServiceController) controller);
+        }
+    }
+
+    void deregister(ServiceController controller) {
+        if (controller instanceof ForwardPassServiceController) {
+            startControllers.remove(controller.getServiceName(), controller);
+        } else if (controller instanceof ReversePassServiceController) {
+            stopControllers.remove(controller.getServiceName(), controller);
+        }
+    }
+
+    @OnEventHandler
+    public boolean startAllServices(GraphEvent.RequestStartAll startAll) {
+        return anyChanged(startControllers.values(), c -> c.startAllServices(startAll));
+    }
+
+    @OnEventHandler
+    public boolean startThisService(GraphEvent.RequestServiceStart startSingleService) {
+        ForwardPassServiceController controller = startControllers.get(startSingleService.getName());
+        return controller != null && controller.startThisService(startSingleService);
+    }
+
+    @OnEventHandler
+    public boolean startServices(GraphEvent.RequestServicesStart startServices) {
+        return anyChanged(startControllers.values(), c -> c.startServices(startServices));
+    }
+
+    @OnEventHandler
+    public boolean stopAllServices(GraphEvent.RequestStopAll stopAll) {
+        return anyChanged(stopControllers.values(), c -> c.stopAllServices(stopAll));
+    }
+
+    @OnEventHandler
+    public boolean stopThisService(GraphEvent.RequestServiceStop serviceStopRequest) {
+        ReversePassServiceController controller = stopControllers.get(serviceStopRequest.getName());
+        return controller != null && controller.stopThisService(serviceStopRequest);
+    }
+
+    @OnEventHandler
+    public boolean stopServices(GraphEvent.RequestServicesStop stopServices) {
+        return anyChanged(stopControllers.values(), c -> c.stopServices(stopServices));
+    }
+
+    @OnEventHandler
+    public boolean notifyServiceStarted(GraphEvent.NotifyServiceStarted statusUpdate) {
+        ReversePassServiceController controller = stopControllers.get(statusUpdate.getName());
+        return controller != null && controller.notifyServiceStarted(statusUpdate);
+    }
+
+    @OnEventHandler
+    public boolean notifyServicesStarted(GraphEvent.NotifyServicesStarted statusUpdate) {
+        return anyChanged(stopControllers.values(), c -> c.notifyServicesStarted(statusUpdate));
+    }
+
+    @OnEventHandler
+    public boolean notifyServiceStopped(GraphEvent.NotifyServiceStopped statusUpdate) {
+        ForwardPassServiceController controller = startControllers.get(statusUpdate.getName());
+        return controller != null && controller.notifyServiceStopped(statusUpdate);
+    }
+
+    @OnEventHandler
+    public boolean notifyServicesStopped(GraphEvent.NotifyServicesStopped statusUpdate) {
+        return anyChanged(startControllers.values(), c -> c.notifyServicesStopped(statusUpdate));
+    }
+
+    @OnEventHandler(propagate = false)
+    public boolean publishStartTasks(GraphEvent.PublishStartTask publishStartTask) {
+        stopControllers.values().forEach(ReversePassServiceController::startIfParentsStarted);
+        return false;
+    }
+
+    @OnEventHandler(propagate = false)
+    public boolean publishStopTasks(GraphEvent.PublishStopTask publishStopTask) {
+        startControllers.values().forEach(ForwardPassServiceController::stopIfParentsStopped);
+        return false;
+    }
+
+    @OnEventHandler(propagate = false)
+    public boolean registerWrappedInstance(GraphEvent.RegisterWrappedInstance registerWrappedInstance) {
+        ForwardPassServiceController startController = startControllers.get(registerWrappedInstance.getName());
+        if (startController != null) {
+            startController.registerWrappedInstance(registerWrappedInstance);
+        }
+        ReversePassServiceController stopController = stopControllers.get(registerWrappedInstance.getName());
+        if (stopController != null) {
+            stopController.registerWrappedInstance(registerWrappedInstance);
+        }
+        return false;
+    }
+
+    @OnEventHandler(propagate = false)
+    public boolean removeDependent(GraphEvent.RemoveService removeService) {
+        startControllers.values().forEach(c -> c.removeDependent(removeService));
+        stopControllers.values().forEach(c -> c.removeDependent(removeService));
+        return false;
+    }
+
+    private static <T extends ServiceController> boolean anyChanged(Collection<T> controllers, Predicate<T> handler) {
+        boolean changed = false;
+        for (T controller : controllers) {
+            changed |= handler.test(controller);
+        }
+        return changed;
+    }
+
+    @Override
+    public String getName() {
+        return "splicedServiceControllers";
+    }
+}
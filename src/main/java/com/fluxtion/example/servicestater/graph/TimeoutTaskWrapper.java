@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.TaskWrapper;
+import com.fluxtion.example.servicestater.helpers.HashedTimingWheel;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Wraps a {@link TaskWrapper} with a timeout tracked by a {@link HashedTimingWheel}, the timeout starts when the task
+ * starts running so time spent queued in the executor does not count against it. A failed result is reported to a
+ * failure handler, as {@link ReportFailureTaskWrapper} does.
+ * <p>
+ * If the timeout expires before the task completes the running task is interrupted. A failed result with a
+ * {@link TimeoutException} is reported to the failure handler from the timing wheel thread. Exactly one result is
+ * reported for the task, whichever of completion or expiry happens first.
+ */
+class TimeoutTaskWrapper extends TaskWrapper {
+    private static final int PENDING = 0;
+    private static final int RUNNING = 1;
+    private static final int COMPLETE = 2;
+    private static final int TIMED_OUT = 3;
+    private final TaskWrapper taskWrapper;
+    private final Consumer<TaskExecutionResult> failureHandler;
+    private final TaskExecutionResult timedOutResult;
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+    private final HashedTimingWheel timingWheel;
+    private HashedTimingWheel.Timeout timeout;
+    private Thread runner;
+
+    public TimeoutTaskWrapper(TaskWrapper taskWrapper, HashedTimingWheel timingWheel, Consumer<TaskExecutionResult> failureHandler) {
+        super(taskWrapper);
+        this.taskWrapper = taskWrapper;
+        this.failureHandler = failureHandler;
+        this.timedOutResult = new TaskExecutionResult(false, isStartTask(), getServiceName(), true,
+                new TimeoutException("task timed out after " + getTimeoutMillis() + "ms, service:'" + getServiceName() + "'"));
+        this.timingWheel = timingWheel;
+    }
+
+    @Override
+    public TaskExecutionResult call() {
+        if (!state.compareAndSet(PENDING, RUNNING)) {
+            return timedOutResult;
+        }
+        synchronized (this) {
+            runner = Thread.currentThread();
+        }
+        timeout = timingWheel.schedule(this::expire, TimeUnit.MILLISECONDS.toNanos(getTimeoutMillis()));
+        TaskExecutionResult result;
+        try {
+            result = taskWrapper.call();
+        } finally {
+            synchronized (this) {
+                runner = null;
+            }
+        }
+        if (state.compareAndSet(RUNNING, COMPLETE)) {
+            timeout.cancel();
+            if (!result.isSuccess()) {
+                failureHandler.accept(result);
+            }
+            return result;
+        }
+        //timed out while running, clear the cancellation interrupt before returning the thread to the executor
+        Thread.interrupted();
+        return timedOutResult;
+    }
+
+    private void expire() {
+        int currentState;
+        do {
+            currentState = state.get();
+            if (currentState == COMPLETE || currentState == TIMED_OUT) {
+                return;
+            }
+        } while (!state.compareAndSet(currentState, TIMED_OUT));
+        synchronized (this) {
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+        failureHandler.accept(timedOutResult);
+    }
+}
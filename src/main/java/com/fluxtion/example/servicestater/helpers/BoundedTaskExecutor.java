@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.fluxtion.example.servicestater.helpers;
+
+import com.fluxtion.example.servicestater.TaskWrapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link TaskWrapper.TaskExecutor} with a fixed number of threads, tasks that cannot run immediately queue in the
+ * executor in the order they were published.
+ * <p>
+ * Concurrency groups cap the number of tasks of a group that run at once, a task is tagged with the concurrency group
+ * of its service. A task whose group is at its limit waits in the group queue without occupying a thread or a place
+ * in the executor queue, when a task of the group completes the next waiting task of the group is submitted. Tasks
+ * without a group, or with a group that has no limit, are only bounded by the thread count.
+ * <pre>
+ * serviceManager.registerTaskExecutor(
+ *     new BoundedTaskExecutor(16)
+ *         .concurrencyGroupLimit("db-heavy", 2));
+ * </pre>
+ */
+@Slf4j
+public class BoundedTaskExecutor implements TaskWrapper.TaskExecutor {
+
+    private static final LongAdder COUNT = new LongAdder();
+    private final ExecutorService executorService;
+    private final Map<String, ConcurrencyGroup> concurrencyGroups = new ConcurrentHashMap<>();
+
+    public BoundedTaskExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param maxThreads the maximum number of tasks executing at once
+     */
+    public BoundedTaskExecutor(int maxThreads) {
+        if (maxThreads <= 0) {
+            throw new IllegalArgumentException("thread count must be positive");
+        }
+        executorService = new ThreadPoolExecutor(
+                maxThreads, maxThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), this::namedThreadFactory);
+        ((ThreadPoolExecutor) executorService).allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Limits the number of tasks of a concurrency group that run at once.
+     *
+     * @param concurrencyGroup the name of the concurrency group
+     * @param limit            the maximum number of tasks of the group running at once
+     * @return this executor
+     */
+    public BoundedTaskExecutor concurrencyGroupLimit(String concurrencyGroup, int limit) {
+        Objects.requireNonNull(concurrencyGroup, "concurrency group cannot be null");
+        if (limit <= 0) {
+            throw new IllegalArgumentException("concurrency group limit must be positive");
+        }
+        concurrencyGroups.put(concurrencyGroup, new ConcurrencyGroup(limit));
+        return this;
+    }
+
+    @Override
+    public void close() {
+        executorService.shutdown();
+    }
+
+    @Override
+    public void accept(List<TaskWrapper> taskWrappers) {
+        for (TaskWrapper taskWrapper : taskWrappers) {
+            String groupName = taskWrapper.getConcurrencyGroup();
+            ConcurrencyGroup group = groupName == null ? null : concurrencyGroups.get(groupName);
+            if (group == null) {
+                executorService.submit(taskWrapper);
+            } else if (group.tryAcquire(taskWrapper)) {
+                submitToGroup(group, taskWrapper);
+            }
+        }
+    }
+
+    private void submitToGroup(ConcurrencyGroup group, TaskWrapper taskWrapper) {
+        executorService.execute(() -> {
+            try {
+                taskWrapper.call();
+            } finally {
+                TaskWrapper nextTask = group.release();
+                if (nextTask != null) {
+                    submitToGroup(group, nextTask);
+                }
+            }
+        });
+    }
+
+    private Thread namedThreadFactory(Runnable runnable) {
+        Thread thread = new Thread(runnable, "boundedTaskExecutor-" + COUNT.intValue());
+        COUNT.increment();
+        return thread;
+    }
+
+    private static class ConcurrencyGroup {
+        private final int limit;
+        private final Queue<TaskWrapper> waitingTasks = new ArrayDeque<>();
+        private int running;
+
+        private ConcurrencyGroup(int limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * @return true if the task can run now, otherwise the task is queued in the group
+         */
+        private synchronized boolean tryAcquire(TaskWrapper taskWrapper) {
+            if (running < limit) {
+                running++;
+                return true;
+            }
+            waitingTasks.add(taskWrapper);
+            return false;
+        }
+
+        /**
+         * @return the next waiting task, which takes the place of the completed task, or null
+         */
+        private synchronized TaskWrapper release() {
+            TaskWrapper nextTask = waitingTasks.poll();
+            if (nextTask == null) {
+                running--;
+            }
+            return nextTask;
+        }
+    }
+}
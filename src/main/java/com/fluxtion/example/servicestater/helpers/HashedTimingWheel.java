@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.fluxtion.example.servicestater.helpers;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timing wheel that runs expiry actions on a single worker thread. Scheduling and cancelling a timeout are
+ * constant time and allocate a single {@link Timeout}, so tens of thousands of pending timeouts cost no more than a
+ * list entry each.
+ * <p>
+ * The wheel is an array of buckets, each bucket covers one tick. A timeout is added to the bucket of its deadline
+ * tick with the number of full wheel rotations remaining. The worker thread advances one bucket per tick, expiring
+ * the timeouts in the bucket whose rotations have elapsed. Cancelled timeouts are dropped when their bucket is next
+ * visited. Expiry is accurate to one tick.
+ * <p>
+ * Timeouts are scheduled from any thread through a lock-free queue that the worker drains every tick. The worker thread
+ * is started when the first timeout is scheduled.
+ */
+@Slf4j
+public class HashedTimingWheel implements AutoCloseable {
+
+    private static final LongAdder COUNT = new LongAdder();
+    private final long tickNanos;
+    private final int mask;
+    private final List<List<Timeout>> wheel;
+    private final Queue<Timeout> scheduledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final long startTime;
+    private final Thread workerThread;
+    private long tick;
+    private volatile boolean running = true;
+
+    public HashedTimingWheel() {
+        this(Duration.ofMillis(10), 512);
+    }
+
+    /**
+     * @param tickDuration the duration of a tick, the resolution of the wheel
+     * @param wheelSize    the number of buckets, rounded up to a power of two
+     */
+    public HashedTimingWheel(Duration tickDuration, int wheelSize) {
+        Objects.requireNonNull(tickDuration, "tick duration cannot be null");
+        if (tickDuration.isNegative() || tickDuration.isZero() || wheelSize <= 0) {
+            throw new IllegalArgumentException("tick duration and wheel size must be positive");
+        }
+        tickNanos = tickDuration.toNanos();
+        int bucketCount = 1;
+        while (bucketCount < wheelSize) {
+            bucketCount <<= 1;
+        }
+        mask = bucketCount - 1;
+        wheel = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        startTime = System.nanoTime();
+        workerThread = new Thread(this::runWheel, "timingWheel-" + COUNT.intValue());
+        COUNT.increment();
+        workerThread.setDaemon(true);
+    }
+
+    /**
+     * Schedules an action to run on the worker thread once the delay has elapsed, unless the returned
+     * {@link Timeout} is cancelled first.
+     *
+     * @param action the action to run on expiry
+     * @param delay  the delay before expiry
+     * @return the handle to cancel the timeout
+     */
+    public Timeout schedule(Runnable action, Duration delay) {
+        return schedule(action, delay.toNanos());
+    }
+
+    public Timeout schedule(Runnable action, long delayNanos) {
+        Objects.requireNonNull(action, "timeout action cannot be null");
+        if (!running) {
+            throw new IllegalStateException("timing wheel has been closed");
+        }
+        Timeout timeout = new Timeout(action, System.nanoTime() + Math.max(0, delayNanos) - startTime);
+        scheduledTimeouts.offer(timeout);
+        if (!started.get() && started.compareAndSet(false, true)) {
+            workerThread.start();
+        }
+        return timeout;
+    }
+
+    /**
+     * @return true if the calling thread is the worker thread running expiry actions
+     */
+    public boolean isWorkerThread() {
+        return Thread.currentThread() == workerThread;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (started.get()) {
+            LockSupport.unpark(workerThread);
+        }
+    }
+
+    private void runWheel() {
+        tick = (System.nanoTime() - startTime) / tickNanos;
+        while (running) {
+            long sleepNanos;
+            while ((sleepNanos = startTime + (tick + 1) * tickNanos - System.nanoTime()) > 0 && running) {
+                LockSupport.parkNanos(this, sleepNanos);
+            }
+            if (!running) {
+                break;
+            }
+            addScheduledTimeouts();
+            expireTimeouts(wheel.get((int) (tick & mask)));
+            tick++;
+        }
+        log.info("timing wheel stopped");
+    }
+
+    private void addScheduledTimeouts() {
+        Timeout timeout;
+        while ((timeout = scheduledTimeouts.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long deadlineTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (deadlineTick - tick) / wheel.size();
+            wheel.get((int) (Math.max(deadlineTick, tick) & mask)).add(timeout);
+        }
+    }
+
+    private void expireTimeouts(List<Timeout> bucket) {
+        for (int i = bucket.size() - 1; i >= 0; i--) {
+            Timeout timeout = bucket.get(i);
+            boolean remove = timeout.isCancelled();
+            if (!remove && timeout.remainingRounds <= 0) {
+                remove = true;
+                timeout.expire();
+            } else if (!remove) {
+                timeout.remainingRounds--;
+            }
+            if (remove) {
+                //swap remove, order within a bucket is irrelevant
+                Timeout last = bucket.remove(bucket.size() - 1);
+                if (i < bucket.size()) {
+                    bucket.set(i, last);
+                }
+            }
+        }
+    }
+
+    /**
+     * A handle to a scheduled timeout.
+     */
+    public static final class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private final Runnable action;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private long remainingRounds;
+
+        private Timeout(Runnable action, long deadline) {
+            this.action = action;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return true if the timeout was cancelled before expiry
+         */
+        public boolean cancel() {
+            return state.compareAndSet(PENDING, CANCELLED);
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (state.compareAndSet(PENDING, EXPIRED)) {
+                try {
+                    action.run();
+                } catch (Throwable t) {
+                    log.error("problem running timeout action", t);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.fluxtion.example.servicestater.helpers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the {@link ExecutorService} of a {@link VirtualThreadTaskExecutor}. This is the Java 11 version, tasks run
+ * on a cached pool of platform threads. The multi-release jar replaces this class on Java 21+ with a version that runs
+ * each task on a new virtual thread, see src/main/java21.
+ */
+final class TaskThreads {
+
+    private TaskThreads() {
+    }
+
+    static boolean isVirtual() {
+        return false;
+    }
+
+    static ExecutorService newExecutorService(ThreadFactory platformThreadFactory) {
+        return Executors.newCachedThreadPool(platformThreadFactory);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.fluxtion.example.servicestater.helpers;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import com.fluxtion.example.servicestater.ServiceStatusChange;
+import com.fluxtion.example.servicestater.ServiceStatusRecord;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Publishes service status to listeners on a dedicated publisher thread at a maximum rate. Register as the status
+ * change listener of a {@link ServiceManager}, the graph thread only merges the changes into a pending map and never
+ * runs the listeners.
+ * <p>
+ * Changes received between publications are coalesced, a service that changes status several times is published once
+ * with the status before the first change and the latest status. Services that return to their original status are
+ * not published.
+ * <p>
+ * Listeners:
+ * <ul>
+ *     <li>status change listener - receives the coalesced changes</li>
+ *     <li>status listener - receives the latest status of every service when any status has changed</li>
+ * </ul>
+ */
+@Slf4j
+public class ThrottledStatusPublisher implements Consumer<List<ServiceStatusChange>>, AutoCloseable {
+
+    private static final LongAdder COUNT = new LongAdder();
+    private final long minPublishIntervalNanos;
+    private final Consumer<List<ServiceStatusChange>> statusChangeListener;
+    private final Consumer<List<ServiceStatusRecord>> statusListener;
+    private final Map<String, Service.Status> currentStatus = new LinkedHashMap<>();
+    private final Thread publisherThread;
+    private Map<String, ServiceStatusChange> pendingChanges = new LinkedHashMap<>();
+    private long lastPublishTime;
+    private volatile boolean running = true;
+
+    /**
+     * Publishes the latest status of every service to the status listener.
+     *
+     * @param minPublishInterval the minimum interval between publications
+     * @param statusListener     the status listener
+     * @return the publisher to register as a status change listener
+     */
+    public static ThrottledStatusPublisher statusPublisher(Duration minPublishInterval, Consumer<List<ServiceStatusRecord>> statusListener) {
+        return new ThrottledStatusPublisher(minPublishInterval, null, statusListener);
+    }
+
+    /**
+     * Publishes the coalesced status changes to the status change listener.
+     *
+     * @param minPublishInterval   the minimum interval between publications
+     * @param statusChangeListener the status change listener
+     * @return the publisher to register as a status change listener
+     */
+    public static ThrottledStatusPublisher statusChangePublisher(Duration minPublishInterval, Consumer<List<ServiceStatusChange>> statusChangeListener) {
+        return new ThrottledStatusPublisher(minPublishInterval, statusChangeListener, null);
+    }
+
+    public ThrottledStatusPublisher(
+            Duration minPublishInterval,
+            Consumer<List<ServiceStatusChange>> statusChangeListener,
+            Consumer<List<ServiceStatusRecord>> statusListener) {
+        Objects.requireNonNull(minPublishInterval, "minimum publish interval cannot be null");
+        this.minPublishIntervalNanos = minPublishInterval.toNanos();
+        this.statusChangeListener = statusChangeListener;
+        this.statusListener = statusListener;
+        this.lastPublishTime = System.nanoTime() - minPublishIntervalNanos;
+        publisherThread = new Thread(this::publishLoop, "statusPublisher-" + COUNT.intValue());
+        COUNT.increment();
+        publisherThread.setDaemon(true);
+        publisherThread.start();
+    }
+
+    /**
+     * Merges the changes of a graph cycle into the pending changes, called on the graph thread.
+     *
+     * @param statusChanges the status changes of a graph cycle
+     */
+    @Override
+    public void accept(List<ServiceStatusChange> statusChanges) {
+        synchronized (this) {
+            boolean wasEmpty = pendingChanges.isEmpty();
+            for (ServiceStatusChange change : statusChanges) {
+                ServiceStatusChange pending = pendingChanges.get(change.getServiceName());
+                Service.Status previousStatus = pending == null ? change.getPreviousStatus() : pending.getPreviousStatus();
+                pendingChanges.put(change.getServiceName(), new ServiceStatusChange(change.getServiceName(), previousStatus, change.getStatus()));
+            }
+            if (wasEmpty && !pendingChanges.isEmpty()) {
+                notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        publisherThread.interrupt();
+    }
+
+    private void publishLoop() {
+        while (running) {
+            try {
+                long waitNanos = lastPublishTime + minPublishIntervalNanos - System.nanoTime();
+                if (waitNanos > 0) {
+                    Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+                }
+                Map<String, ServiceStatusChange> changes;
+                synchronized (this) {
+                    while (pendingChanges.isEmpty()) {
+                        wait();
+                    }
+                    changes = pendingChanges;
+                    pendingChanges = new LinkedHashMap<>();
+                }
+                lastPublishTime = System.nanoTime();
+                publish(changes);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Throwable t) {
+                log.error("problem publishing service status", t);
+            }
+        }
+        log.info("status publisher stopped");
+    }
+
+    private void publish(Map<String, ServiceStatusChange> changes) {
+        List<ServiceStatusChange> changeList = new ArrayList<>(changes.size());
+        for (ServiceStatusChange change : changes.values()) {
+            if (change.getPreviousStatus() != change.getStatus()) {
+                changeList.add(change);
+                if (change.getStatus() == null) {
+                    currentStatus.remove(change.getServiceName());
+                } else {
+                    currentStatus.put(change.getServiceName(), change.getStatus());
+                }
+            }
+        }
+        if (changeList.isEmpty()) {
+            return;
+        }
+        if (statusChangeListener != null) {
+            statusChangeListener.accept(changeList);
+        }
+        if (statusListener != null) {
+            List<ServiceStatusRecord> statusList = new ArrayList<>(currentStatus.size());
+            currentStatus.forEach((name, status) -> statusList.add(new ServiceStatusRecord(name, status)));
+            statusListener.accept(statusList);
+        }
+    }
+}
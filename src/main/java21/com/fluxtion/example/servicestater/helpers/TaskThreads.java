@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) Greg Higgins 2021.
+ *
+ * Licensed under the GNU AFFERO GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.gnu.org/licenses/agpl-3.0.en.html
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.fluxtion.example.servicestater.helpers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the {@link ExecutorService} of a {@link VirtualThreadTaskExecutor}. This is the Java 21 version packaged in
+ * META-INF/versions/21 of the multi-release jar, each task runs on a new virtual thread.
+ */
+final class TaskThreads {
+
+    private TaskThreads() {
+    }
+
+    static boolean isVirtual() {
+        return true;
+    }
+
+    static ExecutorService newExecutorService(ThreadFactory platformThreadFactory) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("virtualTaskExecutor-", 0).factory());
+    }
+}
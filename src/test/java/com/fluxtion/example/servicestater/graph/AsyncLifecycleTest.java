@@ -0,0 +1,110 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import com.fluxtion.example.servicestater.ServiceTaskException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.fluxtion.example.servicestater.Service.Status.STARTED;
+import static com.fluxtion.example.servicestater.Service.Status.STOPPED;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AsyncLifecycleTest {
+
+    @Test
+    public void startAndStopCompleteOnStatusTransition() throws Exception {
+        ServiceManager serviceManager = ServiceManager.build(services(false));
+        CompletableFuture<Void> started = serviceManager.startServiceAsync("A");
+        assertThat(started.isDone(), is(false));
+
+        serviceManager.serviceStarted("B");
+        assertThat(started.isDone(), is(false));
+        serviceManager.serviceStarted("A");
+        started.get(1, TimeUnit.SECONDS);
+        assertThat(serviceManager.serviceStatus("B"), is(STARTED));
+
+        CompletableFuture<Void> stopped = serviceManager.stopServiceAsync("B");
+        serviceManager.serviceStopped("A");
+        assertThat(stopped.isDone(), is(false));
+        serviceManager.serviceStopped("B");
+        stopped.get(1, TimeUnit.SECONDS);
+        assertThat(serviceManager.serviceStatus("A"), is(STOPPED));
+    }
+
+    @Test
+    public void completeWithTaskNotifications() throws Exception {
+        ServiceManager serviceManager = ServiceManager.build(services(false));
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        serviceManager.startServiceAsync("A").get(1, TimeUnit.SECONDS);
+        serviceManager.stopServiceAsync("B").get(1, TimeUnit.SECONDS);
+
+        CompletableFuture<Void> alreadyStopped = serviceManager.stopServiceAsync("A");
+        assertThat(alreadyStopped.isDone(), is(true));
+    }
+
+    @Test
+    public void failedTaskCompletesExceptionally() {
+        ServiceManager serviceManager = ServiceManager.build(services(true));
+        serviceManager.failFastOnTaskException(false);
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        CompletableFuture<Void> started = serviceManager.startServiceAsync("A");
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> started.get(1, TimeUnit.SECONDS));
+        assertThat(thrown.getCause(), instanceOf(ServiceTaskException.class));
+        assertThat(((ServiceTaskException) thrown.getCause()).getTaskExecutionResult().getServiceName(), is("B"));
+    }
+
+    @Test
+    public void removedServiceCompletesExceptionallyAfterRemoval() {
+        ServiceManager serviceManager = ServiceManager.build(services(false));
+        CompletableFuture<Void> started = serviceManager.startServiceAsync("A");
+        List<Service.Status> statusOnCompletion = new ArrayList<>();
+        started.whenComplete((v, e) -> statusOnCompletion.add(serviceManager.serviceStatus("A")));
+
+        serviceManager.removeService("A");
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> started.get(1, TimeUnit.SECONDS));
+        assertThat(thrown.getCause(), instanceOf(IllegalStateException.class));
+        assertThat(statusOnCompletion, contains(nullValue()));
+    }
+
+    @Test
+    public void unknownServiceCompletesExceptionally() {
+        ServiceManager serviceManager = ServiceManager.build(services(false));
+        CompletableFuture<Void> started = serviceManager.startServiceAsync("unknown");
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> started.get(1, TimeUnit.SECONDS));
+        assertThat(thrown.getCause(), instanceOf(IllegalArgumentException.class));
+    }
+
+    @Test
+    public void singleWriterCompletes() throws Exception {
+        ServiceManager serviceManager = ServiceManager.asSingleWriter(ServiceManager.build(services(false)));
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        serviceManager.startServiceAsync("A").get(1, TimeUnit.SECONDS);
+        assertThat(serviceManager.serviceStatus("A"), is(STARTED));
+        serviceManager.shutdown();
+    }
+
+    private static Service[] services(boolean failRequiredService) {
+        Service svcB = Service.builder("B")
+                .startTask(() -> {
+                    if (failRequiredService) {
+                        throw new RuntimeException("start failed:B");
+                    }
+                })
+                .stopTask(() -> {})
+                .build();
+        Service svcA = Service.builder("A").requiredServices(svcB).startTask(() -> {}).stopTask(() -> {}).build();
+        return new Service[]{svcB, svcA};
+    }
+}
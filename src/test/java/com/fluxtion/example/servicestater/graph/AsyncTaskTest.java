@@ -0,0 +1,97 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import lombok.SneakyThrows;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.fluxtion.example.servicestater.Service.Status.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AsyncTaskTest {
+
+    private static volatile CompletableFuture<?> incompleteStage;
+
+    @SneakyThrows
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void stageCompletionStartsAndStopsService(boolean compiled) {
+        Service svcB = Service.builder("B")
+                .asyncStartTask(AsyncTaskTest::completeLater)
+                .asyncStopTask(AsyncTaskTest::completeLater)
+                .build();
+        Service svcA = Service.builder("A")
+                .requiredServices(svcB)
+                .asyncStartTask(AsyncTaskTest::completeLater)
+                .asyncStopTask(AsyncTaskTest::completeLater)
+                .build();
+        ServiceManager serviceManager = new FluxtionServiceManager().compiled(compiled).buildServiceController(svcB, svcA);
+        CompletableFuture<Void> aStarted = serviceManager.startServiceAsync("A");
+        assertThat(serviceManager.serviceStatus("B"), is(STARTING));
+        assertThat(serviceManager.serviceStatus("A"), is(WAITING_FOR_PARENTS_TO_START));
+
+        aStarted.get(5, TimeUnit.SECONDS);
+        assertThat(serviceManager.serviceStatus("A"), is(STARTED));
+        assertThat(serviceManager.serviceStatus("B"), is(STARTED));
+
+        serviceManager.stopServiceAsync("B").get(5, TimeUnit.SECONDS);
+        assertThat(serviceManager.serviceStatus("B"), is(STOPPED));
+        assertThat(serviceManager.serviceStatus("A"), is(STOPPED));
+        serviceManager.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void exceptionalCompletionFailsService(boolean compiled) {
+        Service svcB = Service.builder("B").asyncStartTask(AsyncTaskTest::failLater).build();
+        Service svcA = Service.builder("A").requiredServices(svcB).asyncStartTask(AsyncTaskTest::completeLater).build();
+        ServiceManager serviceManager = new FluxtionServiceManager().compiled(compiled).buildServiceController(svcB, svcA);
+        CompletableFuture<Void> aStarted = serviceManager.startServiceAsync("A");
+
+        assertThrows(ExecutionException.class, () -> aStarted.get(5, TimeUnit.SECONDS));
+        assertThat(serviceManager.serviceStatus("B"), is(FAILED));
+        assertThat(serviceManager.serviceStatus("A"), is(WAITING_FOR_PARENTS_TO_START));
+        serviceManager.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void incompleteStageTimesOut(boolean compiled) {
+        Service svcB = Service.builder("B")
+                .asyncStartTask(AsyncTaskTest::neverComplete)
+                .startTimeout(Duration.ofMillis(50))
+                .build();
+        ServiceManager serviceManager = new FluxtionServiceManager().compiled(compiled).buildServiceController(svcB);
+        CompletableFuture<Void> bStarted = serviceManager.startServiceAsync("B");
+
+        assertThrows(ExecutionException.class, () -> bStarted.get(5, TimeUnit.SECONDS));
+        assertThat(serviceManager.serviceStatus("B"), is(FAILED));
+        assertThat(incompleteStage.isCancelled(), is(true));
+        serviceManager.shutdown();
+    }
+
+    public static CompletionStage<?> completeLater() {
+        return CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS));
+    }
+
+    public static CompletionStage<?> failLater() {
+        return CompletableFuture.runAsync(() -> {
+            throw new IllegalStateException("connection refused");
+        }, CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS));
+    }
+
+    public static CompletionStage<?> neverComplete() {
+        incompleteStage = new CompletableFuture<>();
+        return incompleteStage;
+    }
+}
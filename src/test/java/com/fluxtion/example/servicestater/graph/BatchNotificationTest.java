@@ -0,0 +1,98 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import com.fluxtion.example.servicestater.ServiceStatusRecord;
+import com.fluxtion.example.servicestater.TaskWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+public class BatchNotificationTest extends BaseServiceStarterTest {
+
+    private final List<List<String>> taskBatches = new ArrayList<>();
+    private HashMap<String, ServiceStatusRecord> statusMap;
+    private ServiceManager serviceManager;
+
+    @Test
+    public void batchStartNotificationPublishesSingleTaskList() {
+        buildGraph();
+        serviceManager.startAllServices();
+        serviceManager.serviceStarted("D");
+        taskBatches.clear();
+
+        serviceManager.serviceStarted(Arrays.asList("B", "C"));
+        assertThat(taskBatches.size(), is(1));
+        assertThat(taskBatches.get(0), containsInAnyOrder("A"));
+        updateStatus(statusMap, "A", Service.Status.STARTING);
+        updateStatus(statusMap, "B", Service.Status.STARTED);
+        updateStatus(statusMap, "C", Service.Status.STARTED);
+        updateStatus(statusMap, "D", Service.Status.STARTED);
+        checkStatusMatch(statusMap);
+    }
+
+    @Test
+    public void batchStopNotificationPublishesSingleTaskList() {
+        buildGraph();
+        serviceManager.startAllServices();
+        serviceManager.serviceStarted(Arrays.asList("D", "B", "C", "A"));
+        serviceManager.stopAllServices();
+        serviceManager.serviceStopped("A");
+        taskBatches.clear();
+
+        serviceManager.serviceStopped(Arrays.asList("B", "C"));
+        assertThat(taskBatches.size(), is(1));
+        assertThat(taskBatches.get(0), containsInAnyOrder("D"));
+        updateStatus(statusMap, "A", Service.Status.STOPPED);
+        updateStatus(statusMap, "B", Service.Status.STOPPED);
+        updateStatus(statusMap, "C", Service.Status.STOPPED);
+        updateStatus(statusMap, "D", Service.Status.STOPPING);
+        checkStatusMatch(statusMap);
+    }
+
+    @Test
+    public void batchStartNotificationMergesTasksFromIndependentServices() {
+        buildGraph();
+        serviceManager.startAllServices();
+        taskBatches.clear();
+
+        //notifications arriving out of order are applied in a single cycle
+        serviceManager.serviceStarted(Arrays.asList("D", "B", "C"));
+        assertThat(taskBatches.size(), is(1));
+        assertThat(taskBatches.get(0), containsInAnyOrder("A"));
+    }
+
+    private void buildGraph() {
+        Service svcA = Service.builder("A").startTask(BatchNotificationTest::noOp).stopTask(BatchNotificationTest::noOp).build();
+        Service svcB = Service.builder("B").servicesThatRequireMe(svcA).startTask(BatchNotificationTest::noOp).stopTask(BatchNotificationTest::noOp).build();
+        Service svcC = Service.builder("C").servicesThatRequireMe(svcA).startTask(BatchNotificationTest::noOp).stopTask(BatchNotificationTest::noOp).build();
+        Service svcD = Service.builder("D").servicesThatRequireMe(svcB, svcC).startTask(BatchNotificationTest::noOp).stopTask(BatchNotificationTest::noOp).build();
+        serviceManager = ServiceManager.build(svcA, svcB, svcC, svcD);
+        serviceManager.registerStatusListener(this::recordServiceStatus);
+        serviceManager.registerTaskExecutor(new RecordingTaskExecutor());
+        statusMap = new HashMap<>();
+    }
+
+    private static void noOp() {
+    }
+
+    private class RecordingTaskExecutor implements TaskWrapper.TaskExecutor {
+
+        @Override
+        public void accept(List<TaskWrapper> taskWrappers) {
+            taskBatches.add(taskWrappers.stream().map(TaskWrapper::getServiceName).collect(Collectors.toList()));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import com.fluxtion.example.servicestater.TaskWrapper;
+import com.fluxtion.example.servicestater.helpers.BoundedTaskExecutor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.fluxtion.example.servicestater.Service.Status.STARTED;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class BoundedTaskExecutorTest {
+
+    @SneakyThrows
+    @Test
+    public void threadAndGroupLimits() {
+        BoundedTaskExecutor executor = new BoundedTaskExecutor(4).concurrencyGroupLimit("db-heavy", 2);
+        ConcurrencyRecorder allTasks = new ConcurrencyRecorder();
+        ConcurrencyRecorder dbTasks = new ConcurrencyRecorder();
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        CountDownLatch completed = new CountDownLatch(60);
+        List<TaskWrapper> tasks = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            boolean dbHeavy = i % 3 == 0;
+            tasks.add(new TaskWrapper("svc_" + i, true, () -> {
+                threadNames.add(Thread.currentThread().getName());
+                allTasks.enter();
+                if (dbHeavy) {
+                    dbTasks.enter();
+                }
+                sleep();
+                if (dbHeavy) {
+                    dbTasks.exit();
+                }
+                allTasks.exit();
+                completed.countDown();
+            }, 0, dbHeavy ? "db-heavy" : null));
+        }
+        executor.accept(tasks);
+
+        assertThat(completed.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(allTasks.maxConcurrent.get(), lessThanOrEqualTo(4));
+        assertThat(dbTasks.maxConcurrent.get(), lessThanOrEqualTo(2));
+        assertThat(threadNames.size(), lessThanOrEqualTo(4));
+        executor.close();
+    }
+
+    @SneakyThrows
+    @Test
+    public void startGraphWithConcurrencyGroups() {
+        List<Service> services = new ArrayList<>();
+        Service root = Service.builder("root").startTask(BoundedTaskExecutorTest::sleep).build();
+        services.add(root);
+        for (int i = 0; i < 10; i++) {
+            services.add(Service.builder("db_" + i)
+                    .requiredServices(root)
+                    .concurrencyGroup("db-heavy")
+                    .startTask(BoundedTaskExecutorTest::sleep)
+                    .build());
+        }
+        ServiceManager serviceManager = new FluxtionServiceManager().compiled(false).buildServiceController(services.toArray(new Service[0]));
+        serviceManager.registerTaskExecutor(new BoundedTaskExecutor(4).concurrencyGroupLimit("db-heavy", 2));
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        List<CompletableFuture<Void>> started = new ArrayList<>();
+        for (Service service : services) {
+            started.add(serviceManager.startServiceAsync(service.getName()));
+        }
+
+        CompletableFuture.allOf(started.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        assertThat(serviceManager.serviceCount(STARTED), is(11));
+        serviceManager.shutdown();
+    }
+
+    @SneakyThrows
+    private static void sleep() {
+        Thread.sleep(5);
+    }
+
+    private static class ConcurrencyRecorder {
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        void enter() {
+            maxConcurrent.accumulateAndGet(running.incrementAndGet(), Math::max);
+        }
+
+        void exit() {
+            running.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static com.fluxtion.example.servicestater.Service.Status.STARTED;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class BuildPhaseTest {
+
+    @Test
+    public void interpretedBuildPhases() {
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager().compiled(false);
+        serviceManager.buildServiceController(services());
+        Map<BuildPhase, Long> phaseNanos = serviceManager.buildPhaseNanos();
+        assertThat(phaseNanos.keySet(), containsInAnyOrder(BuildPhase.GRAPH_CONSTRUCTION, BuildPhase.INTERPRETATION, BuildPhase.POST_BUILD));
+        phaseNanos.values().forEach(nanos -> assertThat(nanos, greaterThan(0L)));
+    }
+
+    @Test
+    public void compiledBuildPhases() {
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager().compiled(true);
+        serviceManager.buildServiceController(services());
+        Map<BuildPhase, Long> phaseNanos = serviceManager.buildPhaseNanos();
+        assertThat(phaseNanos.keySet(), containsInAnyOrder(
+                BuildPhase.GRAPH_CONSTRUCTION, BuildPhase.CODE_GENERATION, BuildPhase.COMPILATION, BuildPhase.CLASS_LOADING, BuildPhase.POST_BUILD));
+        phaseNanos.values().forEach(nanos -> assertThat(nanos, greaterThan(0L)));
+
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        serviceManager.startAllServices();
+        assertThat(serviceManager.serviceCount(STARTED), is(2));
+    }
+
+    @Test
+    public void aotBuildPhases(@TempDir Path outputDirectory) {
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager();
+        serviceManager.buildServiceControllerAot(outputDirectory.toString(), "BuildPhaseProcessor",
+                "com.fluxtion.example.servicestater.testgenerated", services());
+        Map<BuildPhase, Long> phaseNanos = serviceManager.buildPhaseNanos();
+        assertThat(phaseNanos.keySet(), containsInAnyOrder(BuildPhase.GRAPH_CONSTRUCTION, BuildPhase.AOT_COMPILATION, BuildPhase.POST_BUILD));
+        phaseNanos.values().forEach(nanos -> assertThat(nanos, greaterThan(0L)));
+    }
+
+    public static void noop() {
+    }
+
+    private static Service[] services() {
+        Service svcB = Service.builder("B").startTask(BuildPhaseTest::noop).build();
+        Service svcA = Service.builder("A").requiredServices(svcB).startTask(BuildPhaseTest::noop).build();
+        return new Service[]{svcB, svcA};
+    }
+}
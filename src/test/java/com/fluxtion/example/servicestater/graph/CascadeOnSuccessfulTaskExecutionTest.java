@@ -114,7 +114,7 @@ public class CascadeOnSuccessfulTaskExecutionTest extends BaseServiceStarterTest
         serviceManager.failFastOnTaskException(false);
         serviceManager.startService(svcA.getName());
         updateStatus(statusMap, svcA.getName(), Service.Status.WAITING_FOR_PARENTS_TO_START);
-        updateStatus(statusMap, svcB.getName(), Service.Status.STARTING);
+        updateStatus(statusMap, svcB.getName(), Service.Status.FAILED);
         updateStatus(statusMap, svcC.getName(), Service.Status.STARTED);
         updateStatus(statusMap, svcD.getName(), Service.Status.STARTED);
         checkStatusMatch(statusMap);
@@ -190,7 +190,7 @@ public class CascadeOnSuccessfulTaskExecutionTest extends BaseServiceStarterTest
         serviceManager.stopAllServices();
         updateStatus(statusMap, svcA.getName(), Service.Status.STOPPED);
         updateStatus(statusMap, svcB.getName(), Service.Status.STOPPED);
-        updateStatus(statusMap, svcC.getName(), Service.Status.STOPPING);
+        updateStatus(statusMap, svcC.getName(), Service.Status.FAILED);
         updateStatus(statusMap, svcD.getName(), Service.Status.WAITING_FOR_PARENTS_TO_STOP);
         checkStatusMatch(statusMap);
     }
@@ -0,0 +1,158 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import com.fluxtion.example.servicestater.ServiceStatusChange;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.fluxtion.example.servicestater.Service.Status.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CompiledGraphChangeTest {
+
+    @Test
+    @SneakyThrows
+    public void addServiceToCompiledGraph() {
+        Service svcB = Service.builder("B").build();
+        Service svcA = Service.builder("A").requiredServices(svcB).build();
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager().compiled(true).buildServiceController(svcB, svcA);
+        List<ServiceStatusChange> changes = new ArrayList<>();
+        serviceManager.registerStatusChangeListener(changes::addAll);
+        serviceManager.startAllServices();
+        serviceManager.serviceStarted("B");
+        CompletableFuture<Void> aStarted = serviceManager.startServiceAsync("A");
+
+        Service svcC = Service.builder("C").requiredServices(svcA).build();
+        serviceManager.addService(svcC);
+        assertThat(changes, hasItem(new ServiceStatusChange("C", null, STATUS_UNKNOWN)));
+        assertThat(serviceManager.serviceStatus("B"), is(STARTED));
+        assertThat(serviceManager.serviceStatus("A"), is(STARTING));
+        assertThat(serviceManager.serviceStatus("C"), is(STATUS_UNKNOWN));
+
+        serviceManager.serviceStarted("A");
+        aStarted.get(1, TimeUnit.SECONDS);
+        serviceManager.startService("C");
+        assertThat(serviceManager.serviceStatus("C"), is(STARTING));
+        serviceManager.serviceStarted("C");
+        assertThat(serviceManager.serviceCount(STARTED), is(3));
+
+        serviceManager.addService(svcC);
+        serviceManager.compiledProcessorReady().get(60, TimeUnit.SECONDS);
+        assertThat(serviceManager.buildPhaseNanos(), hasKey(BuildPhase.PROCESSOR_SWAP));
+        serviceManager.shutdown();
+    }
+
+    @Test
+    @SneakyThrows
+    public void removeServiceFromCompiledGraph() {
+        Service svcC = Service.builder("C").startTask(CompiledGraphChangeTest::noop).stopTask(CompiledGraphChangeTest::noop).build();
+        Service svcB = Service.builder("B").requiredServices(svcC).startTask(CompiledGraphChangeTest::noop).stopTask(CompiledGraphChangeTest::noop).build();
+        Service svcA = Service.builder("A").requiredServices(svcB).startTask(CompiledGraphChangeTest::noop).stopTask(CompiledGraphChangeTest::noop).build();
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager().compiled(true).buildServiceController(svcC, svcB, svcA);
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        serviceManager.startAllServices();
+        assertThat(serviceManager.serviceCount(STARTED), is(3));
+        List<ServiceStatusChange> changes = new ArrayList<>();
+        serviceManager.registerStatusChangeListener(changes::addAll);
+
+        serviceManager.removeService("A");
+        assertThat(changes, hasItem(new ServiceStatusChange("A", STOPPING, STOPPED)));
+        assertThat(serviceManager.serviceStatus("A"), nullValue());
+        assertThat(changes, hasItem(new ServiceStatusChange("A", STOPPED, null)));
+        assertThat(serviceManager.serviceStatus("B"), is(STARTED));
+        assertThat(serviceManager.serviceStatus("C"), is(STARTED));
+        ExecutionException notManaged = assertThrows(
+                ExecutionException.class, () -> serviceManager.startServiceAsync("A").get(1, TimeUnit.SECONDS));
+        assertThat(notManaged.getCause(), instanceOf(IllegalArgumentException.class));
+
+        serviceManager.stopAllServices();
+        assertThat(serviceManager.serviceCount(STOPPED), is(2));
+        serviceManager.shutdown();
+    }
+
+    @Test
+    @SneakyThrows
+    public void wrappedInstancesCarryOverToCompiledProcessor() {
+        Service svcB = Service.builder("B").wrappedInstance("instanceB").build();
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager().compiled(true).buildServiceController(svcB);
+        serviceManager.addService(Service.builder("A").requiredServices(svcB).wrappedInstance("instanceA").build());
+
+        Map<String, Object> wrappedInstances = new HashMap<>();
+        serviceManager.startOrder(record -> wrappedInstances.put(record.getServiceName(), record.getWrappedInstance()));
+        assertThat(wrappedInstances, hasEntry("B", "instanceB"));
+        assertThat(wrappedInstances, hasEntry("A", "instanceA"));
+        serviceManager.shutdown();
+    }
+
+    @Test
+    @SneakyThrows
+    public void addServiceAsyncCompletesWhenServiceManaged() {
+        Service svcB = Service.builder("B").build();
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager().compiled(true).buildServiceController(svcB);
+        CompletableFuture<Void> added = serviceManager.addServiceAsync(Service.builder("A").requiredServices(svcB).build());
+        added.get(60, TimeUnit.SECONDS);
+        assertThat(serviceManager.serviceStatus("A"), is(STATUS_UNKNOWN));
+
+        CompletableFuture<Void> removed = serviceManager.removeServiceAsync("A");
+        removed.get(60, TimeUnit.SECONDS);
+        assertThat(serviceManager.serviceStatus("A"), nullValue());
+        serviceManager.shutdown();
+    }
+
+    @Test
+    public void failedCompilationLeavesGraphUnchanged() {
+        Service svcB = Service.builder("B").build();
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager().compiled(true).buildServiceController(svcB);
+        Service uncompilable = Service.builder("X").requiredServices(svcB).startTask(() -> {}).build();
+        assertThrows(IllegalStateException.class, () -> serviceManager.addService(uncompilable));
+        assertThat(serviceManager.serviceStatus("X"), nullValue());
+
+        serviceManager.addService(Service.builder("A").requiredServices(svcB).build());
+        assertThat(serviceManager.serviceStatus("A"), is(STATUS_UNKNOWN));
+        assertThat(serviceManager.serviceStatus("X"), nullValue());
+        assertThat(serviceManager.managedControllers().stream().map(ServiceController::getServiceName).distinct().count(), is(2L));
+        serviceManager.shutdown();
+    }
+
+    @Test
+    public void addServiceToAotGraph(@TempDir Path outputDirectory) {
+        Service svcB = Service.builder("B").startTask(CompiledGraphChangeTest::noop).build();
+        Service svcA = Service.builder("A").requiredServices(svcB).startTask(CompiledGraphChangeTest::noop).build();
+        ServiceManager serviceManager = ServiceManager.compileServiceManagerAot(outputDirectory.toString(),
+                "AddServiceProcessor", "com.fluxtion.example.servicestater.testgenerated", svcB, svcA);
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        serviceManager.startAllServices();
+        assertThat(serviceManager.serviceCount(STARTED), is(2));
+
+        serviceManager.addService(Service.builder("C").requiredServices(svcA).startTask(CompiledGraphChangeTest::noop).build());
+        assertThat(serviceManager.serviceStatus("C"), is(STATUS_UNKNOWN));
+        serviceManager.startService("C");
+        assertThat(serviceManager.serviceCount(STARTED), is(3));
+        serviceManager.shutdown();
+    }
+
+    @Test
+    public void addServiceThroughMailboxBlocksUntilManaged() {
+        Service svcB = Service.builder("B").build();
+        ServiceManager serviceManager = ServiceManager.asSingleWriter(ServiceManager.compiledServiceManager(svcB));
+        serviceManager.addService(Service.builder("A").requiredServices(svcB).build());
+        assertThat(serviceManager.serviceStatus("A"), is(STATUS_UNKNOWN));
+        serviceManager.shutdown();
+    }
+
+    public static void noop() {
+    }
+}
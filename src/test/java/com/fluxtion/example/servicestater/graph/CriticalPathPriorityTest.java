@@ -0,0 +1,106 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.TaskWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+public class CriticalPathPriorityTest {
+
+    private final List<List<String>> taskBatches = new ArrayList<>();
+
+    @Test
+    public void longestChainStartsFirst() {
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager().compiled(false).buildServiceController(services());
+        serviceManager.registerTaskExecutor(new RecordingTaskExecutor());
+        serviceManager.startAllServices();
+        assertThat(taskBatches.get(0), contains("root1", "root3", "root2"));
+
+        serviceManager.serviceStarted(Arrays.asList("root1", "root2", "root3"));
+        serviceManager.serviceStarted(Arrays.asList("B", "E"));
+        serviceManager.serviceStarted("C");
+        serviceManager.serviceStarted("D");
+        taskBatches.clear();
+        serviceManager.stopAllServices();
+        assertThat(taskBatches.get(0), contains("D", "E", "root2"));
+    }
+
+    @Test
+    public void durationWeightedChain() {
+        CriticalPathPrioritiser prioritiser = new CriticalPathPrioritiser();
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager().compiled(false).buildServiceController(services());
+        prioritiser.topologyChanged(serviceManager.managedControllers());
+        prioritiser.weightByDuration(true);
+        prioritiser.recordDuration("root2", true, 50_000_000);
+        prioritiser.recordDuration("E", true, 10_000_000);
+
+        List<TaskWrapper> tasks = new ArrayList<>();
+        for (String serviceName : Arrays.asList("root1", "root2", "root3")) {
+            tasks.add(new TaskWrapper(serviceName, true, () -> {}));
+        }
+        prioritiser.prioritise(tasks);
+        assertThat(tasks.stream().map(TaskWrapper::getServiceName).collect(Collectors.toList()),
+                contains("root2", "root3", "root1"));
+    }
+
+    @Test
+    public void addedAndRemovedServicesUpdateMemoisedCosts() {
+        CriticalPathPrioritiser prioritiser = new CriticalPathPrioritiser();
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager().compiled(false).buildServiceController(services());
+        prioritiser.topologyChanged(serviceManager.managedControllers());
+        assertThat(prioritisedRoots(prioritiser), contains("root1", "root3", "root2"));
+
+        Service e = Service.builder("E").startTask(() -> {}).stopTask(() -> {}).build();
+        Service f = Service.builder("F").requiredServices(e).startTask(() -> {}).stopTask(() -> {}).build();
+        Service g = Service.builder("G").requiredServices(f).startTask(() -> {}).stopTask(() -> {}).build();
+        Service h = Service.builder("H").requiredServices(g).startTask(() -> {}).stopTask(() -> {}).build();
+        serviceManager.addService(f, g, h);
+        prioritiser.servicesChanged(serviceManager.managedControllers().stream()
+                .filter(c -> Arrays.asList("F", "G", "H").contains(c.getServiceName()))
+                .collect(Collectors.toList()));
+        assertThat(prioritisedRoots(prioritiser), contains("root3", "root1", "root2"));
+
+        serviceManager.removeService("F", "G", "H");
+        prioritiser.servicesRemoved(Arrays.asList("F", "G", "H"));
+        assertThat(prioritisedRoots(prioritiser), contains("root1", "root3", "root2"));
+    }
+
+    private static List<String> prioritisedRoots(CriticalPathPrioritiser prioritiser) {
+        List<TaskWrapper> tasks = new ArrayList<>();
+        for (String serviceName : Arrays.asList("root1", "root2", "root3")) {
+            tasks.add(new TaskWrapper(serviceName, true, () -> {}));
+        }
+        prioritiser.prioritise(tasks);
+        return tasks.stream().map(TaskWrapper::getServiceName).collect(Collectors.toList());
+    }
+
+    private static Service[] services() {
+        Service root1 = Service.builder("root1").startTask(() -> {}).stopTask(() -> {}).build();
+        Service root2 = Service.builder("root2").startTask(() -> {}).stopTask(() -> {}).build();
+        Service root3 = Service.builder("root3").startTask(() -> {}).stopTask(() -> {}).build();
+        Service b = Service.builder("B").requiredServices(root1).startTask(() -> {}).stopTask(() -> {}).build();
+        Service c = Service.builder("C").requiredServices(b).startTask(() -> {}).stopTask(() -> {}).build();
+        Service d = Service.builder("D").requiredServices(c).startTask(() -> {}).stopTask(() -> {}).build();
+        Service e = Service.builder("E").requiredServices(root3).startTask(() -> {}).stopTask(() -> {}).build();
+        return new Service[]{root1, root2, root3, b, c, d, e};
+    }
+
+    private class RecordingTaskExecutor implements TaskWrapper.TaskExecutor {
+
+        @Override
+        public void accept(List<TaskWrapper> taskWrappers) {
+            taskBatches.add(taskWrappers.stream().map(TaskWrapper::getServiceName).collect(Collectors.toList()));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
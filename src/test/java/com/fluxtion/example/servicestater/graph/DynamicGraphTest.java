@@ -5,14 +5,23 @@ import com.fluxtion.example.servicestater.Service.ServiceBuilder;
 import com.fluxtion.example.servicestater.Service.Status;
 import com.fluxtion.example.servicestater.ServiceManager;
 import com.fluxtion.example.servicestater.ServiceStatusRecord;
+import com.fluxtion.runtime.EventProcessor;
+import com.fluxtion.runtime.annotations.OnEventHandler;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class DynamicGraphTest {
 
@@ -171,4 +180,104 @@ public class DynamicGraphTest {
         );
     }
 
+    @Test
+    public void removeThenAddServiceAfterStart() {
+        Service root = simpleService("root-1").build();
+        Service a1 = simpleService("A1").requiredServices(root).build();
+        Service remove1 = simpleService("remove1").requiredServices(root).build();
+
+        buildServiceManager(root, a1, remove1);
+        serviceManager.removeService("remove1");
+        serviceManager.addService(simpleService("remove1").requiredServices(root).build());
+        validateStatusList(
+                new ServiceStatusRecord("root-1", Status.STARTED),
+                new ServiceStatusRecord("A1", Status.STARTED),
+                new ServiceStatusRecord("remove1", Status.STATUS_UNKNOWN)
+        );
+
+        //re-added service is wired back into the graph
+        serviceManager.startService("remove1");
+        validateStatusList(
+                new ServiceStatusRecord("root-1", Status.STARTED),
+                new ServiceStatusRecord("A1", Status.STARTED),
+                new ServiceStatusRecord("remove1", Status.STARTED)
+        );
+        serviceManager.stopService("root-1");
+        validateStatusList(
+                new ServiceStatusRecord("root-1", Status.STOPPED),
+                new ServiceStatusRecord("A1", Status.STOPPED),
+                new ServiceStatusRecord("remove1", Status.STOPPED)
+        );
+    }
+
+    @Test
+    public void addAndRemoveServiceSplicesLiveProcessor() {
+        Service root = simpleService("root-1").build();
+        Service a1 = simpleService("A1").requiredServices(root).build();
+        FluxtionServiceManager fluxtionServiceManager = new FluxtionServiceManager().compiled(false).addAuditLog(false);
+        fluxtionServiceManager.buildServiceController(root, a1);
+        serviceManager = fluxtionServiceManager;
+        serviceManager.registerStatusListener(c -> c.forEach(statusList::add));
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        serviceManager.startAllServices();
+        EventProcessor processor = fluxtionServiceManager.liveProcessor();
+
+        //added service is spliced into the running processor
+        Service b1 = simpleService("B1").requiredServices(root).build();
+        Service c1 = simpleService("C1").requiredServices(b1).build();
+        serviceManager.addService(b1, c1);
+        assertThat(fluxtionServiceManager.liveProcessor(), sameInstance(processor));
+        serviceManager.startService("C1");
+        validateStatusList(
+                new ServiceStatusRecord("root-1", Status.STARTED),
+                new ServiceStatusRecord("A1", Status.STARTED),
+                new ServiceStatusRecord("B1", Status.STARTED),
+                new ServiceStatusRecord("C1", Status.STARTED)
+        );
+        List<String> startOrder = new ArrayList<>();
+        serviceManager.startOrder(r -> startOrder.add(r.getServiceName()));
+        assertThat(startOrder.indexOf("root-1") < startOrder.indexOf("B1"), Matchers.is(true));
+        assertThat(startOrder.indexOf("B1") < startOrder.indexOf("C1"), Matchers.is(true));
+
+        //stop propagates from the original nodes to the spliced nodes
+        serviceManager.stopService("root-1");
+        validateStatusList(
+                new ServiceStatusRecord("root-1", Status.STOPPED),
+                new ServiceStatusRecord("A1", Status.STOPPED),
+                new ServiceStatusRecord("B1", Status.STOPPED),
+                new ServiceStatusRecord("C1", Status.STOPPED)
+        );
+
+        //removed service is spliced out of the running processor
+        serviceManager.removeService("A1");
+        assertThat(fluxtionServiceManager.liveProcessor(), sameInstance(processor));
+        assertThat(serviceManager.serviceStatus("A1"), nullValue());
+        serviceManager.startAllServices();
+        validateStatusList(
+                new ServiceStatusRecord("root-1", Status.STARTED),
+                new ServiceStatusRecord("B1", Status.STARTED),
+                new ServiceStatusRecord("C1", Status.STARTED)
+        );
+        List<String> stopOrder = new ArrayList<>();
+        serviceManager.stopOrder(r -> stopOrder.add(r.getServiceName()));
+        assertThat(stopOrder, contains("C1", "B1", "root-1"));
+    }
+
+    @Test
+    public void everyControllerEventIsRoutedToSplicedControllers() {
+        Set<Class<?>> controllerEvents = new HashSet<>();
+        for (Class<?> controllerClass : Arrays.asList(ServiceController.class, ForwardPassServiceController.class, ReversePassServiceController.class)) {
+            controllerEvents.addAll(eventHandlerTypes(controllerClass));
+        }
+        Set<Class<?>> missingEvents = new HashSet<>(controllerEvents);
+        missingEvents.removeAll(eventHandlerTypes(SplicedServiceControllers.class));
+        assertThat("controller events not routed to spliced controllers", missingEvents, Matchers.empty());
+    }
+
+    private static Set<Class<?>> eventHandlerTypes(Class<?> nodeClass) {
+        return Arrays.stream(nodeClass.getDeclaredMethods())
+                .filter(m -> m.isAnnotationPresent(OnEventHandler.class))
+                .map(m -> m.getParameterTypes()[0])
+                .collect(Collectors.toSet());
+    }
 }
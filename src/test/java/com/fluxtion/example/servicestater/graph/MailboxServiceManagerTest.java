@@ -0,0 +1,159 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import com.fluxtion.example.servicestater.ServiceStatusRecord;
+import com.fluxtion.example.servicestater.helpers.AsynchronousTaskExecutor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MailboxServiceManagerTest {
+
+    private static final int SERVICE_COUNT = 16;
+    private static final int PRODUCER_COUNT = 8;
+
+    @SneakyThrows
+    @Test
+    public void notificationsFromManyThreads() {
+        CountDownLatch rootStarted = new CountDownLatch(1);
+        Set<Thread> listenerThreads = ConcurrentHashMap.newKeySet();
+        ServiceManager serviceManager = ServiceManager.asSingleWriter(ServiceManager.build(fanIn(false)));
+        serviceManager.registerStatusListener(statusList -> {
+            listenerThreads.add(Thread.currentThread());
+            if (statusList.contains(new ServiceStatusRecord("root", Service.Status.STARTING))) {
+                rootStarted.countDown();
+            }
+        });
+        serviceManager.startAllServices();
+
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < PRODUCER_COUNT; i++) {
+            final int offset = i;
+            producers.add(new Thread(() -> {
+                for (int j = offset; j < SERVICE_COUNT; j += PRODUCER_COUNT) {
+                    serviceManager.serviceStarted("svc_" + j);
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertThat(rootStarted.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(listenerThreads.size(), is(1));
+        serviceManager.shutdown();
+    }
+
+    @SneakyThrows
+    @Test
+    public void asynchronousTaskNotificationsRoutedThroughMailbox() {
+        CountDownLatch rootStarted = new CountDownLatch(1);
+        ServiceManager serviceManager = ServiceManager.asSingleWriter(ServiceManager.build(fanIn(true)));
+        serviceManager.registerTaskExecutor(new AsynchronousTaskExecutor());
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        serviceManager.registerStatusListener(statusList -> {
+            if (statusList.contains(new ServiceStatusRecord("root", Service.Status.STARTED))) {
+                rootStarted.countDown();
+            }
+        });
+        serviceManager.startAllServices();
+        assertThat(rootStarted.await(10, TimeUnit.SECONDS), is(true));
+        serviceManager.shutdown();
+    }
+
+    @SneakyThrows
+    @Test
+    public void taskFailuresRoutedThroughMailbox() {
+        CountDownLatch bothFailed = new CountDownLatch(2);
+        Set<String> failureThreads = ConcurrentHashMap.newKeySet();
+        Service timesOut = Service.builder("timesOut")
+                .asyncStartTask(CompletableFuture::new)
+                .startTimeout(Duration.ofMillis(50))
+                .build();
+        Service throwsException = Service.builder("throwsException")
+                .startTask(MailboxServiceManagerTest::failingTask)
+                .build();
+        FluxtionServiceManager fluxtionServiceManager = new FluxtionServiceManager().compiled(false).addAuditLog(false);
+        fluxtionServiceManager.buildServiceController(timesOut, throwsException);
+        ServiceManager serviceManager = ServiceManager.asSingleWriter(fluxtionServiceManager);
+        serviceManager.registerTaskExecutor(new AsynchronousTaskExecutor());
+        serviceManager.failFastOnTaskException(false);
+        serviceManager.registerStatusChangeListener(changes -> changes.stream()
+                .filter(change -> change.getStatus() == Service.Status.FAILED)
+                .forEach(change -> {
+                    failureThreads.add(Thread.currentThread().getName());
+                    bothFailed.countDown();
+                }));
+        serviceManager.startAllServices();
+        assertThat(bothFailed.await(10, TimeUnit.SECONDS), is(true));
+        //failures from the timing wheel and the executor thread are applied on the mailbox owner thread
+        assertThat(failureThreads.size(), is(1));
+        assertThat(failureThreads.iterator().next(), startsWith("serviceManagerMailbox-"));
+        serviceManager.shutdown();
+    }
+
+    @Test
+    public void serviceOrderIsPublishedBeforeReturning() {
+        ServiceManager serviceManager = ServiceManager.asSingleWriter(ServiceManager.build(fanIn(false)));
+        List<String> startOrder = new ArrayList<>();
+        serviceManager.startOrder(r -> startOrder.add(r.getServiceName()));
+        assertThat(startOrder.size(), is(SERVICE_COUNT + 1));
+        assertThat(startOrder.get(SERVICE_COUNT), is("root"));
+        List<String> stopOrder = new ArrayList<>();
+        serviceManager.stopOrder(r -> stopOrder.add(r.getServiceName()));
+        assertThat(stopOrder.get(0), is("root"));
+        serviceManager.shutdown();
+    }
+
+    @Test
+    public void commandFailuresAreReturnedToCaller() {
+        //a manager that has not been built fails every graph command
+        ServiceManager serviceManager = ServiceManager.asSingleWriter(new FluxtionServiceManager());
+        assertThrows(NullPointerException.class, () -> serviceManager.registerStatusListener(statusList -> {}));
+        CompletableFuture<Void> started = serviceManager.startServiceAsync("A");
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> started.get(5, TimeUnit.SECONDS));
+        assertThat(failure.getCause(), instanceOf(NullPointerException.class));
+        serviceManager.shutdown();
+    }
+
+    private static Service[] fanIn(boolean addTasks) {
+        List<Service> services = new ArrayList<>();
+        for (int i = 0; i < SERVICE_COUNT; i++) {
+            Service.ServiceBuilder builder = Service.builder("svc_" + i);
+            if (addTasks) {
+                builder.startTask(MailboxServiceManagerTest::noOp);
+            }
+            services.add(builder.build());
+        }
+        Service.ServiceBuilder rootBuilder = Service.builder("root").requiredServices(services.toArray(Service[]::new));
+        if (addTasks) {
+            rootBuilder.startTask(MailboxServiceManagerTest::noOp);
+        }
+        services.add(rootBuilder.build());
+        return services.toArray(Service[]::new);
+    }
+
+    private static void noOp() {
+    }
+
+    private static void failingTask() {
+        throw new IllegalStateException("start failed");
+    }
+}
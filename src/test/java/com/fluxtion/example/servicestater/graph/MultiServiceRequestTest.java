@@ -0,0 +1,101 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import com.fluxtion.example.servicestater.ServiceStatusRecord;
+import com.fluxtion.example.servicestater.TaskWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+public class MultiServiceRequestTest extends BaseServiceStarterTest {
+
+    private final List<List<String>> taskBatches = new ArrayList<>();
+    private HashMap<String, ServiceStatusRecord> statusMap;
+    private ServiceManager serviceManager;
+
+    @Test
+    public void startMultipleServicesWithSharedDependency() {
+        buildGraph();
+        taskBatches.clear();
+
+        serviceManager.startServices(Arrays.asList("A", "B"));
+        assertThat(taskBatches.size(), is(1));
+        assertThat(taskBatches.get(0), containsInAnyOrder("D"));
+        updateStatus(statusMap, "A", Service.Status.WAITING_FOR_PARENTS_TO_START);
+        updateStatus(statusMap, "B", Service.Status.WAITING_FOR_PARENTS_TO_START);
+        updateStatus(statusMap, "C", Service.Status.WAITING_FOR_PARENTS_TO_START);
+        updateStatus(statusMap, "D", Service.Status.STARTING);
+        updateStatus(statusMap, "E", Service.Status.STATUS_UNKNOWN);
+        checkStatusMatch(statusMap);
+    }
+
+    @Test
+    public void startMultipleIndependentServicesPublishesCombinedTasks() {
+        buildGraph();
+        taskBatches.clear();
+
+        serviceManager.startServices(Arrays.asList("A", "E"));
+        assertThat(taskBatches.size(), is(1));
+        assertThat(taskBatches.get(0), containsInAnyOrder("D", "E"));
+        updateStatus(statusMap, "A", Service.Status.WAITING_FOR_PARENTS_TO_START);
+        updateStatus(statusMap, "B", Service.Status.STATUS_UNKNOWN);
+        updateStatus(statusMap, "C", Service.Status.WAITING_FOR_PARENTS_TO_START);
+        updateStatus(statusMap, "D", Service.Status.STARTING);
+        updateStatus(statusMap, "E", Service.Status.STARTING);
+        checkStatusMatch(statusMap);
+    }
+
+    @Test
+    public void stopMultipleServices() {
+        buildGraph();
+        serviceManager.startAllServices();
+        serviceManager.serviceStarted(Arrays.asList("A", "B", "C", "D", "E"));
+        taskBatches.clear();
+
+        serviceManager.stopServices(Arrays.asList("D", "E"));
+        assertThat(taskBatches.size(), is(1));
+        assertThat(taskBatches.get(0), containsInAnyOrder("A", "B", "E"));
+        updateStatus(statusMap, "A", Service.Status.STOPPING);
+        updateStatus(statusMap, "B", Service.Status.STOPPING);
+        updateStatus(statusMap, "C", Service.Status.WAITING_FOR_PARENTS_TO_STOP);
+        updateStatus(statusMap, "D", Service.Status.WAITING_FOR_PARENTS_TO_STOP);
+        updateStatus(statusMap, "E", Service.Status.STOPPING);
+        checkStatusMatch(statusMap);
+    }
+
+    private void buildGraph() {
+        Service svcA = Service.builder("A").startTask(MultiServiceRequestTest::noOp).stopTask(MultiServiceRequestTest::noOp).build();
+        Service svcB = Service.builder("B").startTask(MultiServiceRequestTest::noOp).stopTask(MultiServiceRequestTest::noOp).build();
+        Service svcC = Service.builder("C").servicesThatRequireMe(svcA, svcB).startTask(MultiServiceRequestTest::noOp).stopTask(MultiServiceRequestTest::noOp).build();
+        Service svcD = Service.builder("D").servicesThatRequireMe(svcC).startTask(MultiServiceRequestTest::noOp).stopTask(MultiServiceRequestTest::noOp).build();
+        Service svcE = Service.builder("E").startTask(MultiServiceRequestTest::noOp).stopTask(MultiServiceRequestTest::noOp).build();
+        serviceManager = ServiceManager.build(svcA, svcB, svcC, svcD, svcE);
+        serviceManager.registerStatusListener(this::recordServiceStatus);
+        serviceManager.registerTaskExecutor(new RecordingTaskExecutor());
+        statusMap = new HashMap<>();
+    }
+
+    private static void noOp() {
+    }
+
+    private class RecordingTaskExecutor implements TaskWrapper.TaskExecutor {
+
+        @Override
+        public void accept(List<TaskWrapper> taskWrappers) {
+            taskBatches.add(taskWrappers.stream().map(TaskWrapper::getServiceName).collect(Collectors.toList()));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.Service.Status;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static com.fluxtion.example.servicestater.Service.Status.*;
+import static com.fluxtion.example.servicestater.graph.FluxtionServiceManager.toStartServiceName;
+import static com.fluxtion.example.servicestater.graph.FluxtionServiceManager.toStopServiceName;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ParentStatusCountTest {
+
+    private FluxtionServiceManager serviceManager;
+    private Service root;
+    private Service a;
+
+    @BeforeEach
+    public void buildGraph() {
+        root = Service.builder("root").build();
+        a = Service.builder("A").requiredServices(root).build();
+        Service b = Service.builder("B").requiredServices(root).build();
+        serviceManager = new FluxtionServiceManager().compiled(false).addAuditLog(false);
+        serviceManager.buildServiceController(root, a, b);
+    }
+
+    @Test
+    public void countsFollowStatusTransitions() {
+        assertCounts(toStopServiceName("A"), counts(STATUS_UNKNOWN, 1));
+        assertCounts(toStartServiceName("root"), counts(STATUS_UNKNOWN, 2));
+
+        serviceManager.startService("root");
+        assertCounts(toStopServiceName("A"), counts(STARTING, 1));
+
+        serviceManager.serviceStarted("root");
+        assertCounts(toStopServiceName("A"), counts(STARTED, 1));
+        assertCounts(toStopServiceName("B"), counts(STARTED, 1));
+
+        serviceManager.serviceStopped("root");
+        assertCounts(toStopServiceName("A"), counts(STOPPED, 1));
+
+        serviceManager.serviceStarted("root");
+        assertCounts(toStopServiceName("A"), counts(STARTED, 1));
+        assertCounts(toStartServiceName("root"), counts(STATUS_UNKNOWN, 2));
+    }
+
+    @Test
+    public void countsFollowAddAndRemove() {
+        serviceManager.startService("root");
+        serviceManager.serviceStarted("root");
+
+        Service c = Service.builder("C").requiredServices(root, a).build();
+        serviceManager.addService(c);
+        assertCounts(toStopServiceName("C"), counts(STARTED, 1, STATUS_UNKNOWN, 1));
+        assertCounts(toStartServiceName("root"), counts(STATUS_UNKNOWN, 3));
+        assertCounts(toStartServiceName("A"), counts(STATUS_UNKNOWN, 1));
+
+        serviceManager.removeService("C");
+        assertCounts(toStartServiceName("root"), counts(STATUS_UNKNOWN, 2));
+        assertCounts(toStartServiceName("A"), counts());
+        assertCounts(toStopServiceName("A"), counts(STARTED, 1));
+    }
+
+    private static Map<Status, Integer> counts(Object... statusCounts) {
+        Map<Status, Integer> counts = new EnumMap<>(Status.class);
+        for (int i = 0; i < statusCounts.length; i += 2) {
+            counts.put((Status) statusCounts[i], (Integer) statusCounts[i + 1]);
+        }
+        return counts;
+    }
+
+    @SneakyThrows
+    private void assertCounts(String controllerName, Map<Status, Integer> expectedCounts) {
+        ServiceController controller = serviceManager.liveController(controllerName);
+        for (Status status : Status.values()) {
+            assertThat(controllerName + " " + status,
+                    controller.parentStatusCount(status), is(expectedCounts.getOrDefault(status, 0)));
+        }
+    }
+}
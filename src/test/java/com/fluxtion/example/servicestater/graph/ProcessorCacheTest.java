@@ -0,0 +1,119 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static com.fluxtion.example.servicestater.Service.Status.STARTED;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ProcessorCacheTest {
+
+    @TempDir
+    Path cacheDirectory;
+
+    @Test
+    public void identicalTopologyLoadsCachedProcessor() {
+        FluxtionServiceManager firstBuild = build(services(false));
+        assertThat(firstBuild.buildPhaseNanos(), hasKey(BuildPhase.COMPILATION));
+        assertThat(cacheEntryCount(), is(1L));
+
+        FluxtionServiceManager cachedBuild = build(services(false));
+        assertThat(cachedBuild.buildPhaseNanos(), hasKey(BuildPhase.CODE_GENERATION));
+        assertThat(cachedBuild.buildPhaseNanos(), not(hasKey(BuildPhase.COMPILATION)));
+        assertThat(cachedBuild.buildPhaseNanos(), hasKey(BuildPhase.CLASS_LOADING));
+        startAll(cachedBuild);
+    }
+
+    @Test
+    public void changedTopologyCompilesNewProcessor() {
+        build(services(false));
+        FluxtionServiceManager changedBuild = build(services(true));
+        assertThat(changedBuild.buildPhaseNanos(), hasKey(BuildPhase.COMPILATION));
+        assertThat(cacheEntryCount(), is(2L));
+        startAll(changedBuild);
+    }
+
+    @SneakyThrows
+    @Test
+    public void corruptEntryIsRecompiled() {
+        build(services(false));
+        try (Stream<Path> files = Files.walk(cacheDirectory)) {
+            for (Path classFile : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".class"))::iterator) {
+                Files.write(classFile, new byte[]{1, 2, 3});
+            }
+        }
+        FluxtionServiceManager rebuilt = build(services(false));
+        assertThat(rebuilt.buildPhaseNanos(), hasKey(BuildPhase.COMPILATION));
+        startAll(rebuilt);
+
+        FluxtionServiceManager cachedBuild = build(services(false));
+        assertThat(cachedBuild.buildPhaseNanos(), not(hasKey(BuildPhase.COMPILATION)));
+        startAll(cachedBuild);
+    }
+
+    @Test
+    public void tasksCapturingStateAreCachedBySource() {
+        FluxtionServiceManager firstBuild = build(new Service[]{
+                Service.builder("A").startTask(new Endpoint("urlA")::connect).build()});
+        assertThat(firstBuild.buildPhaseNanos(), hasKey(BuildPhase.COMPILATION));
+        FluxtionServiceManager secondBuild = build(new Service[]{
+                Service.builder("A").startTask(new Endpoint("urlB")::connect).build()});
+        assertThat(secondBuild.buildPhaseNanos(), hasKey(BuildPhase.COMPILATION));
+        assertThat(cacheEntryCount(), is(2L));
+
+        FluxtionServiceManager cachedBuild = build(new Service[]{
+                Service.builder("A").startTask(new Endpoint("urlA")::connect).build()});
+        assertThat(cachedBuild.buildPhaseNanos(), not(hasKey(BuildPhase.COMPILATION)));
+    }
+
+    private FluxtionServiceManager build(Service[] services) {
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager().compiled(true).processorCacheDirectory(cacheDirectory);
+        serviceManager.buildServiceController(services);
+        return serviceManager;
+    }
+
+    private static void startAll(FluxtionServiceManager serviceManager) {
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        serviceManager.startAllServices();
+        assertThat(serviceManager.serviceCount(STARTED), is(3));
+        serviceManager.shutdown();
+    }
+
+    @SneakyThrows
+    private long cacheEntryCount() {
+        try (Stream<Path> entries = Files.list(cacheDirectory)) {
+            return entries.filter(Files::isDirectory).count();
+        }
+    }
+
+    public static void noop() {
+    }
+
+    public static class Endpoint {
+        private final String url;
+
+        public Endpoint(String url) {
+            this.url = url;
+        }
+
+        public void connect() {
+        }
+    }
+
+    private static Service[] services(boolean extraEdge) {
+        Service svcC = Service.builder("C").startTask(ProcessorCacheTest::noop).build();
+        Service svcB = Service.builder("B").startTask(ProcessorCacheTest::noop).build();
+        Service svcA = Service.builder("A")
+                .requiredServices(extraEdge ? new Service[]{svcB, svcC} : new Service[]{svcB})
+                .startTask(ProcessorCacheTest::noop)
+                .build();
+        return new Service[]{svcC, svcB, svcA};
+    }
+}
@@ -0,0 +1,128 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceStatusRecord;
+import com.fluxtion.runtime.audit.Auditor;
+import com.fluxtion.runtime.event.Event;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Validates a notification only visits the nodes whose status has changed, the cost of an event is independent of the
+ * size of the graph.
+ */
+public class PropagationCostTest {
+
+    private static final int CHAIN_LENGTH = 20;
+
+    @Test
+    public void stopNotificationVisitsChangedSubgraph() {
+        InvocationCounter counter = new InvocationCounter();
+        FluxtionServiceManager serviceManager = startedChain(counter);
+
+        //stopping the service nobody requires changes no other service
+        serviceManager.serviceStopped(serviceName(CHAIN_LENGTH - 1));
+        assertThat(counter.recalculations, is(1));
+    }
+
+    @Test
+    public void repeatedNotificationVisitsNoNodes() {
+        InvocationCounter counter = new InvocationCounter();
+        FluxtionServiceManager serviceManager = startedChain(counter);
+
+        serviceManager.serviceStarted(serviceName(0));
+        assertThat(counter.recalculations, is(0));
+        assertThat(counter.invocations, is(1));
+    }
+
+    @Test
+    public void startRequestIsSingleEventCycle() {
+        InvocationCounter counter = new InvocationCounter();
+        FluxtionServiceManager serviceManager = buildChain(counter);
+        List<ServiceStatusRecord> statusList = new ArrayList<>();
+        serviceManager.registerStatusListener(statusList::addAll);
+
+        statusList.clear();
+        counter.events = 0;
+        serviceManager.startService(serviceName(CHAIN_LENGTH - 1));
+        assertThat(counter.events, is(1));
+        assertThat(statusList, hasItem(new ServiceStatusRecord(serviceName(0), Service.Status.STARTING)));
+        assertThat(statusList, hasItem(new ServiceStatusRecord(serviceName(1), Service.Status.WAITING_FOR_PARENTS_TO_START)));
+    }
+
+    private static FluxtionServiceManager startedChain(InvocationCounter counter) {
+        FluxtionServiceManager serviceManager = buildChain(counter);
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        serviceManager.startAllServices();
+        return serviceManager;
+    }
+
+    private static FluxtionServiceManager buildChain(InvocationCounter counter) {
+        Service[] chain = new Service[CHAIN_LENGTH];
+        for (int i = 0; i < CHAIN_LENGTH; i++) {
+            Service.ServiceBuilder builder = Service.builder(serviceName(i)).startTask(PropagationCostTest::noOp);
+            if (i > 0) {
+                builder.requiredServices(chain[i - 1]);
+            }
+            chain[i] = builder.build();
+        }
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager()
+                .compiled(false)
+                .addAuditLog(false)
+                .addAuditor("invocationCounter", counter)
+                .buildServiceController(chain);
+        return serviceManager;
+    }
+
+    private static String serviceName(int index) {
+        return "svc_" + index;
+    }
+
+    public static void noOp() {
+    }
+
+    private static class InvocationCounter implements Auditor {
+        int events;
+        int invocations;
+        int recalculations;
+
+        @Override
+        public void nodeRegistered(Object node, String nodeName) {
+        }
+
+        @Override
+        public void eventReceived(Event event) {
+            events++;
+            invocations = 0;
+            recalculations = 0;
+        }
+
+        @Override
+        public void eventReceived(Object event) {
+            events++;
+            invocations = 0;
+            recalculations = 0;
+        }
+
+        @Override
+        public void nodeInvoked(Object node, String nodeName, String methodName, Object event) {
+            if (node instanceof ServiceController) {
+                invocations++;
+                if (methodName.startsWith("recalculateStatus")) {
+                    recalculations++;
+                }
+            }
+        }
+
+        @Override
+        public boolean auditInvocations() {
+            return true;
+        }
+    }
+}
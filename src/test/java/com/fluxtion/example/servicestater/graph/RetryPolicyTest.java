@@ -0,0 +1,118 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.RetryPolicy;
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import com.fluxtion.example.servicestater.ServiceTaskException;
+import com.fluxtion.example.servicestater.helpers.AsynchronousTaskExecutor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.fluxtion.example.servicestater.Service.Status.FAILED;
+import static com.fluxtion.example.servicestater.Service.Status.STARTED;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RetryPolicyTest {
+
+    private static final RetryPolicy RETRY_POLICY = RetryPolicy.builder()
+            .maxAttempts(3)
+            .initialBackoff(Duration.ofMillis(20))
+            .build();
+
+    @Test
+    public void startSucceedsAfterRetries() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        ServiceManager serviceManager = serviceManager(attempts, 2);
+        serviceManager.startServiceAsync("A").get(5, TimeUnit.SECONDS);
+
+        assertThat(attempts.get(), is(3));
+        assertThat(serviceManager.serviceStatus("B"), is(STARTED));
+        serviceManager.shutdown();
+    }
+
+    @Test
+    public void exhaustedRetriesFail() {
+        AtomicInteger attempts = new AtomicInteger();
+        ServiceManager serviceManager = serviceManager(attempts, Integer.MAX_VALUE);
+        CompletableFuture<Void> started = serviceManager.startServiceAsync("A");
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> started.get(5, TimeUnit.SECONDS));
+        ServiceTaskException taskException = (ServiceTaskException) thrown.getCause();
+        assertThat(taskException.getTaskExecutionResult().getAttempts(), is(3));
+        assertThat(attempts.get(), is(3));
+        assertThat(serviceManager.serviceStatus("B"), is(FAILED));
+        serviceManager.shutdown();
+    }
+
+    @Test
+    public void retryWithSynchronousExecutorDoesNotBlockTimeouts() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch releaseRetry = new CountDownLatch(1);
+        Service svcB = Service.builder("B")
+                .startTask(() -> {
+                    if (attempts.incrementAndGet() == 1) {
+                        throw new RuntimeException("dependency unavailable");
+                    }
+                    awaitRelease(releaseRetry);
+                })
+                .startTimeout(Duration.ofMillis(100))
+                .retryPolicy(RetryPolicy.builder().maxAttempts(2).initialBackoff(Duration.ofMillis(20)).build())
+                .build();
+        ServiceManager serviceManager = new FluxtionServiceManager().compiled(false).buildServiceController(svcB);
+        serviceManager.failFastOnTaskException(false);
+        CompletableFuture<Void> started = serviceManager.startServiceAsync("B");
+
+        //the blocked retry runs off the timing wheel, so its timeout fires while the task is still running
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> started.get(5, TimeUnit.SECONDS));
+        assertThat(thrown.getCause(), instanceOf(ServiceTaskException.class));
+        assertThat(attempts.get(), is(2));
+        assertThat(releaseRetry.getCount(), is(1L));
+        assertThat(serviceManager.serviceStatus("B"), is(FAILED));
+        releaseRetry.countDown();
+        serviceManager.shutdown();
+    }
+
+    @Test
+    public void backoffIsExponentialWithJitter() {
+        RetryPolicy retryPolicy = RetryPolicy.builder()
+                .initialBackoff(Duration.ofMillis(100))
+                .maxBackoff(Duration.ofMillis(350))
+                .jitter(0.5)
+                .build();
+        for (int i = 0; i < 100; i++) {
+            assertThat(retryPolicy.backoffNanos(1), allOf(greaterThanOrEqualTo(50_000_000L), lessThanOrEqualTo(100_000_000L)));
+            assertThat(retryPolicy.backoffNanos(2), allOf(greaterThanOrEqualTo(100_000_000L), lessThanOrEqualTo(200_000_000L)));
+            assertThat(retryPolicy.backoffNanos(5), allOf(greaterThanOrEqualTo(175_000_000L), lessThanOrEqualTo(350_000_000L)));
+        }
+    }
+
+    @SneakyThrows
+    private static void awaitRelease(CountDownLatch releaseRetry) {
+        releaseRetry.await(10, TimeUnit.SECONDS);
+    }
+
+    private static ServiceManager serviceManager(AtomicInteger attempts, int failures) {
+        Service svcB = Service.builder("B")
+                .startTask(() -> {
+                    if (attempts.incrementAndGet() <= failures) {
+                        throw new RuntimeException("dependency unavailable");
+                    }
+                })
+                .retryPolicy(RETRY_POLICY)
+                .build();
+        Service svcA = Service.builder("A").requiredServices(svcB).startTask(() -> {}).build();
+        ServiceManager serviceManager = new FluxtionServiceManager().compiled(false).buildServiceController(svcB, svcA);
+        serviceManager.registerTaskExecutor(new AsynchronousTaskExecutor());
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        return serviceManager;
+    }
+}
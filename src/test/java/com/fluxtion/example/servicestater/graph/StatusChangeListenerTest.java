@@ -0,0 +1,75 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import com.fluxtion.example.servicestater.ServiceStatusChange;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.fluxtion.example.servicestater.Service.Status.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+public class StatusChangeListenerTest {
+
+    private final List<List<ServiceStatusChange>> changeLists = new ArrayList<>();
+
+    @Test
+    public void onlyChangedServicesArePublished() {
+        ServiceManager serviceManager = buildGraph();
+        assertThat(lastChanges(), containsInAnyOrder(
+                new ServiceStatusChange("A", null, STATUS_UNKNOWN),
+                new ServiceStatusChange("B", null, STATUS_UNKNOWN),
+                new ServiceStatusChange("C", null, STATUS_UNKNOWN)
+        ));
+
+        serviceManager.startService("A");
+        assertThat(lastChanges(), containsInAnyOrder(
+                new ServiceStatusChange("A", STATUS_UNKNOWN, WAITING_FOR_PARENTS_TO_START),
+                new ServiceStatusChange("B", STATUS_UNKNOWN, STARTING)
+        ));
+
+        serviceManager.serviceStarted("B");
+        assertThat(lastChanges(), containsInAnyOrder(
+                new ServiceStatusChange("A", WAITING_FOR_PARENTS_TO_START, STARTING),
+                new ServiceStatusChange("B", STARTING, STARTED)
+        ));
+    }
+
+    @Test
+    public void noChangeNoPublication() {
+        ServiceManager serviceManager = buildGraph();
+        serviceManager.startService("C");
+        int publishCount = changeLists.size();
+
+        serviceManager.startService("C");
+        serviceManager.publishSystemStatus();
+        assertThat(changeLists.size(), is(publishCount));
+    }
+
+    @Test
+    public void removedServicePublishedWithNoStatus() {
+        ServiceManager serviceManager = buildGraph();
+        serviceManager.removeService("C");
+        serviceManager.publishSystemStatus();
+        assertThat(lastChanges(), containsInAnyOrder(
+                new ServiceStatusChange("C", STOPPING, null)
+        ));
+    }
+
+    private ServiceManager buildGraph() {
+        Service svcB = Service.builder("B").build();
+        Service svcA = Service.builder("A").requiredServices(svcB).build();
+        Service svcC = Service.builder("C").build();
+        ServiceManager serviceManager = ServiceManager.build(svcB, svcA, svcC);
+        serviceManager.registerStatusChangeListener(changeLists::add);
+        return serviceManager;
+    }
+
+    private List<ServiceStatusChange> lastChanges() {
+        return changeLists.get(changeLists.size() - 1);
+    }
+}
@@ -0,0 +1,86 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import com.fluxtion.example.servicestater.ServiceStatusRecord;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.fluxtion.example.servicestater.Service.Status.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class StatusQueryTest {
+
+    @Test
+    public void queryInterpreted() {
+        validateQueries(new FluxtionServiceManager().compiled(false).buildServiceController(services()));
+    }
+
+    @Test
+    public void queryCompiled() {
+        validateQueries(new FluxtionServiceManager().compiled(true).buildServiceController(services()));
+    }
+
+    @SneakyThrows
+    @Test
+    public void queryFromAnotherThread() {
+        ServiceManager serviceManager = ServiceManager.build(services());
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger invalidCounts = new AtomicInteger();
+        Thread healthCheck = new Thread(() -> {
+            while (running.get()) {
+                //each query reads the latest snapshot, counts from separate queries may come from different cycles
+                for (Service.Status status : Service.Status.values()) {
+                    int count = serviceManager.serviceCount(status);
+                    if (count < 0 || count > 3) {
+                        invalidCounts.incrementAndGet();
+                    }
+                }
+                if (serviceManager.serviceStatusSnapshot().size() != 3) {
+                    invalidCounts.incrementAndGet();
+                }
+            }
+        });
+        healthCheck.start();
+        for (int i = 0; i < 100; i++) {
+            serviceManager.startService("A");
+            serviceManager.serviceStarted("B");
+            serviceManager.serviceStarted("A");
+            serviceManager.stopService("B");
+            serviceManager.serviceStopped("A");
+            serviceManager.serviceStopped("B");
+        }
+        running.set(false);
+        healthCheck.join();
+        assertThat(invalidCounts.get(), is(0));
+    }
+
+    private static void validateQueries(ServiceManager serviceManager) {
+        assertThat(serviceManager.serviceStatus("A"), is(STATUS_UNKNOWN));
+        assertThat(serviceManager.serviceStatus("unknown"), nullValue());
+        assertThat(serviceManager.serviceCount(STATUS_UNKNOWN), is(3));
+
+        serviceManager.startService("A");
+        assertThat(serviceManager.serviceStatus("A"), is(WAITING_FOR_PARENTS_TO_START));
+        assertThat(serviceManager.serviceStatus("B"), is(STARTING));
+        assertThat(serviceManager.serviceCount(STATUS_UNKNOWN), is(1));
+
+        serviceManager.serviceStarted("B");
+        assertThat(serviceManager.serviceStatusSnapshot(), containsInAnyOrder(
+                new ServiceStatusRecord("A", STARTING),
+                new ServiceStatusRecord("B", STARTED),
+                new ServiceStatusRecord("C", STATUS_UNKNOWN)
+        ));
+    }
+
+    private static Service[] services() {
+        Service svcB = Service.builder("B").build();
+        Service svcA = Service.builder("A").requiredServices(svcB).build();
+        Service svcC = Service.builder("C").build();
+        return new Service[]{svcB, svcA, svcC};
+    }
+}
@@ -1,18 +1,24 @@
 package com.fluxtion.example.servicestater.graph;
 
+import com.fluxtion.example.servicestater.DependentFailurePolicy;
 import com.fluxtion.example.servicestater.Service;
 import com.fluxtion.example.servicestater.Service.ServiceBuilder;
 import com.fluxtion.example.servicestater.Service.Status;
 import com.fluxtion.example.servicestater.ServiceManager;
 import com.fluxtion.example.servicestater.ServiceStatusRecord;
+import com.fluxtion.example.servicestater.helpers.AsynchronousTaskExecutor;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class TaskExceptionHanldingTest {
 
@@ -71,7 +77,58 @@ public class TaskExceptionHanldingTest {
         statusList.clear();
         serviceManager.publishSystemStatus();
         assertThat(statusList, Matchers.containsInAnyOrder(
-                new ServiceStatusRecord("root-1", Status.STARTING),
+                new ServiceStatusRecord("root-1", Status.FAILED),
                 new ServiceStatusRecord("A1", Status.WAITING_FOR_PARENTS_TO_START)));
     }
+
+    @Test
+    public void ignoredExceptionStartsDependents() {
+        Service root = simpleService("root-1", true).build();
+        Service a1 = simpleService("A1", false).requiredServices(root).build();
+
+        ServiceManager serviceManager = ServiceManager.build(root, a1);
+        serviceManager.triggerNotificationAfterTaskExecution(true);
+        serviceManager.dependentFailurePolicy(DependentFailurePolicy.CASCADE_FAIL);
+        serviceManager.startAllServices();
+
+        assertThat(serviceManager.serviceStatus("root-1"), Matchers.is(Status.STARTED));
+        assertThat(serviceManager.serviceStatus("A1"), Matchers.is(Status.STARTED));
+    }
+
+    @Test
+    public void ignoredAsyncExceptionStartsDependents() throws Exception {
+        Service root = Service.builder("root-1").asyncStartTask(AsyncTaskTest::failLater).build();
+        Service a1 = Service.builder("A1").requiredServices(root).asyncStartTask(AsyncTaskTest::completeLater).build();
+
+        ServiceManager serviceManager = ServiceManager.build(root, a1);
+        serviceManager.triggerNotificationAfterTaskExecution(true);
+        serviceManager.dependentFailurePolicy(DependentFailurePolicy.CASCADE_FAIL);
+        serviceManager.startServiceAsync("A1").get(5, TimeUnit.SECONDS);
+
+        assertThat(serviceManager.serviceStatus("root-1"), Matchers.is(Status.STARTED));
+        assertThat(serviceManager.serviceStatus("A1"), Matchers.is(Status.STARTED));
+        serviceManager.shutdown();
+    }
+
+    @Test
+    public void asyncFailuresMoveToFailed() throws Exception {
+        trace = false;
+        Service root = simpleService("root-1", true).build();
+        Service root2 = simpleService("root-2", true).build();
+        Service a1 = simpleService("A1", false).requiredServices(root, root2).build();
+
+        ServiceManager serviceManager = ServiceManager.build(root, root2, a1);
+        serviceManager.registerTaskExecutor(new AsynchronousTaskExecutor());
+        CompletableFuture<Void> root1Started = serviceManager.startServiceAsync("root-1");
+        CompletableFuture<Void> root2Started = serviceManager.startServiceAsync("root-2");
+        serviceManager.startAllServices();
+
+        assertThrows(ExecutionException.class, () -> root1Started.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> root2Started.get(5, TimeUnit.SECONDS));
+        assertThat(serviceManager.serviceStatus("root-1"), Matchers.is(Status.FAILED));
+        assertThat(serviceManager.serviceStatus("root-2"), Matchers.is(Status.FAILED));
+        assertThat(serviceManager.serviceStatus("A1"), Matchers.is(Status.WAITING_FOR_PARENTS_TO_START));
+        serviceManager.shutdown();
+        trace = true;
+    }
 }
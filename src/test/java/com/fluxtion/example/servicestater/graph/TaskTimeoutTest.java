@@ -0,0 +1,149 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.DependentFailurePolicy;
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import com.fluxtion.example.servicestater.helpers.AsynchronousTaskExecutor;
+import com.fluxtion.example.servicestater.helpers.BoundedTaskExecutor;
+import com.fluxtion.example.servicestater.helpers.HashedTimingWheel;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.fluxtion.example.servicestater.Service.Status.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TaskTimeoutTest {
+
+    private static volatile CountDownLatch interrupted = new CountDownLatch(1);
+
+    @SneakyThrows
+    @Test
+    public void hungStartTaskIsCancelledAndFails() {
+        interrupted = new CountDownLatch(1);
+        ServiceManager serviceManager = new FluxtionServiceManager().compiled(false).buildServiceController(services());
+        serviceManager.registerTaskExecutor(new AsynchronousTaskExecutor());
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        CompletableFuture<Void> aStarted = serviceManager.startServiceAsync("A");
+        CompletableFuture<Void> cStarted = serviceManager.startServiceAsync("C");
+
+        assertFailed(aStarted);
+        assertThat(serviceManager.serviceStatus("B"), is(FAILED));
+        assertThat(serviceManager.serviceStatus("A"), is(WAITING_FOR_PARENTS_TO_START));
+        cStarted.get(5, TimeUnit.SECONDS);
+        assertThat(serviceManager.serviceStatus("C"), is(STARTED));
+        assertThat(interrupted.await(5, TimeUnit.SECONDS), is(true));
+        serviceManager.shutdown();
+    }
+
+    @SneakyThrows
+    @Test
+    public void cascadeFailCompiled() {
+        ServiceManager serviceManager = new FluxtionServiceManager().compiled(true).buildServiceController(services());
+        serviceManager.registerTaskExecutor(new AsynchronousTaskExecutor());
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        serviceManager.dependentFailurePolicy(DependentFailurePolicy.CASCADE_FAIL);
+        CompletableFuture<Void> aStarted = serviceManager.startServiceAsync("A");
+        CompletableFuture<Void> cStarted = serviceManager.startServiceAsync("C");
+
+        assertFailed(aStarted);
+        assertThat(serviceManager.serviceStatus("A"), is(FAILED));
+        assertThat(serviceManager.serviceStatus("B"), is(FAILED));
+        cStarted.get(5, TimeUnit.SECONDS);
+        assertThat(serviceManager.serviceStatus("C"), is(STARTED));
+        serviceManager.shutdown();
+    }
+
+    @SneakyThrows
+    @Test
+    public void timeoutFailureIsNotAppliedOnTimingWheel() {
+        ServiceManager serviceManager = new FluxtionServiceManager().compiled(false).buildServiceController(services());
+        serviceManager.registerTaskExecutor(new AsynchronousTaskExecutor());
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        CompletableFuture<String> failingThread = new CompletableFuture<>();
+        serviceManager.registerStatusChangeListener(changes -> changes.stream()
+                .filter(change -> change.getServiceName().equals("B") && change.getStatus() == FAILED)
+                .findFirst()
+                .ifPresent(change -> failingThread.complete(Thread.currentThread().getName())));
+        serviceManager.startService("B");
+
+        assertThat(failingThread.get(5, TimeUnit.SECONDS).startsWith("timingWheel"), is(false));
+        serviceManager.shutdown();
+    }
+
+    @SneakyThrows
+    @Test
+    public void timeoutStartsWhenQueuedTaskRuns() {
+        Service slow = Service.builder("slow").startTask(TaskTimeoutTest::sleep300).build();
+        Service quick = Service.builder("quick").startTask(TaskTimeoutTest::noop).startTimeout(Duration.ofMillis(200)).build();
+        ServiceManager serviceManager = new FluxtionServiceManager().compiled(false).buildServiceController(slow, quick);
+        serviceManager.registerTaskExecutor(new BoundedTaskExecutor(1));
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        CompletableFuture<Void> slowStarted = serviceManager.startServiceAsync("slow");
+        //queued behind the slow task for longer than its timeout
+        CompletableFuture<Void> quickStarted = serviceManager.startServiceAsync("quick");
+
+        quickStarted.get(5, TimeUnit.SECONDS);
+        slowStarted.get(5, TimeUnit.SECONDS);
+        assertThat(serviceManager.serviceStatus("quick"), is(STARTED));
+        serviceManager.shutdown();
+    }
+
+    @SneakyThrows
+    @Test
+    public void timingWheelExpiresUncancelledTimeouts() {
+        HashedTimingWheel timingWheel = new HashedTimingWheel(Duration.ofMillis(1), 8);
+        int timeoutCount = 10_000;
+        CountDownLatch expired = new CountDownLatch(timeoutCount / 2);
+        AtomicInteger cancelledExpiries = new AtomicInteger();
+        for (int i = 0; i < timeoutCount; i++) {
+            if (i % 2 == 0) {
+                timingWheel.schedule(expired::countDown, Duration.ofMillis(i % 50));
+            } else {
+                timingWheel.schedule(cancelledExpiries::incrementAndGet, Duration.ofMillis(100 + i % 50)).cancel();
+            }
+        }
+        assertThat(expired.await(5, TimeUnit.SECONDS), is(true));
+        Thread.sleep(250);
+        assertThat(cancelledExpiries.get(), is(0));
+        timingWheel.close();
+    }
+
+    public static void hangUntilInterrupted() {
+        try {
+            Thread.sleep(60_000);
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+    }
+
+    public static void noop() {
+    }
+
+    @SneakyThrows
+    public static void sleep300() {
+        Thread.sleep(300);
+    }
+
+    private static Service[] services() {
+        Service svcB = Service.builder("B")
+                .startTask(TaskTimeoutTest::hangUntilInterrupted)
+                .startTimeout(Duration.ofMillis(50))
+                .build();
+        Service svcA = Service.builder("A").requiredServices(svcB).startTask(TaskTimeoutTest::noop).build();
+        Service svcC = Service.builder("C").startTask(TaskTimeoutTest::noop).build();
+        return new Service[]{svcB, svcA, svcC};
+    }
+
+    private static void assertFailed(CompletableFuture<Void> started) {
+        assertThrows(ExecutionException.class, () -> started.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -1,6 +1,7 @@
 package com.fluxtion.example.servicestater.graph;
 
 import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.TaskWrapper;
 import com.fluxtion.example.servicestater.helpers.AsynchronousTaskExecutor;
 import com.fluxtion.example.servicestater.helpers.SynchronousTaskExecutor;
 import lombok.SneakyThrows;
@@ -15,6 +16,7 @@ import java.util.concurrent.atomic.LongAdder;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Slf4j
 public class ThreadingTests {
@@ -24,6 +26,7 @@ public class ThreadingTests {
     static LongAdder adder;
     private static FluxtionServiceManager svcManager;
     static List<Thread> threadNames = new ArrayList<>();
+    static List<Integer> stackDepths = new ArrayList<>();
 
     @BeforeEach
     public void init(){
@@ -31,6 +34,7 @@ public class ThreadingTests {
         countDownLatch2 = new CountDownLatch(1);
         adder = new LongAdder();
         threadNames.clear();
+        stackDepths.clear();
     }
 
     @Test
@@ -77,6 +81,56 @@ public class ThreadingTests {
         assertThat(adder.intValue(), is(1));
     }
 
+    @Test
+    public void synchronousNotificationChainHasConstantStackDepth() {
+        List<Service> chain = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Service.ServiceBuilder builder = Service.builder("chain_" + i).startTask(ThreadingTests::recordStackDepth);
+            if (i > 0) {
+                builder.requiredServices(chain.get(i - 1));
+            }
+            chain.add(builder.build());
+        }
+        svcManager = new FluxtionServiceManager();
+        svcManager.compiled(false).addAuditLog(false);
+        svcManager.registerTaskExecutor(new SynchronousTaskExecutor(true));
+        svcManager.buildServiceController(chain.toArray(Service[]::new));
+        svcManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        svcManager.startAllServices();
+        assertThat(stackDepths.size(), is(10));
+        //tasks triggered by notifications run at the same depth regardless of position in the chain
+        assertThat(stackDepths.subList(1, 10).stream().distinct().count(), is(1L));
+    }
+
+    @Test
+    public void queuedOperationsRunWhenAnOperationThrows() {
+        Service svc_1 = Service.builder("svc_1")
+                .startTask(() -> svcManager.serviceStarted("svc_1"))
+                .build();
+        svcManager = new FluxtionServiceManager();
+        svcManager.compiled(false).addAuditLog(false);
+        svcManager.buildServiceController(svc_1);
+        //runs the tasks, queuing the started notification, then fails the running operation
+        svcManager.registerTaskExecutor(new TaskWrapper.TaskExecutor() {
+            @Override
+            public void accept(List<TaskWrapper> taskWrappers) {
+                taskWrappers.forEach(TaskWrapper::call);
+                throw new IllegalStateException("executor failure");
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> svcManager.startService("svc_1"));
+        assertThat(thrown.getMessage(), is("executor failure"));
+        assertThat(svcManager.serviceStatus("svc_1"), is(Service.Status.STARTED));
+    }
+
+    public static void recordStackDepth(){
+        stackDepths.add(Thread.currentThread().getStackTrace().length);
+    }
+
     public static void start1Task(){
         threadNames.add(Thread.currentThread());
     }
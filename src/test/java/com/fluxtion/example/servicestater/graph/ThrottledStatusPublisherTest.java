@@ -0,0 +1,69 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import com.fluxtion.example.servicestater.ServiceStatusRecord;
+import com.fluxtion.example.servicestater.helpers.ThrottledStatusPublisher;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ThrottledStatusPublisherTest {
+
+    @SneakyThrows
+    @Test
+    public void slowListenerRunsOffGraphThreadAndCoalescesChanges() {
+        Service svcB = Service.builder("B").build();
+        Service svcA = Service.builder("A").requiredServices(svcB).build();
+        ServiceManager serviceManager = ServiceManager.build(svcB, svcA);
+
+        List<List<ServiceStatusRecord>> publications = new CopyOnWriteArrayList<>();
+        List<Thread> listenerThreads = new CopyOnWriteArrayList<>();
+        CountDownLatch listenerBlocked = new CountDownLatch(1);
+        CountDownLatch releaseListener = new CountDownLatch(1);
+        CountDownLatch allStarted = new CountDownLatch(1);
+        ThrottledStatusPublisher statusPublisher = serviceManager.registerThrottledStatusListener(
+                Duration.ofMillis(100),
+                statusList -> {
+                    listenerThreads.add(Thread.currentThread());
+                    publications.add(statusList);
+                    listenerBlocked.countDown();
+                    await(releaseListener);
+                    if (statusList.contains(new ServiceStatusRecord("A", Service.Status.STARTED))) {
+                        allStarted.countDown();
+                    }
+                });
+        //the listener is blocked publishing the initial status
+        assertThat(listenerBlocked.await(5, TimeUnit.SECONDS), is(true));
+
+        serviceManager.startService("A");
+        serviceManager.serviceStarted("B");
+        serviceManager.serviceStarted("A");
+        //the requests completed while the listener is still blocked
+        assertThat(publications.size(), is(1));
+        releaseListener.countDown();
+
+        assertThat(allStarted.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(listenerThreads, everyItem(not(Thread.currentThread())));
+        //the three requests are coalesced into a single publication after the initial status
+        assertThat(publications.size(), is(2));
+        assertThat(publications.get(1), containsInAnyOrder(
+                new ServiceStatusRecord("A", Service.Status.STARTED),
+                new ServiceStatusRecord("B", Service.Status.STARTED)
+        ));
+        statusPublisher.close();
+    }
+
+    @SneakyThrows
+    private static void await(CountDownLatch latch) {
+        latch.await(5, TimeUnit.SECONDS);
+    }
+}
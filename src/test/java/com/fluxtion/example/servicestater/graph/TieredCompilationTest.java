@@ -0,0 +1,110 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceStatusChange;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.fluxtion.example.servicestater.Service.Status.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+public class TieredCompilationTest {
+
+    @Test
+    @SneakyThrows
+    public void liveStateCarriesOverToCompiledProcessor() {
+        Service svcC = Service.builder("C").build();
+        Service svcB = Service.builder("B").requiredServices(svcC).build();
+        Service svcA = Service.builder("A").requiredServices(svcB).build();
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager()
+                .compiled(true)
+                .tieredCompilation(true)
+                .buildServiceController(svcC, svcB, svcA);
+        List<ServiceStatusChange> changes = new ArrayList<>();
+        serviceManager.registerStatusChangeListener(changes::addAll);
+        CompletableFuture<Void> aStarted = serviceManager.startServiceAsync("A");
+        serviceManager.serviceStarted("C");
+        assertThat(serviceManager.serviceStatus("C"), is(STARTED));
+        assertThat(serviceManager.serviceStatus("B"), is(STARTING));
+        assertThat(serviceManager.serviceStatus("A"), is(WAITING_FOR_PARENTS_TO_START));
+
+        serviceManager.compiledProcessorReady().get(60, TimeUnit.SECONDS);
+        assertThat(serviceManager.buildPhaseNanos(), hasKey(BuildPhase.PROCESSOR_SWAP));
+        assertThat(serviceManager.serviceStatus("C"), is(STARTED));
+        assertThat(serviceManager.serviceStatus("B"), is(STARTING));
+        assertThat(serviceManager.serviceStatus("A"), is(WAITING_FOR_PARENTS_TO_START));
+        assertThat(aStarted.isDone(), is(false));
+
+        changes.clear();
+        serviceManager.serviceStarted("B");
+        assertThat(serviceManager.serviceStatus("A"), is(STARTING));
+        assertThat(changes, hasItem(new ServiceStatusChange("B", STARTING, STARTED)));
+        serviceManager.serviceStarted("A");
+        aStarted.get(1, TimeUnit.SECONDS);
+        assertThat(serviceManager.serviceCount(STARTED), is(3));
+        serviceManager.shutdown();
+    }
+
+    @Test
+    @SneakyThrows
+    public void taskExecutorCarriesOverToCompiledProcessor() {
+        Service svcB = Service.builder("B").startTask(TieredCompilationTest::noop).stopTask(TieredCompilationTest::noop).build();
+        Service svcA = Service.builder("A").requiredServices(svcB).startTask(TieredCompilationTest::noop).stopTask(TieredCompilationTest::noop).build();
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager()
+                .compiled(true)
+                .tieredCompilation(true)
+                .buildServiceController(svcB, svcA);
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        serviceManager.startAllServices();
+        assertThat(serviceManager.serviceCount(STARTED), is(2));
+
+        serviceManager.compiledProcessorReady().get(60, TimeUnit.SECONDS);
+        serviceManager.stopAllServices();
+        assertThat(serviceManager.serviceCount(STOPPED), is(2));
+        serviceManager.startAllServices();
+        assertThat(serviceManager.serviceCount(STARTED), is(2));
+        serviceManager.shutdown();
+    }
+
+    @Test
+    @SneakyThrows
+    public void addServiceBeforeSwapLeavesInterpretedNodesUnchanged() {
+        Service svcA = Service.builder("A").build();
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager()
+                .compiled(true)
+                .tieredCompilation(true)
+                .buildServiceController(svcA);
+        ServiceController interpretedA = serviceManager.liveController(FluxtionServiceManager.toStartServiceName("A"));
+        assumeFalse(serviceManager.compiledProcessorReady().isDone(), "compiled processor swapped in before the graph change");
+
+        serviceManager.addService(Service.builder("C").requiredServices(svcA).build());
+        serviceManager.compiledProcessorReady().get(60, TimeUnit.SECONDS);
+        assertThat(interpretedA.getDependents(), empty());
+        ServiceController compiledA = serviceManager.liveController(FluxtionServiceManager.toStartServiceName("A"));
+        assertThat(compiledA, not(sameInstance(interpretedA)));
+        assertThat(compiledA.getDependents(), hasSize(1));
+        assertThat(serviceManager.serviceStatus("A"), is(STATUS_UNKNOWN));
+        assertThat(serviceManager.serviceStatus("C"), is(STATUS_UNKNOWN));
+        serviceManager.shutdown();
+    }
+
+    @Test
+    public void compiledProcessorReadyWithoutTieredBuild() {
+        FluxtionServiceManager serviceManager = new FluxtionServiceManager()
+                .compiled(false)
+                .tieredCompilation(true)
+                .buildServiceController(Service.builder("A").build());
+        assertThat(serviceManager.compiledProcessorReady().isDone(), is(true));
+        assertThat(serviceManager.buildPhaseNanos(), not(hasKey(BuildPhase.PROCESSOR_SWAP)));
+    }
+
+    public static void noop() {
+    }
+}
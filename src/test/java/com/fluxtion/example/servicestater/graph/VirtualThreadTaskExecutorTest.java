@@ -0,0 +1,56 @@
+package com.fluxtion.example.servicestater.graph;
+
+import com.fluxtion.example.servicestater.Service;
+import com.fluxtion.example.servicestater.ServiceManager;
+import com.fluxtion.example.servicestater.helpers.VirtualThreadTaskExecutor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.fluxtion.example.servicestater.Service.Status.STARTED;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class VirtualThreadTaskExecutorTest {
+
+    @SneakyThrows
+    @Test
+    public void startBlockingTasks() {
+        List<Service> services = new ArrayList<>();
+        Service root = Service.builder("root").startTask(VirtualThreadTaskExecutorTest::blockingIo).build();
+        services.add(root);
+        for (int i = 0; i < 50; i++) {
+            services.add(Service.builder("svc_" + i)
+                    .requiredServices(root)
+                    .startTask(VirtualThreadTaskExecutorTest::blockingIo)
+                    .build());
+        }
+        VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor();
+        ServiceManager serviceManager = new FluxtionServiceManager().compiled(false).buildServiceController(services.toArray(new Service[0]));
+        serviceManager.registerTaskExecutor(executor);
+        serviceManager.triggerNotificationOnSuccessfulTaskExecution(true);
+        List<CompletableFuture<Void>> started = new ArrayList<>();
+        for (Service service : services) {
+            started.add(serviceManager.startServiceAsync(service.getName()));
+        }
+
+        CompletableFuture.allOf(started.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        assertThat(serviceManager.serviceCount(STARTED), is(51));
+        if (Runtime.version().feature() < 21) {
+            assertThat(executor.isVirtual(), is(false));
+        } else if (Boolean.getBoolean("multiReleaseJar")) {
+            //run against the packaged jar, the java 21 classes of the multi-release jar are loaded
+            assertThat(executor.isVirtual(), is(true));
+        }
+        serviceManager.shutdown();
+    }
+
+    @SneakyThrows
+    private static void blockingIo() {
+        Thread.sleep(20);
+    }
+}
@@ -23,19 +23,27 @@ import com.fluxtion.runtime.EventProcessor;
 import com.fluxtion.runtime.callback.InternalEventProcessor;
 import com.fluxtion.example.servicestater.ServiceQuery;
 import com.fluxtion.example.servicestater.graph.FluxtionServiceManager.RegisterCommandProcessor;
+import com.fluxtion.example.servicestater.graph.FluxtionServiceManager.RegisterStatusChangeListener;
 import com.fluxtion.example.servicestater.graph.FluxtionServiceManager.RegisterStatusListener;
 import com.fluxtion.example.servicestater.graph.ForwardPassServiceController;
 import com.fluxtion.example.servicestater.graph.GraphEvent.NotifyServiceStarted;
 import com.fluxtion.example.servicestater.graph.GraphEvent.NotifyServiceStopped;
+import com.fluxtion.example.servicestater.graph.GraphEvent.NotifyServicesStarted;
+import com.fluxtion.example.servicestater.graph.GraphEvent.NotifyServicesStopped;
 import com.fluxtion.example.servicestater.graph.GraphEvent.PublishStartTask;
 import com.fluxtion.example.servicestater.graph.GraphEvent.PublishStatus;
 import com.fluxtion.example.servicestater.graph.GraphEvent.PublishStopTask;
+import com.fluxtion.example.servicestater.graph.GraphEvent.RegisterStatusWaiter;
 import com.fluxtion.example.servicestater.graph.GraphEvent.RegisterWrappedInstance;
 import com.fluxtion.example.servicestater.graph.GraphEvent.RemoveService;
 import com.fluxtion.example.servicestater.graph.GraphEvent.RequestServiceStart;
 import com.fluxtion.example.servicestater.graph.GraphEvent.RequestServiceStop;
+import com.fluxtion.example.servicestater.graph.GraphEvent.RequestServicesStart;
+import com.fluxtion.example.servicestater.graph.GraphEvent.RequestServicesStop;
 import com.fluxtion.example.servicestater.graph.GraphEvent.RequestStartAll;
 import com.fluxtion.example.servicestater.graph.GraphEvent.RequestStopAll;
+import com.fluxtion.example.servicestater.graph.GraphEvent.SetDependentFailurePolicy;
+import com.fluxtion.example.servicestater.graph.GraphEvent.TasksFailed;
 import com.fluxtion.example.servicestater.graph.LoadAotCompiledTest;
 import com.fluxtion.example.servicestater.graph.ReversePassServiceController;
 import com.fluxtion.example.servicestater.graph.ServiceStatusRecordCache;
@@ -75,18 +83,26 @@ import java.util.function.Consumer;
  * <ul>
  *   <li>com.fluxtion.compiler.generation.model.ExportFunctionMarker
  *   <li>com.fluxtion.example.servicestater.graph.FluxtionServiceManager.RegisterCommandProcessor
+ *   <li>com.fluxtion.example.servicestater.graph.FluxtionServiceManager.RegisterStatusChangeListener
  *   <li>com.fluxtion.example.servicestater.graph.FluxtionServiceManager.RegisterStatusListener
  *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.NotifyServiceStarted
  *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.NotifyServiceStopped
+ *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.NotifyServicesStarted
+ *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.NotifyServicesStopped
  *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.PublishStartTask
  *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.PublishStatus
  *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.PublishStopTask
+ *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.RegisterStatusWaiter
  *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.RegisterWrappedInstance
  *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.RemoveService
  *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.RequestServiceStart
  *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.RequestServiceStop
+ *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.RequestServicesStart
+ *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.RequestServicesStop
  *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.RequestStartAll
  *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.RequestStopAll
+ *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.SetDependentFailurePolicy
+ *   <li>com.fluxtion.example.servicestater.graph.GraphEvent.TasksFailed
  *   <li>com.fluxtion.runtime.audit.EventLogControlEvent
  *   <li>com.fluxtion.runtime.time.ClockStrategy.ClockStrategyEvent
  * </ul>
@@ -152,12 +168,20 @@ public class ProcessorTestLoad
     }
     A_start.setDependents(Arrays.asList(B_start));
     A_start.setStartTask(LoadAotCompiledTest::startA);
+    A_start.setStartTimeoutMillis(0L);
+    A_start.setStopTimeoutMillis(0L);
     B_start.setDependents(Arrays.asList());
     B_start.setStartTask(LoadAotCompiledTest::startB);
+    B_start.setStartTimeoutMillis(0L);
+    B_start.setStopTimeoutMillis(0L);
     A_stop.setDependents(Arrays.asList());
     A_stop.setStartTask(LoadAotCompiledTest::startA);
+    A_stop.setStartTimeoutMillis(0L);
+    A_stop.setStopTimeoutMillis(0L);
     B_stop.setDependents(Arrays.asList(A_stop));
     B_stop.setStartTask(LoadAotCompiledTest::startB);
+    B_stop.setStartTimeoutMillis(0L);
+    B_stop.setStopTimeoutMillis(0L);
     eventLogger.trace = (boolean) true;
     eventLogger.printEventToString = (boolean) true;
     eventLogger.printThreadName = (boolean) true;
@@ -264,6 +288,12 @@ public class ProcessorTestLoad
         com.fluxtion.example.servicestater.graph.FluxtionServiceManager.RegisterCommandProcessor) {
       RegisterCommandProcessor typedEvent = (RegisterCommandProcessor) event;
       handleEvent(typedEvent);
+    } else if (event
+        instanceof
+        com.fluxtion.example.servicestater.graph.FluxtionServiceManager
+            .RegisterStatusChangeListener) {
+      RegisterStatusChangeListener typedEvent = (RegisterStatusChangeListener) event;
+      handleEvent(typedEvent);
     } else if (event
         instanceof
         com.fluxtion.example.servicestater.graph.FluxtionServiceManager.RegisterStatusListener) {
@@ -277,6 +307,14 @@ public class ProcessorTestLoad
         instanceof com.fluxtion.example.servicestater.graph.GraphEvent.NotifyServiceStopped) {
       NotifyServiceStopped typedEvent = (NotifyServiceStopped) event;
       handleEvent(typedEvent);
+    } else if (event
+        instanceof com.fluxtion.example.servicestater.graph.GraphEvent.NotifyServicesStarted) {
+      NotifyServicesStarted typedEvent = (NotifyServicesStarted) event;
+      handleEvent(typedEvent);
+    } else if (event
+        instanceof com.fluxtion.example.servicestater.graph.GraphEvent.NotifyServicesStopped) {
+      NotifyServicesStopped typedEvent = (NotifyServicesStopped) event;
+      handleEvent(typedEvent);
     } else if (event
         instanceof com.fluxtion.example.servicestater.graph.GraphEvent.PublishStartTask) {
       PublishStartTask typedEvent = (PublishStartTask) event;
@@ -288,6 +326,10 @@ public class ProcessorTestLoad
         instanceof com.fluxtion.example.servicestater.graph.GraphEvent.PublishStopTask) {
       PublishStopTask typedEvent = (PublishStopTask) event;
       handleEvent(typedEvent);
+    } else if (event
+        instanceof com.fluxtion.example.servicestater.graph.GraphEvent.RegisterStatusWaiter) {
+      RegisterStatusWaiter typedEvent = (RegisterStatusWaiter) event;
+      handleEvent(typedEvent);
     } else if (event
         instanceof com.fluxtion.example.servicestater.graph.GraphEvent.RegisterWrappedInstance) {
       RegisterWrappedInstance typedEvent = (RegisterWrappedInstance) event;
@@ -303,6 +345,14 @@ public class ProcessorTestLoad
         instanceof com.fluxtion.example.servicestater.graph.GraphEvent.RequestServiceStop) {
       RequestServiceStop typedEvent = (RequestServiceStop) event;
       handleEvent(typedEvent);
+    } else if (event
+        instanceof com.fluxtion.example.servicestater.graph.GraphEvent.RequestServicesStart) {
+      RequestServicesStart typedEvent = (RequestServicesStart) event;
+      handleEvent(typedEvent);
+    } else if (event
+        instanceof com.fluxtion.example.servicestater.graph.GraphEvent.RequestServicesStop) {
+      RequestServicesStop typedEvent = (RequestServicesStop) event;
+      handleEvent(typedEvent);
     } else if (event
         instanceof com.fluxtion.example.servicestater.graph.GraphEvent.RequestStartAll) {
       RequestStartAll typedEvent = (RequestStartAll) event;
@@ -311,6 +361,13 @@ public class ProcessorTestLoad
         instanceof com.fluxtion.example.servicestater.graph.GraphEvent.RequestStopAll) {
       RequestStopAll typedEvent = (RequestStopAll) event;
       handleEvent(typedEvent);
+    } else if (event
+        instanceof com.fluxtion.example.servicestater.graph.GraphEvent.SetDependentFailurePolicy) {
+      SetDependentFailurePolicy typedEvent = (SetDependentFailurePolicy) event;
+      handleEvent(typedEvent);
+    } else if (event instanceof com.fluxtion.example.servicestater.graph.GraphEvent.TasksFailed) {
+      TasksFailed typedEvent = (TasksFailed) event;
+      handleEvent(typedEvent);
     } else if (event instanceof com.fluxtion.runtime.audit.EventLogControlEvent) {
       EventLogControlEvent typedEvent = (EventLogControlEvent) event;
       handleEvent(typedEvent);
@@ -330,6 +387,15 @@ public class ProcessorTestLoad
     afterEvent();
   }
 
+  public void handleEvent(RegisterStatusChangeListener typedEvent) {
+    auditEvent(typedEvent);
+    //Default, no filter methods
+    auditInvocation(
+        serviceStatusCache, "serviceStatusCache", "registerStatusChangeListener", typedEvent);
+    serviceStatusCache.registerStatusChangeListener(typedEvent);
+    afterEvent();
+  }
+
   public void handleEvent(RegisterStatusListener typedEvent) {
     auditEvent(typedEvent);
     //Default, no filter methods
@@ -400,6 +466,42 @@ public class ProcessorTestLoad
     afterEvent();
   }
 
+  public void handleEvent(NotifyServicesStarted typedEvent) {
+    auditEvent(typedEvent);
+    //Default, no filter methods
+    auditInvocation(A_stop, "A_stop", "notifyServicesStarted", typedEvent);
+    isDirty_A_stop = A_stop.notifyServicesStarted(typedEvent);
+    auditInvocation(B_stop, "B_stop", "notifyServicesStarted", typedEvent);
+    isDirty_B_stop = B_stop.notifyServicesStarted(typedEvent);
+    if (guardCheck_B_stop()) {
+      auditInvocation(B_stop, "B_stop", "recalculateStatusForStop", typedEvent);
+      isDirty_B_stop = B_stop.recalculateStatusForStop();
+    }
+    if (guardCheck_serviceStatusCache()) {
+      auditInvocation(serviceStatusCache, "serviceStatusCache", "publishStatus", typedEvent);
+      serviceStatusCache.publishStatus();
+    }
+    afterEvent();
+  }
+
+  public void handleEvent(NotifyServicesStopped typedEvent) {
+    auditEvent(typedEvent);
+    //Default, no filter methods
+    auditInvocation(B_start, "B_start", "notifyServicesStopped", typedEvent);
+    isDirty_B_start = B_start.notifyServicesStopped(typedEvent);
+    auditInvocation(A_start, "A_start", "notifyServicesStopped", typedEvent);
+    isDirty_A_start = A_start.notifyServicesStopped(typedEvent);
+    if (guardCheck_A_start()) {
+      auditInvocation(A_start, "A_start", "recalculateStatusForStart", typedEvent);
+      isDirty_A_start = A_start.recalculateStatusForStart();
+    }
+    if (guardCheck_serviceStatusCache()) {
+      auditInvocation(serviceStatusCache, "serviceStatusCache", "publishStatus", typedEvent);
+      serviceStatusCache.publishStatus();
+    }
+    afterEvent();
+  }
+
   public void handleEvent(PublishStartTask typedEvent) {
     auditEvent(typedEvent);
     //Default, no filter methods
@@ -428,6 +530,14 @@ public class ProcessorTestLoad
     afterEvent();
   }
 
+  public void handleEvent(RegisterStatusWaiter typedEvent) {
+    auditEvent(typedEvent);
+    //Default, no filter methods
+    auditInvocation(serviceStatusCache, "serviceStatusCache", "registerStatusWaiter", typedEvent);
+    serviceStatusCache.registerStatusWaiter(typedEvent);
+    afterEvent();
+  }
+
   public void handleEvent(RegisterWrappedInstance typedEvent) {
     auditEvent(typedEvent);
     switch (typedEvent.filterString()) {
@@ -529,6 +639,42 @@ public class ProcessorTestLoad
     afterEvent();
   }
 
+  public void handleEvent(RequestServicesStart typedEvent) {
+    auditEvent(typedEvent);
+    //Default, no filter methods
+    auditInvocation(B_start, "B_start", "startServices", typedEvent);
+    isDirty_B_start = B_start.startServices(typedEvent);
+    auditInvocation(A_start, "A_start", "startServices", typedEvent);
+    isDirty_A_start = A_start.startServices(typedEvent);
+    if (guardCheck_A_start()) {
+      auditInvocation(A_start, "A_start", "recalculateStatusForStart", typedEvent);
+      isDirty_A_start = A_start.recalculateStatusForStart();
+    }
+    if (guardCheck_serviceStatusCache()) {
+      auditInvocation(serviceStatusCache, "serviceStatusCache", "publishStatus", typedEvent);
+      serviceStatusCache.publishStatus();
+    }
+    afterEvent();
+  }
+
+  public void handleEvent(RequestServicesStop typedEvent) {
+    auditEvent(typedEvent);
+    //Default, no filter methods
+    auditInvocation(A_stop, "A_stop", "stopServices", typedEvent);
+    isDirty_A_stop = A_stop.stopServices(typedEvent);
+    auditInvocation(B_stop, "B_stop", "stopServices", typedEvent);
+    isDirty_B_stop = B_stop.stopServices(typedEvent);
+    if (guardCheck_B_stop()) {
+      auditInvocation(B_stop, "B_stop", "recalculateStatusForStop", typedEvent);
+      isDirty_B_stop = B_stop.recalculateStatusForStop();
+    }
+    if (guardCheck_serviceStatusCache()) {
+      auditInvocation(serviceStatusCache, "serviceStatusCache", "publishStatus", typedEvent);
+      serviceStatusCache.publishStatus();
+    }
+    afterEvent();
+  }
+
   public void handleEvent(RequestStartAll typedEvent) {
     auditEvent(typedEvent);
     //Default, no filter methods
@@ -565,6 +711,23 @@ public class ProcessorTestLoad
     afterEvent();
   }
 
+  public void handleEvent(SetDependentFailurePolicy typedEvent) {
+    auditEvent(typedEvent);
+    //Default, no filter methods
+    auditInvocation(
+        serviceStatusCache, "serviceStatusCache", "setDependentFailurePolicy", typedEvent);
+    serviceStatusCache.setDependentFailurePolicy(typedEvent);
+    afterEvent();
+  }
+
+  public void handleEvent(TasksFailed typedEvent) {
+    auditEvent(typedEvent);
+    //Default, no filter methods
+    auditInvocation(serviceStatusCache, "serviceStatusCache", "tasksFailed", typedEvent);
+    serviceStatusCache.tasksFailed(typedEvent);
+    afterEvent();
+  }
+
   public void handleEvent(EventLogControlEvent typedEvent) {
     auditEvent(typedEvent);
     //Default, no filter methods
@@ -636,6 +799,15 @@ public class ProcessorTestLoad
       auditEvent(typedEvent);
       auditInvocation(commandPublisher, "commandPublisher", "registerCommandProcessor", typedEvent);
       commandPublisher.registerCommandProcessor(typedEvent);
+    } else if (event
+        instanceof
+        com.fluxtion.example.servicestater.graph.FluxtionServiceManager
+            .RegisterStatusChangeListener) {
+      RegisterStatusChangeListener typedEvent = (RegisterStatusChangeListener) event;
+      auditEvent(typedEvent);
+      auditInvocation(
+          serviceStatusCache, "serviceStatusCache", "registerStatusChangeListener", typedEvent);
+      serviceStatusCache.registerStatusChangeListener(typedEvent);
     } else if (event
         instanceof
         com.fluxtion.example.servicestater.graph.FluxtionServiceManager.RegisterStatusListener) {
@@ -684,6 +856,26 @@ public class ProcessorTestLoad
           afterEvent();
           return;
       }
+    } else if (event
+        instanceof com.fluxtion.example.servicestater.graph.GraphEvent.NotifyServicesStarted) {
+      NotifyServicesStarted typedEvent = (NotifyServicesStarted) event;
+      auditEvent(typedEvent);
+      auditInvocation(A_stop, "A_stop", "notifyServicesStarted", typedEvent);
+      isDirty_A_stop = true;
+      A_stop.notifyServicesStarted(typedEvent);
+      auditInvocation(B_stop, "B_stop", "notifyServicesStarted", typedEvent);
+      isDirty_B_stop = true;
+      B_stop.notifyServicesStarted(typedEvent);
+    } else if (event
+        instanceof com.fluxtion.example.servicestater.graph.GraphEvent.NotifyServicesStopped) {
+      NotifyServicesStopped typedEvent = (NotifyServicesStopped) event;
+      auditEvent(typedEvent);
+      auditInvocation(B_start, "B_start", "notifyServicesStopped", typedEvent);
+      isDirty_B_start = true;
+      B_start.notifyServicesStopped(typedEvent);
+      auditInvocation(A_start, "A_start", "notifyServicesStopped", typedEvent);
+      isDirty_A_start = true;
+      A_start.notifyServicesStopped(typedEvent);
     } else if (event
         instanceof com.fluxtion.example.servicestater.graph.GraphEvent.PublishStartTask) {
       PublishStartTask typedEvent = (PublishStartTask) event;
@@ -709,6 +901,12 @@ public class ProcessorTestLoad
       auditInvocation(A_start, "A_start", "publishStartTasks", typedEvent);
       isDirty_A_start = true;
       A_start.publishStartTasks(typedEvent);
+    } else if (event
+        instanceof com.fluxtion.example.servicestater.graph.GraphEvent.RegisterStatusWaiter) {
+      RegisterStatusWaiter typedEvent = (RegisterStatusWaiter) event;
+      auditEvent(typedEvent);
+      auditInvocation(serviceStatusCache, "serviceStatusCache", "registerStatusWaiter", typedEvent);
+      serviceStatusCache.registerStatusWaiter(typedEvent);
     } else if (event
         instanceof com.fluxtion.example.servicestater.graph.GraphEvent.RegisterWrappedInstance) {
       RegisterWrappedInstance typedEvent = (RegisterWrappedInstance) event;
@@ -792,6 +990,26 @@ public class ProcessorTestLoad
           afterEvent();
           return;
       }
+    } else if (event
+        instanceof com.fluxtion.example.servicestater.graph.GraphEvent.RequestServicesStart) {
+      RequestServicesStart typedEvent = (RequestServicesStart) event;
+      auditEvent(typedEvent);
+      auditInvocation(B_start, "B_start", "startServices", typedEvent);
+      isDirty_B_start = true;
+      B_start.startServices(typedEvent);
+      auditInvocation(A_start, "A_start", "startServices", typedEvent);
+      isDirty_A_start = true;
+      A_start.startServices(typedEvent);
+    } else if (event
+        instanceof com.fluxtion.example.servicestater.graph.GraphEvent.RequestServicesStop) {
+      RequestServicesStop typedEvent = (RequestServicesStop) event;
+      auditEvent(typedEvent);
+      auditInvocation(A_stop, "A_stop", "stopServices", typedEvent);
+      isDirty_A_stop = true;
+      A_stop.stopServices(typedEvent);
+      auditInvocation(B_stop, "B_stop", "stopServices", typedEvent);
+      isDirty_B_stop = true;
+      B_stop.stopServices(typedEvent);
     } else if (event
         instanceof com.fluxtion.example.servicestater.graph.GraphEvent.RequestStartAll) {
       RequestStartAll typedEvent = (RequestStartAll) event;
@@ -812,6 +1030,18 @@ public class ProcessorTestLoad
       auditInvocation(B_stop, "B_stop", "stopAllServices", typedEvent);
       isDirty_B_stop = true;
       B_stop.stopAllServices(typedEvent);
+    } else if (event
+        instanceof com.fluxtion.example.servicestater.graph.GraphEvent.SetDependentFailurePolicy) {
+      SetDependentFailurePolicy typedEvent = (SetDependentFailurePolicy) event;
+      auditEvent(typedEvent);
+      auditInvocation(
+          serviceStatusCache, "serviceStatusCache", "setDependentFailurePolicy", typedEvent);
+      serviceStatusCache.setDependentFailurePolicy(typedEvent);
+    } else if (event instanceof com.fluxtion.example.servicestater.graph.GraphEvent.TasksFailed) {
+      TasksFailed typedEvent = (TasksFailed) event;
+      auditEvent(typedEvent);
+      auditInvocation(serviceStatusCache, "serviceStatusCache", "tasksFailed", typedEvent);
+      serviceStatusCache.tasksFailed(typedEvent);
     } else if (event instanceof com.fluxtion.runtime.audit.EventLogControlEvent) {
       EventLogControlEvent typedEvent = (EventLogControlEvent) event;
       auditEvent(typedEvent);